@@ -37,7 +37,7 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     public void update(float deltaTime) {
         if (!enabled) return;
         
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
+        TransformComponent transform = owner.getTransform();
         if (transform == null) return;
         
         // 应用重力
@@ -150,6 +150,17 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
         return new Vector2(velocity);
     }
     
+    /**
+     * 速度分量，不分配 Vector2
+     */
+    public float getVelocityX() {
+        return velocity.x;
+    }
+    
+    public float getVelocityY() {
+        return velocity.y;
+    }
+    
     public Vector2 getAcceleration() {
         return new Vector2(acceleration);
     }
@@ -68,7 +68,7 @@ public class PlayerShootingComponent extends Component<PlayerShootingComponent>
         shootTimer = shootCooldown;
         
         // 使用 EntityFactory 创建子弹
-        TransformComponent ownerTransform = owner.getComponent(TransformComponent.class);
+        TransformComponent ownerTransform = owner.getTransform();
         if (ownerTransform == null) return false;
         
         Vector2 ownerPos = ownerTransform.getPosition();
@@ -69,12 +69,12 @@ public class RenderComponent extends Component<RenderComponent> {
             return;
         }
         
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
+        TransformComponent transform = owner.getTransform();
         if (transform == null) {
             return;
         }
         
-        Vector2 position = transform.getPosition();
+        Vector2 position = transform.getRenderPosition();
         
         switch (renderType) {
             case RECTANGLE:
@@ -1,33 +1,62 @@
 package com.gameengine.components;
 
 import com.gameengine.core.Component;
+import com.gameengine.ecs.TransformBuffer;
 import com.gameengine.math.Vector2;
 
 /**
  * 变换组件，管理位置、旋转、缩放
+ * 所属对象加入场景后，位置存放在场景的 TransformBuffer 中（同时保留上一 tick 的位置供渲染插值），
+ * 离开场景时复制回组件自身。
  */
 public class TransformComponent extends Component<TransformComponent> {
-    private Vector2 position;
+    // 未加入场景时的位置
+    private float x;
+    private float y;
+    private TransformBuffer buffer;
+    private int slot = -1;
     private Vector2 scale;
     private float rotation;
     
     public TransformComponent() {
-        this.position = new Vector2();
         this.scale = new Vector2(1, 1);
         this.rotation = 0;
     }
     
     public TransformComponent(Vector2 position) {
         this();
-        this.position = new Vector2(position);
+        this.x = position.x;
+        this.y = position.y;
     }
     
     public TransformComponent(Vector2 position, Vector2 scale, float rotation) {
-        this.position = new Vector2(position);
+        this.x = position.x;
+        this.y = position.y;
         this.scale = new Vector2(scale);
         this.rotation = rotation;
     }
     
+    /**
+     * 把位置移入场景的缓冲区（由 Scene 在分配句柄时调用）
+     */
+    public void attach(TransformBuffer buffer, int slot) {
+        detach();
+        buffer.put(slot, x, y);
+        this.buffer = buffer;
+        this.slot = slot;
+    }
+    
+    /**
+     * 把位置复制回组件并释放槽位（由 Scene 在释放句柄时调用）
+     */
+    public void detach() {
+        if (buffer == null) return;
+        x = buffer.x(slot);
+        y = buffer.y(slot);
+        buffer = null;
+        slot = -1;
+    }
+    
     @Override
     public void initialize() {
         // 初始化变换组件
@@ -47,14 +76,31 @@ public class TransformComponent extends Component<TransformComponent> {
      * 移动到指定位置
      */
     public void moveTo(Vector2 newPosition) {
-        this.position = new Vector2(newPosition);
+        setPosition(newPosition);
+    }
+    
+    /**
+     * 瞬移到指定位置，渲染不在旧位置与新位置之间插值
+     */
+    public void teleport(Vector2 newPosition) {
+        if (buffer != null) {
+            buffer.teleport(slot, newPosition.x, newPosition.y);
+        } else {
+            x = newPosition.x;
+            y = newPosition.y;
+        }
     }
     
     /**
      * 移动相对距离
      */
     public void translate(Vector2 delta) {
-        this.position = position.add(delta);
+        if (buffer != null) {
+            buffer.translate(slot, delta.x, delta.y);
+        } else {
+            x += delta.x;
+            y += delta.y;
+        }
     }
     
     /**
@@ -87,11 +133,34 @@ public class TransformComponent extends Component<TransformComponent> {
     
     // Getters and Setters
     public Vector2 getPosition() {
-        return new Vector2(position);
+        return buffer != null ? new Vector2(buffer.x(slot), buffer.y(slot)) : new Vector2(x, y);
+    }
+    
+    /**
+     * 当前位置的分量，不分配 Vector2，供逐帧扫描使用
+     */
+    public float getX() {
+        return buffer != null ? buffer.x(slot) : x;
+    }
+    
+    public float getY() {
+        return buffer != null ? buffer.y(slot) : y;
     }
     
     public void setPosition(Vector2 position) {
-        this.position = new Vector2(position);
+        if (buffer != null) {
+            buffer.set(slot, position.x, position.y);
+        } else {
+            x = position.x;
+            y = position.y;
+        }
+    }
+    
+    /**
+     * 渲染用位置：上一 tick 与当前位置按引擎给出的插值系数混合，未加入场景时即当前位置
+     */
+    public Vector2 getRenderPosition() {
+        return buffer != null ? new Vector2(buffer.renderX(slot), buffer.renderY(slot)) : new Vector2(x, y);
     }
     
     public Vector2 getScale() {
@@ -3,10 +3,13 @@ package com.gameengine.components;
 import com.gameengine.core.Component;
 import com.gameengine.example.Game;
 import com.gameengine.graphics.IRenderer;
+import com.gameengine.graphics.RetainedMesh;
 import com.gameengine.math.Vector2;
 
 /**
  * 分数显示组件，负责在屏幕上显示分数
+ * HUD 几何保留在 RetainedMesh 中，只有分数、生命值或窗口尺寸变化时才重建，
+ * 其余帧直接绘制缓存结果
  */
 public class UIComponent extends Component<UIComponent> {
     public static final int UI_WIDTH = 200; // 固定宽度，但位置动态计算
@@ -20,6 +23,15 @@ public class UIComponent extends Component<UIComponent> {
     private Vector2 position;
     private ScoreComponent scoreComponent;
     
+    // 保留模式 HUD 及其构建时的状态
+    private final RetainedMesh hud = new RetainedMesh();
+    private boolean hudBuilt;
+    private int builtScore;
+    private int builtHealth;
+    private int builtMaxHealth;
+    private int builtWidth;
+    private int builtHeight;
+    
     private UIComponent() {
         // 动态计算UI区域位置
         UI_X = Game.WINDOW_WIDTH - UI_WIDTH;
@@ -46,25 +58,55 @@ public class UIComponent extends Component<UIComponent> {
     public void render() {
         if (renderer == null) return;
         
+        if (isHudDirty()) {
+            rebuildHud();
+        }
+        renderer.drawMesh(hud);
+    }
+    
+    /**
+     * 分数、生命值或窗口尺寸与上次构建时不同
+     */
+    private boolean isHudDirty() {
+        return !hudBuilt
+            || builtScore != scoreComponent.getScore()
+            || builtHealth != scoreComponent.getCurrentHealth()
+            || builtMaxHealth != scoreComponent.getMaxHealth()
+            || builtWidth != renderer.getWidth()
+            || builtHeight != renderer.getHeight();
+    }
+    
+    /**
+     * 重新记录 HUD 几何，分数字符串只在这里生成
+     */
+    private void rebuildHud() {
+        builtScore = scoreComponent.getScore();
+        builtHealth = scoreComponent.getCurrentHealth();
+        builtMaxHealth = scoreComponent.getMaxHealth();
+        builtWidth = renderer.getWidth();
+        builtHeight = renderer.getHeight();
+        hudBuilt = true;
+        
         // 动态计算UI区域位置
-        UI_X = renderer.getWidth() - UI_WIDTH;
+        UI_X = builtWidth - UI_WIDTH;
         
-        renderer.drawRect(UI_X, UI_Y, UI_WIDTH, UI_LENGTH, 0.1f, 0.1f, 0.1f, 1.0f);
-        renderer.drawRect(0, 0, renderer.getWidth(), 10, 0.1f, 0.1f, 0.1f, 1.0f);
-        renderer.drawRect(0, 0, 10, renderer.getHeight(), 0.1f, 0.1f, 0.1f, 1.0f);
-        renderer.drawRect(0, renderer.getHeight() - 10, renderer.getWidth(), 10, 0.1f, 0.1f, 0.1f, 1.0f);
+        hud.begin();
+        hud.rect(UI_X, UI_Y, UI_WIDTH, UI_LENGTH, 0.1f, 0.1f, 0.1f, 1.0f);
+        hud.rect(0, 0, builtWidth, 10, 0.1f, 0.1f, 0.1f, 1.0f);
+        hud.rect(0, 0, 10, builtHeight, 0.1f, 0.1f, 0.1f, 1.0f);
+        hud.rect(0, builtHeight - 10, builtWidth, 10, 0.1f, 0.1f, 0.1f, 1.0f);
         
         // 动态计算UI元素位置
         float scoreBoxX = UI_X + 10;
         float scoreBoxY = 50;
-        renderer.drawRect(scoreBoxX, scoreBoxY - 25, 180, 150, 0.2f, 0.2f, 0.2f, 0.8f);
+        hud.rect(scoreBoxX, scoreBoxY - 25, 180, 150, 0.2f, 0.2f, 0.2f, 0.8f);
         
-        String scoreText = "Score: " + scoreComponent.getScore();
+        String scoreText = "Score: " + builtScore;
         String gameText = "JAVA: STG";
-        renderer.drawText(scoreBoxX + 5, scoreBoxY - 20, scoreText, 1.0f, 1.0f, 1.0f, 1.0f);
+        hud.text(scoreBoxX + 5, scoreBoxY - 20, scoreText, 1.0f, 1.0f, 1.0f, 1.0f);
 
-        float gameTextY = renderer.getHeight() - 50;
-        renderer.drawText(scoreBoxX + 5, gameTextY, gameText, 1.0f, 1.0f, 1.0f, 1.0f);
+        float gameTextY = builtHeight - 50;
+        hud.text(scoreBoxX + 5, gameTextY, gameText, 1.0f, 1.0f, 1.0f, 1.0f);
         
         // 绘制生命值圆圈
         drawHealthCircles(scoreBoxX + 5, scoreBoxY + 50);
@@ -92,14 +134,14 @@ public class UIComponent extends Component<UIComponent> {
     }
     
     /**
-     * 绘制生命值圆圈
+     * 记录生命值圆圈
      */
     private void drawHealthCircles(float startX, float startY) {
-        int currentHealth = scoreComponent.getCurrentHealth();
-        int maxHealth = scoreComponent.getMaxHealth();
+        int currentHealth = builtHealth;
+        int maxHealth = builtMaxHealth;
         
         // 绘制生命值标题
-        renderer.drawText(startX, startY - 30, "Health:", 1.0f, 1.0f, 1.0f, 1.0f);
+        hud.text(startX, startY - 30, "Health:", 1.0f, 1.0f, 1.0f, 1.0f);
         
         // 绘制生命值圆圈
         float circleRadius = 8.0f;
@@ -111,14 +153,14 @@ public class UIComponent extends Component<UIComponent> {
             
             if (i < currentHealth) {
                 // 满生命值 - 绿色圆圈
-                renderer.drawCircle(x, y, circleRadius, 16, 0.0f, 1.0f, 0.0f, 1.0f);
+                hud.circle(x, y, circleRadius, 16, 0.0f, 1.0f, 0.0f, 1.0f);
             } else {
                 // 空生命值 - 红色圆圈
-                renderer.drawCircle(x, y, circleRadius, 16, 1.0f, 0.0f, 0.0f, 0.3f);
+                hud.circle(x, y, circleRadius, 16, 1.0f, 0.0f, 0.0f, 0.3f);
             }
             
             // 圆圈边框
-            renderer.drawCircle(x, y, circleRadius, 16, 1.0f, 1.0f, 1.0f, 0.5f);
+            hud.circle(x, y, circleRadius, 16, 1.0f, 1.0f, 1.0f, 0.5f);
         }
     }
 }
@@ -0,0 +1,211 @@
+package com.gameengine.core;
+
+import com.gameengine.graphics.IRenderer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 帧节奏控制
+ * 主循环每帧依次调用 beginFrame、presented（交换之后）和 waitForNextFrame，由本类决定交换间隔以及帧末是否等待：
+ * VSYNC 由交换阻塞到垂直同步；UNCAPPED 不同步也不等待；CAPPED 关闭同步，按目标帧率先休眠后自旋等到截止时间；
+ * ADAPTIVE 优先用驱动的自适应同步（交换间隔 -1），不支持时在软件中切换：连续错过刷新周期就关闭同步避免掉到半帧率，
+ * 工作时间回落后再打开。后端不支持交换间隔（软件、无窗口后端）时退化为 CAPPED。
+ */
+public class FramePacer {
+    public enum Mode {
+        VSYNC, UNCAPPED, CAPPED, ADAPTIVE;
+
+        public static Mode parse(String value) {
+            if (value == null || value.isBlank()) {
+                return VSYNC;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("未知帧节奏模式: " + value + "，使用VSYNC");
+                return VSYNC;
+            }
+        }
+    }
+
+    // 剩余时间小于该值时改为自旋，休眠的唤醒误差通常在 1ms 左右
+    static final long DEFAULT_SPIN_NANOS = 1_500_000L;
+    // 软件自适应：连续错过这么多帧关闭同步，连续这么多帧富余再打开
+    private static final int MISS_FRAMES = 3;
+    private static final int RECOVER_FRAMES = 60;
+
+    private final IRenderer renderer;
+    private final Mode mode;
+    private final long spinNanos;
+    private long periodNanos;
+    private int refreshRate;
+
+    // 当前交换间隔，以及帧末是否需要自己等待
+    private int swapInterval;
+    private boolean capped;
+    private boolean softwareAdaptive;
+    private int missed;
+    private int recovered;
+
+    private long frameStart;
+    private long lastPresent;
+    private long nextDeadline;
+    private long lastIntervalNanos;
+
+    public FramePacer(IRenderer renderer, Mode mode, float targetFps) {
+        this(renderer, mode, targetFps, DEFAULT_SPIN_NANOS);
+    }
+
+    public FramePacer(IRenderer renderer, Mode mode, float targetFps, long spinNanos) {
+        this.renderer = renderer;
+        this.mode = mode;
+        this.spinNanos = Math.max(0, spinNanos);
+        this.periodNanos = period(targetFps);
+        configure();
+    }
+
+    /**
+     * 按模式设置交换间隔；后端不接受时退化为按目标帧率等待
+     */
+    private void configure() {
+        refreshRate = renderer.getRefreshRate();
+        switch (mode) {
+            case UNCAPPED -> {
+                applySwapInterval(0);
+                capped = false;
+            }
+            case CAPPED -> {
+                applySwapInterval(0);
+                capped = true;
+            }
+            case VSYNC -> capped = !applySwapInterval(1);
+            case ADAPTIVE -> {
+                if (applySwapInterval(-1)) {
+                    capped = false;
+                } else if (applySwapInterval(1)) {
+                    // 驱动不支持撕裂控制，改由软件切换；关闭同步期间按刷新率限速
+                    softwareAdaptive = true;
+                    capped = false;
+                } else {
+                    capped = true;
+                }
+            }
+        }
+    }
+
+    private boolean applySwapInterval(int interval) {
+        if (renderer.setSwapInterval(interval)) {
+            swapInterval = interval;
+            return true;
+        }
+        return false;
+    }
+
+    public void setTargetFps(float fps) {
+        this.periodNanos = period(fps);
+    }
+
+    private static long period(float fps) {
+        return fps > 0 ? (long) (1_000_000_000.0 / fps) : 0;
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * 帧已交换：记录与上一次交换的间隔，返回该间隔（纳秒，首帧为 0）
+     */
+    public long presented() {
+        long now = System.nanoTime();
+        lastIntervalNanos = lastPresent != 0 ? now - lastPresent : 0;
+        lastPresent = now;
+        if (softwareAdaptive) {
+            adapt(now - frameStart);
+        }
+        return lastIntervalNanos;
+    }
+
+    /**
+     * 需要自己限速时等待到下一帧的开始时间
+     */
+    public void waitForNextFrame() {
+        if (capped) {
+            waitForDeadline(periodNanos);
+        } else if (softwareAdaptive && swapInterval == 0) {
+            waitForDeadline(refreshPeriodNanos());
+        }
+    }
+
+    /**
+     * 以工作时间（不含等待）判断是否跟得上刷新率
+     */
+    private void adapt(long workNanos) {
+        long refresh = refreshPeriodNanos();
+        if (refresh <= 0) return;
+        if (swapInterval == 1) {
+            // 开着同步时工作时间包含交换阻塞，用交换间隔判断是否掉到了下一个刷新周期
+            missed = lastIntervalNanos > refresh * 3 / 2 ? missed + 1 : 0;
+            if (missed >= MISS_FRAMES && applySwapInterval(0)) {
+                missed = 0;
+                recovered = 0;
+                nextDeadline = 0;
+            }
+        } else {
+            recovered = workNanos < refresh * 3 / 4 ? recovered + 1 : 0;
+            if (recovered >= RECOVER_FRAMES && applySwapInterval(1)) {
+                recovered = 0;
+                missed = 0;
+            }
+        }
+    }
+
+    private long refreshPeriodNanos() {
+        return refreshRate > 0 ? 1_000_000_000L / refreshRate : periodNanos;
+    }
+
+    /**
+     * 截止时间按周期累加，避免误差积累；明显落后（超过四分之一周期）时不追帧，从现在重新计时，
+     * 否则迟到的帧之后会紧跟一帧，交换间隔反而更不均匀
+     */
+    private void waitForDeadline(long period) {
+        if (period <= 0) return;
+        long now = System.nanoTime();
+        if (nextDeadline == 0 || now - nextDeadline > period / 4) {
+            nextDeadline = now;
+        }
+        waitUntil(nextDeadline);
+        nextDeadline += period;
+    }
+
+    /**
+     * 先休眠到截止前 spinNanos，剩余时间自旋
+     */
+    private void waitUntil(long deadline) {
+        while (!Thread.currentThread().isInterrupted()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            if (remaining > spinNanos) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getSwapInterval() {
+        return swapInterval;
+    }
+
+    public boolean isCapped() {
+        return capped;
+    }
+
+    public long getLastIntervalNanos() {
+        return lastIntervalNanos;
+    }
+}
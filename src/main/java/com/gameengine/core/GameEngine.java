@@ -2,20 +2,35 @@ package com.gameengine.core;
 
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.graphics.RenderBackend;
+import com.gameengine.graphics.RenderQueue;
 import com.gameengine.graphics.RendererFactory;
 import com.gameengine.input.InputManager;
+import com.gameengine.jfr.EngineEvents;
+import com.gameengine.jfr.FrameEvent;
+import com.gameengine.jfr.SceneTransitionEvent;
+import com.gameengine.metrics.EngineMetrics;
 import com.gameengine.scene.Scene;
+import com.gameengine.util.ConfigManager;
 
 
 public class GameEngine {
+    // 固定 tick 模式下一帧最多补跑的 tick 数，超出的时间直接丢弃，避免越落后越慢
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    
     private IRenderer renderer;
     private InputManager inputManager;
     private Scene currentScene;
     private PhysicsSystem physicsSystem;
+    private FramePacer framePacer;
     private boolean running;
     private float targetFPS;
     private float deltaTime;
     private long lastTime;
+    // 固定模拟步长（纳秒），0 表示每帧按实际间隔更新一次
+    private long tickNanos;
+    private long accumulatorNanos;
+    private float interpolationAlpha;
+    private long frameIndex;
     @SuppressWarnings("unused")
     private String title;
     // 新录制服务（可选）
@@ -27,11 +42,16 @@ public class GameEngine {
     
     public GameEngine(int width, int height, String title, RenderBackend backend) {
         this.title = title;
-        this.renderer = RendererFactory.createRenderer(backend, width, height, title);
+        // 绘制命令先进入队列，帧结束时按层与状态排序后交给后端
+        this.renderer = new RenderQueue(RendererFactory.createRenderer(backend, width, height, title));
         this.inputManager = InputManager.getInstance();
         this.running = false;
-        this.targetFPS = 60.0f;
+        int configuredFps = ConfigManager.getInstance().getInt("window.target_fps");
+        this.targetFPS = configuredFps > 0 ? configuredFps : 60.0f;
+        int tickRate = ConfigManager.getInstance().getInt("sim.tick_rate");
+        this.tickNanos = tickRate > 0 ? (long) (1_000_000_000.0 / tickRate) : 0;
         this.deltaTime = 0.0f;
+        this.interpolationAlpha = 1.0f;
         this.lastTime = System.nanoTime();
         
     }
@@ -47,6 +67,8 @@ public class GameEngine {
         }
         
         running = true;
+        EngineEvents.start();
+        EngineMetrics.getInstance().start();
         
         if (currentScene != null) {
             currentScene.initialize();
@@ -58,42 +80,116 @@ public class GameEngine {
             
         }
         
-        long lastFrameTime = System.nanoTime();
-        long frameTimeNanos = (long)(1_000_000_000.0 / targetFPS);
+        // 帧节奏统一由 FramePacer 控制：交换间隔与帧末等待二选一，不再额外休眠
+        ConfigManager config = ConfigManager.getInstance();
+        framePacer = new FramePacer(renderer, FramePacer.Mode.parse(config.getString("render.pacing")),
+            targetFPS, config.getInt("render.pacing_spin_us") * 1_000L);
+        lastTime = System.nanoTime();
+        accumulatorNanos = 0;
+        long previousFrameStart = 0;
         
         while (running) {
             long currentTime = System.nanoTime();
+            // 相邻两帧开始时间之差，包含上一帧末尾的节奏等待，即实际帧间隔
+            long frameIntervalNanos = previousFrameStart != 0 ? currentTime - previousFrameStart : 0;
+            previousFrameStart = currentTime;
+            framePacer.beginFrame();
             
-            if (currentTime - lastFrameTime >= frameTimeNanos) {
-                update();
-                if (running) {
-                    render();
-                }
-                lastFrameTime = currentTime;
+            FrameEvent frameEvent = EngineEvents.isEnabled() ? new FrameEvent() : null;
+            if (frameEvent != null) frameEvent.begin();
+            
+            simulate();
+            if (running) {
+                render();
             }
+            long presentNanos = framePacer.presented();
             
-            renderer.pollEvents();
+            if (EngineMetrics.isEnabled()) {
+                updateMetrics(frameIntervalNanos, System.nanoTime() - currentTime, presentNanos);
+            }
             
-            if (renderer.shouldClose()) {
-                running = false;
+            if (frameEvent != null && frameEvent.shouldCommit()) {
+                frameEvent.frameIndex = frameIndex;
+                frameEvent.deltaTime = deltaTime;
+                frameEvent.scene = currentScene != null ? currentScene.getName() : null;
+                frameEvent.objectCount = currentScene != null ? currentScene.getObjectCount() : 0;
+                frameEvent.presentIntervalMs = presentNanos / 1_000_000.0f;
+                frameEvent.commit();
             }
+            frameIndex++;
             
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
+            framePacer.waitForNextFrame();
+            if (Thread.currentThread().isInterrupted()) {
                 break;
             }
+            
+            renderer.pollEvents();
+            
+            if (renderer.shouldClose()) {
+                running = false;
+            }
         }
     }
     
-    private void update() {
+    private void updateMetrics(long frameIntervalNanos, long workNanos, long presentNanos) {
+        EngineMetrics metrics = EngineMetrics.getInstance();
+        metrics.recordFrame(frameIntervalNanos, workNanos);
+        metrics.recordPresent(presentNanos, framePacer.getSwapInterval());
+        if (currentScene != null) {
+            metrics.sampleEntities(currentScene);
+        }
+        if (recordingService != null) {
+            metrics.recordRecording(recordingService.getQueueDepth(),
+                recordingService.getBytesWritten(), recordingService.getDroppedLines());
+        }
+        if (renderer instanceof RenderQueue queue) {
+            metrics.recordRender(queue.getLastSubmittedCount(), queue.getLastCulledCount());
+        }
+    }
+    
+    /**
+     * 推进模拟：可变步长时按帧间隔更新一次；固定步长时累积帧间隔，按 tick 补跑，
+     * 剩余不足一个 tick 的部分作为渲染插值系数
+     */
+    private void simulate() {
         long currentTime = System.nanoTime();
-        deltaTime = (currentTime - lastTime) / 1_000_000_000.0f;
+        long frameNanos = currentTime - lastTime;
         lastTime = currentTime;
         
-        renderer.pollEvents();
+        if (tickNanos <= 0) {
+            snapshotTransforms();
+            update(frameNanos / 1_000_000_000.0f);
+            interpolationAlpha = 1.0f;
+            return;
+        }
         
+        accumulatorNanos += frameNanos;
+        int ticks = 0;
+        while (accumulatorNanos >= tickNanos && running) {
+            if (ticks == MAX_TICKS_PER_FRAME) {
+                accumulatorNanos %= tickNanos;
+                break;
+            }
+            snapshotTransforms();
+            update(tickNanos / 1_000_000_000.0f);
+            accumulatorNanos -= tickNanos;
+            ticks++;
+        }
+        interpolationAlpha = (float) accumulatorNanos / tickNanos;
+    }
+    
+    private void snapshotTransforms() {
+        if (currentScene != null) {
+            currentScene.getTransforms().snapshot();
+        }
+    }
+    
+    private void update(float tickDelta) {
+        deltaTime = tickDelta;
         
+        renderer.pollEvents();
+        // 输入事件只在这里应用，本 tick 内状态保持不变
+        inputManager.processEvents();
         
         if (currentScene != null) {
             currentScene.update(deltaTime);
@@ -126,6 +222,7 @@ public class GameEngine {
         renderer.beginFrame();
         
         if (currentScene != null) {
+            currentScene.getTransforms().setAlpha(interpolationAlpha);
             currentScene.render();
         }
         
@@ -133,6 +230,10 @@ public class GameEngine {
     }
     
     public void setScene(Scene scene) {
+        SceneTransitionEvent transitionEvent = EngineEvents.isEnabled() ? new SceneTransitionEvent() : null;
+        if (transitionEvent != null) transitionEvent.begin();
+        String from = currentScene != null ? currentScene.getName() : null;
+        
         if (currentScene != null) {
             if (physicsSystem != null) {
                 physicsSystem.cleanup();
@@ -142,6 +243,7 @@ public class GameEngine {
         }
         this.currentScene = scene;
         if (scene != null) {
+            scene.setRenderTarget(renderer);
             if (running) {
                 scene.initialize();
                 if (!scene.getName().equals("MainMenu") && !scene.getName().equals("Replay")) {
@@ -149,6 +251,12 @@ public class GameEngine {
                 }
             }
         }
+        
+        if (transitionEvent != null && transitionEvent.shouldCommit()) {
+            transitionEvent.from = from;
+            transitionEvent.to = scene != null ? scene.getName() : null;
+            transitionEvent.commit();
+        }
     }
     
     public Scene getCurrentScene() {
@@ -169,6 +277,8 @@ public class GameEngine {
         if (currentScene != null) {
             currentScene.clear();
         }
+        EngineEvents.stop();
+        EngineMetrics.getInstance().stop();
         renderer.cleanup();
     }
 
@@ -205,14 +315,40 @@ public class GameEngine {
         return deltaTime;
     }
     
+    /**
+     * 设置固定模拟频率（Hz），0 或负数表示每帧按实际间隔更新
+     */
+    public void setTickRate(float hz) {
+        this.tickNanos = hz > 0 ? (long) (1_000_000_000.0 / hz) : 0;
+        this.accumulatorNanos = 0;
+    }
+    
+    public float getTickRate() {
+        return tickNanos > 0 ? 1_000_000_000.0f / tickNanos : 0;
+    }
+    
+    /**
+     * 上一帧渲染使用的插值系数
+     */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+    
     public void setTargetFPS(float fps) {
         this.targetFPS = fps;
+        if (framePacer != null) {
+            framePacer.setTargetFps(fps);
+        }
     }
     
     public float getTargetFPS() {
         return targetFPS;
     }
     
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+    
     public boolean isRunning() {
         return running;
     }
@@ -10,6 +10,8 @@ import com.gameengine.components.UIComponent;
 import com.gameengine.example.Game;
 import com.gameengine.input.IInputManager;
 import com.gameengine.input.InputManager;
+import com.gameengine.jfr.CollisionPassEvent;
+import com.gameengine.jfr.EngineEvents;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
@@ -60,7 +62,7 @@ public class GameLogic {
             // 停止敌人和子弹
             if ("Enemy".equals(name) || "PlayerBullet".equals(name) || "EnemyBullet".equals(name)) {
                 // 停止物理运动
-                PhysicsComponent physics = obj.getComponent(PhysicsComponent.class);
+                PhysicsComponent physics = obj.getPhysics();
                 if (physics != null) {
                     physics.setVelocity(new Vector2(0, 0));
                 }
@@ -95,8 +97,8 @@ public class GameLogic {
         if (players.isEmpty()) return;
         
         GameObject player = players.get(0);
-        TransformComponent transform = player.getComponent(TransformComponent.class);
-        PhysicsComponent physics = player.getComponent(PhysicsComponent.class);
+        TransformComponent transform = player.getTransform();
+        PhysicsComponent physics = player.getPhysics();
         PlayerShootingComponent shooting = player.getComponent(PlayerShootingComponent.class);
         
         if (transform == null || physics == null) return;
@@ -143,7 +145,7 @@ public class GameLogic {
     public void updatePhysics() {
         List<PhysicsComponent> physicsComponents = scene.getComponents(PhysicsComponent.class);
         for (PhysicsComponent physics : physicsComponents) {
-            TransformComponent transform = physics.getOwner().getComponent(TransformComponent.class);
+            TransformComponent transform = physics.getOwner().getTransform();
             if (transform != null) {
                 Vector2 pos = transform.getPosition();
                 Vector2 velocity = physics.getVelocity();
@@ -199,7 +201,7 @@ public class GameLogic {
         if (players.isEmpty() || enemies.isEmpty()) return;
         
         GameObject player = players.get(0);
-        TransformComponent playerTransform = player.getComponent(TransformComponent.class);
+        TransformComponent playerTransform = player.getTransform();
         if (playerTransform == null) return;
         
         Vector2 playerPosition = playerTransform.getPosition();
@@ -209,7 +211,7 @@ public class GameLogic {
             EnemyShootingComponent enemyShooting = enemy.getComponent(EnemyShootingComponent.class);
             if (enemyShooting != null && enemyShooting.canShoot()) {
                 // 计算从敌人指向玩家的方向
-                TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
+                TransformComponent enemyTransform = enemy.getTransform();
                 if (enemyTransform != null) {
                     Vector2 enemyPos = enemyTransform.getPosition();
                     Vector2 direction = new Vector2(
@@ -245,9 +247,23 @@ public class GameLogic {
 
         if (players.isEmpty()) return;
         
+        CollisionPassEvent collisionEvent = EngineEvents.isEnabled() ? new CollisionPassEvent() : null;
+        if (collisionEvent != null) collisionEvent.begin();
+        
         checkPlayerEnemyCollisions_Serial(players, enemies);
         checkPlayerBulletEnemyCollisions_Serial(playerBullets, enemies);
         checkEnemyBulletPlayerCollisions_Serial(enemyBullets, players);
+        
+        if (collisionEvent != null && collisionEvent.shouldCommit()) {
+            collisionEvent.players = players.size();
+            collisionEvent.enemies = enemies.size();
+            collisionEvent.playerBullets = playerBullets.size();
+            collisionEvent.enemyBullets = enemyBullets.size();
+            collisionEvent.pairTests = (long) players.size() * enemies.size()
+                + (long) playerBullets.size() * enemies.size()
+                + (long) enemyBullets.size() * players.size();
+            collisionEvent.commit();
+        }
 
         // if (enemies.size() < Parallel_Threshhold) {
         //     checkPlayerEnemyCollisions_Serial(players, enemies);
@@ -264,15 +280,15 @@ public class GameLogic {
 
     private void checkPlayerEnemyCollisions_Serial(List<GameObject> players, List<GameObject> enemies) {
         for (GameObject enemy : enemies) {
-            TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
-            HealthComponent enemyHealth = enemy.getComponent(HealthComponent.class);
+            TransformComponent enemyTransform = enemy.getTransform();
+            HealthComponent enemyHealth = enemy.getHealth();
             if (enemyTransform == null || enemyHealth == null) {
                 continue;
             }
 
             for (GameObject player : players) {
-                TransformComponent playerTransform = player.getComponent(TransformComponent.class);
-                HealthComponent playerHealth = player.getComponent(HealthComponent.class);
+                TransformComponent playerTransform = player.getTransform();
+                HealthComponent playerHealth = player.getHealth();
                 if (playerTransform == null || playerHealth == null) {
                     continue;
                 }
@@ -314,13 +330,13 @@ public class GameLogic {
                 for (int j = start; j < end; j++) {
                     GameObject enemy = enemies.get(j);
 
-                    TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
-                    HealthComponent enemyHealth = enemy.getComponent(HealthComponent.class);
+                    TransformComponent enemyTransform = enemy.getTransform();
+                    HealthComponent enemyHealth = enemy.getHealth();
                     if (enemyTransform == null || enemyHealth == null) { continue; }
 
                     for (GameObject player : players) {
-                        TransformComponent playerTransform = player.getComponent(TransformComponent.class);
-                        HealthComponent playerHealth = player.getComponent(HealthComponent.class);
+                        TransformComponent playerTransform = player.getTransform();
+                        HealthComponent playerHealth = player.getHealth();
                         if (playerTransform == null || playerHealth == null) { continue; }
 
                         float distance = playerTransform.getPosition().distance(enemyTransform.getPosition());
@@ -362,13 +378,13 @@ public class GameLogic {
      */
     private void checkPlayerBulletEnemyCollisions_Serial(List<GameObject> playerBullets, List<GameObject> enemies) {
         for (GameObject bullet : playerBullets) {
-            TransformComponent bulletTransform = bullet.getComponent(TransformComponent.class);
+            TransformComponent bulletTransform = bullet.getTransform();
             if (bulletTransform == null)
                 continue;
 
             for (GameObject enemy : enemies) {
-                TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
-                HealthComponent enemyHealth = enemy.getComponent(HealthComponent.class);
+                TransformComponent enemyTransform = enemy.getTransform();
+                HealthComponent enemyHealth = enemy.getHealth();
                 if (enemyTransform == null || enemyHealth == null) {
                     continue;
                 }
@@ -395,13 +411,13 @@ public class GameLogic {
      */
     private void checkEnemyBulletPlayerCollisions_Serial(List<GameObject> enemyBullets, List<GameObject> players) {
         for (GameObject bullet : enemyBullets) {
-            TransformComponent bulletTransform = bullet.getComponent(TransformComponent.class);
+            TransformComponent bulletTransform = bullet.getTransform();
             if (bulletTransform == null)
                 continue;
 
             for (GameObject player : players) {
-                TransformComponent playerTransform = player.getComponent(TransformComponent.class);
-                HealthComponent playerHealth = player.getComponent(HealthComponent.class);
+                TransformComponent playerTransform = player.getTransform();
+                HealthComponent playerHealth = player.getHealth();
                 if (playerTransform == null || playerHealth == null) {
                     continue;
                 }
@@ -441,12 +457,12 @@ public class GameLogic {
                 Future<?> future = executor.submit(() -> {
                     for (int j = start; j < end; j++) {
                         GameObject bullet = bullets.get(j);
-                        TransformComponent bulletTransform = bullet.getComponent(TransformComponent.class);
+                        TransformComponent bulletTransform = bullet.getTransform();
                         if (bulletTransform == null) { continue; }
                         
                         for (GameObject enemy : enemies) {
-                            TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
-                            HealthComponent enemyHealth = enemy.getComponent(HealthComponent.class);
+                            TransformComponent enemyTransform = enemy.getTransform();
+                            HealthComponent enemyHealth = enemy.getHealth();
                             if (enemyTransform == null || enemyHealth == null) { continue; }
                             
                             float distance = bulletTransform.getPosition().distance(enemyTransform.getPosition());
@@ -475,13 +491,13 @@ public class GameLogic {
                 Future<?> future = executor.submit(() -> {
                     for (int j = start; j < end; j++) {
                         GameObject enemy = enemies.get(j);
-                        TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
-                        HealthComponent enemyHealth = enemy.getComponent(HealthComponent.class);
+                        TransformComponent enemyTransform = enemy.getTransform();
+                        HealthComponent enemyHealth = enemy.getHealth();
                         if (enemyTransform == null || enemyHealth == null) { continue; }
                         
                         
                         for (GameObject bullet : bullets) {
-                            TransformComponent bulletTransform = bullet.getComponent(TransformComponent.class);
+                            TransformComponent bulletTransform = bullet.getTransform();
                             if (bulletTransform == null) { continue; }
                             
                             float distance = bulletTransform.getPosition().distance(enemyTransform.getPosition());
@@ -1,20 +1,43 @@
 package com.gameengine.core;
 
+import com.gameengine.components.HealthComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.RenderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.ecs.ComponentTypes;
+import com.gameengine.ecs.EntityWorld;
+
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * 游戏对象基类，使用泛型组件系统
  */
 public class GameObject {
+    public static final long INVALID_HANDLE = -1L;
+
     protected boolean active;
     protected String name;
     protected final List<Component<?>> components;
+    private long handle = INVALID_HANDLE;
+    private EntityWorld world;
+    
+    // 按组件类型 ID 索引的槽位，getComponent 直接数组下标访问
+    private Component<?>[] slots;
+    
+    // 内置组件的快速访问
+    private TransformComponent transform;
+    private PhysicsComponent physics;
+    private HealthComponent health;
+    private RenderComponent render;
     
     public GameObject() {
         this.active = true;
         this.name = "GameObject";
         this.components = new ArrayList<>();
+        this.slots = new Component<?>[8];
     }
     
     public GameObject(String name) {
@@ -53,6 +76,11 @@ public class GameObject {
             component.destroy();
         }
         components.clear();
+        Arrays.fill(slots, null);
+        transform = null;
+        physics = null;
+        health = null;
+        render = null;
     }
     
     /**
@@ -61,15 +89,47 @@ public class GameObject {
     public <T extends Component<T>> T addComponent(T component) {
         component.setOwner(this);
         components.add(component);
+        cacheComponent(component);
         component.initialize();
+        if (world != null) {
+            world.onComponentsChanged(this);
+        }
         return component;
     }
     
+    /**
+     * 记录组件到自身类型及各级组件父类的槽位，同类型只记录第一个，与 getComponent 的查找顺序一致
+     */
+    private void cacheComponent(Component<?> component) {
+        long bits = ComponentTypes.typeMaskOf(component.getClass());
+        while (bits != 0) {
+            int id = Long.numberOfTrailingZeros(bits);
+            if (id >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.min(ComponentTypes.MAX_TYPES, Math.max(slots.length * 2, id + 1)));
+            }
+            if (slots[id] == null) {
+                slots[id] = component;
+            }
+            bits &= bits - 1;
+        }
+        
+        if (transform == null && component instanceof TransformComponent t) transform = t;
+        else if (physics == null && component instanceof PhysicsComponent p) physics = p;
+        else if (health == null && component instanceof HealthComponent h) health = h;
+        else if (render == null && component instanceof RenderComponent r) render = r;
+    }
+    
     /**
      * 获取组件
      */
     @SuppressWarnings("unchecked")
     public <T extends Component<T>> T getComponent(Class<T> componentType) {
+        // 子类组件也登记在父类槽位中
+        int id = ComponentTypes.idOf(componentType);
+        if (id < slots.length && slots[id] != null) {
+            return (T) slots[id];
+        }
+        // 子类直接放进 components 列表、未经 addComponent 的组件回退到线性查找
         for (Component<?> component : components) {
             if (componentType.isInstance(component)) {
                 return (T) component;
@@ -82,12 +142,30 @@ public class GameObject {
      * 检查是否有指定类型的组件
      */
     public <T extends Component<T>> boolean hasComponent(Class<T> componentType) {
-        for (Component<?> component : components) {
-            if (componentType.isInstance(component)) {
-                return true;
-            }
-        }
-        return false;
+        return getComponent(componentType) != null;
+    }
+    
+    public TransformComponent getTransform() {
+        return transform;
+    }
+    
+    public PhysicsComponent getPhysics() {
+        return physics;
+    }
+    
+    public HealthComponent getHealth() {
+        return health;
+    }
+    
+    public RenderComponent getRender() {
+        return render;
+    }
+    
+    /**
+     * 获取全部组件（只读）
+     */
+    public List<Component<?>> getComponents() {
+        return Collections.unmodifiableList(components);
     }
     
     /**
@@ -129,4 +207,25 @@ public class GameObject {
     public void setName(String name) {
         this.name = name;
     }
+    
+    /**
+     * 获取场景分配的句柄（高32位为代数，低32位为槽位）
+     */
+    public long getHandle() {
+        return handle;
+    }
+    
+    /**
+     * 由 Scene 在加入/移除对象时设置
+     */
+    public void setHandle(long handle) {
+        this.handle = handle;
+    }
+    
+    /**
+     * 由 Scene 设置对象所在的原型存储
+     */
+    public void setWorld(EntityWorld world) {
+        this.world = world;
+    }
 }
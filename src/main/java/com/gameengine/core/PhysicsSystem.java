@@ -2,6 +2,11 @@ package com.gameengine.core;
 
 import com.gameengine.components.TransformComponent;
 import com.gameengine.components.PhysicsComponent;
+import com.gameengine.ecs.Chunk;
+import com.gameengine.ecs.ComponentTypes;
+import com.gameengine.jfr.EngineEvents;
+import com.gameengine.jfr.PhysicsBatchEvent;
+import com.gameengine.metrics.EngineMetrics;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
@@ -10,9 +15,12 @@ import java.util.ArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class PhysicsSystem {
+    private static final long PHYSICS_MASK = ComponentTypes.maskOf(PhysicsComponent.class, TransformComponent.class);
+    
     private Scene scene;
     private ExecutorService physicsExecutor;
     private int screenWidth;
@@ -31,31 +39,48 @@ public class PhysicsSystem {
     }
     
     public void update(float deltaTime) {
-        List<PhysicsComponent> physicsComponents = scene.getComponents(PhysicsComponent.class);
-        if (physicsComponents.isEmpty()) return;
-        
-        int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-        threadCount = Math.max(2, threadCount);
-        int batchSize = Math.max(1, physicsComponents.size() / threadCount + 1);
+        // 按原型块遍历同时拥有物理和变换组件的实体，每个 Chunk 作为一个批次
+        List<Chunk> chunks = scene.getWorld().query(PHYSICS_MASK);
+        if (chunks.isEmpty()) return;
         
         List<Future<?>> futures = new ArrayList<>();
-        
-        for (int i = 0; i < physicsComponents.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, physicsComponents.size());
+        int entityCount = 0;
+        
+        for (Chunk chunk : chunks) {
+            final int physicsColumn = chunk.getArchetype().columnOf(PhysicsComponent.class);
+            final int transformColumn = chunk.getArchetype().columnOf(TransformComponent.class);
+            final int size = chunk.size();
+            final int start = entityCount;
+            entityCount += size;
             
             Future<?> future = physicsExecutor.submit(() -> {
-                for (int j = start; j < end; j++) {
-                    PhysicsComponent physics = physicsComponents.get(j);
+                PhysicsBatchEvent batchEvent = EngineEvents.isEnabled() ? new PhysicsBatchEvent() : null;
+                if (batchEvent != null) batchEvent.begin();
+                
+                for (int row = 0; row < size; row++) {
+                    PhysicsComponent physics = chunk.component(physicsColumn, row);
                     if (physics.isEnabled()) {
-                        updatePhysics(physics, deltaTime);
-                        handleBoundary(physics);
+                        TransformComponent transform = chunk.component(transformColumn, row);
+                        updatePhysics(physics, transform, deltaTime);
+                        handleBoundary(physics, transform);
                     }
                 }
+                
+                if (batchEvent != null && batchEvent.shouldCommit()) {
+                    batchEvent.start = start;
+                    batchEvent.size = size;
+                    batchEvent.commit();
+                }
             });
             
             futures.add(future);
         }
+        int batchSize = entityCount / futures.size();
+        
+        if (EngineMetrics.isEnabled() && physicsExecutor instanceof ThreadPoolExecutor pool) {
+            EngineMetrics.getInstance().recordPhysics(futures.size(), batchSize,
+                pool.getActiveCount(), pool.getQueue().size());
+        }
         
         for (Future<?> future : futures) {
             try {
@@ -66,13 +91,7 @@ public class PhysicsSystem {
         }
     }
     
-    private void updatePhysics(PhysicsComponent physics, float deltaTime) {
-        GameObject owner = physics.getOwner();
-        if (owner == null) return;
-        
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
-        if (transform == null) return;
-        
+    private void updatePhysics(PhysicsComponent physics, TransformComponent transform, float deltaTime) {
         Vector2 acceleration = physics.getAcceleration();
         
         if (physics.isUseGravity()) {
@@ -91,13 +110,7 @@ public class PhysicsSystem {
         physics.setAcceleration(new Vector2());
     }
     
-    private void handleBoundary(PhysicsComponent physics) {
-        GameObject owner = physics.getOwner();
-        if (owner == null) return;
-        
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
-        if (transform == null) return;
-        
+    private void handleBoundary(PhysicsComponent physics, TransformComponent transform) {
         Vector2 pos = transform.getPosition();
         Vector2 velocity = physics.getVelocity();
         
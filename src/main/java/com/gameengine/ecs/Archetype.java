@@ -0,0 +1,90 @@
+package com.gameengine.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 原型：组件类型集合完全相同的实体存放在同一原型的若干 Chunk 中
+ */
+public final class Archetype {
+    public static final int CHUNK_CAPACITY = 128;
+
+    private final long mask;
+    private final int[] columnOfType;
+    private final int columnCount;
+    private final List<Chunk> chunks;
+
+    Archetype(long mask) {
+        this.mask = mask;
+        this.columnOfType = new int[ComponentTypes.MAX_TYPES];
+        Arrays.fill(columnOfType, -1);
+        int column = 0;
+        for (int id = 0; id < ComponentTypes.MAX_TYPES; id++) {
+            if ((mask & (1L << id)) != 0) {
+                columnOfType[id] = column++;
+            }
+        }
+        this.columnCount = column;
+        this.chunks = new ArrayList<>();
+    }
+
+    /**
+     * 找一个还有空位的 Chunk，没有则新建
+     */
+    Chunk chunkWithSpace() {
+        for (int i = chunks.size() - 1; i >= 0; i--) {
+            Chunk chunk = chunks.get(i);
+            if (!chunk.isFull()) {
+                return chunk;
+            }
+        }
+        Chunk chunk = new Chunk(this, CHUNK_CAPACITY, columnCount);
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    /**
+     * 移除末尾的空 Chunk，避免大量实体消失后留下空壳
+     */
+    void trimEmptyTail() {
+        while (chunks.size() > 1 && chunks.get(chunks.size() - 1).size() == 0) {
+            chunks.remove(chunks.size() - 1);
+        }
+    }
+
+    /**
+     * 组件类型 ID 对应的列号，不包含该类型时返回 -1
+     */
+    public int columnOf(int typeId) {
+        return columnOfType[typeId];
+    }
+
+    public int columnOf(Class<?> type) {
+        return columnOfType[ComponentTypes.idOf(type)];
+    }
+
+    public boolean contains(long requiredMask) {
+        return (mask & requiredMask) == requiredMask;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    public int getEntityCount() {
+        int total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.size();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.gameengine.ecs;
+
+import com.gameengine.core.Component;
+import com.gameengine.core.GameObject;
+
+/**
+ * 固定容量的实体块，按列连续存放同一原型实体的组件引用
+ * 系统按 Chunk 顺序遍历，每行即一个实体
+ */
+public final class Chunk {
+    private final Archetype archetype;
+    private final GameObject[] entities;
+    private final Component<?>[][] columns;
+    private int count;
+
+    Chunk(Archetype archetype, int capacity, int columnCount) {
+        this.archetype = archetype;
+        this.entities = new GameObject[capacity];
+        this.columns = new Component<?>[columnCount][capacity];
+    }
+
+    /**
+     * 追加一行，返回行号
+     */
+    int add(GameObject entity, Component<?>[] componentsByColumn) {
+        int row = count++;
+        entities[row] = entity;
+        for (int c = 0; c < columns.length; c++) {
+            columns[c][row] = componentsByColumn[c];
+        }
+        return row;
+    }
+
+    /**
+     * 删除一行，用最后一行填补空位
+     * @return 被移动到 row 的实体，没有移动时返回 null
+     */
+    GameObject swapRemove(int row) {
+        int last = --count;
+        GameObject moved = null;
+        if (row != last) {
+            moved = entities[last];
+            entities[row] = moved;
+            for (Component<?>[] column : columns) {
+                column[row] = column[last];
+            }
+        }
+        entities[last] = null;
+        for (Component<?>[] column : columns) {
+            column[last] = null;
+        }
+        return moved;
+    }
+
+    boolean isFull() {
+        return count == entities.length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Archetype getArchetype() {
+        return archetype;
+    }
+
+    public GameObject entity(int row) {
+        return entities[row];
+    }
+
+    /**
+     * 按列号读取组件，列号通过 Archetype.columnOf 在循环外取得
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component<T>> T component(int column, int row) {
+        return (T) columns[column][row];
+    }
+
+    /**
+     * 按类型读取组件（便捷方法，热路径请用列号）
+     */
+    public <T extends Component<T>> T get(Class<T> type, int row) {
+        int column = archetype.columnOf(type);
+        return column < 0 ? null : component(column, row);
+    }
+}
@@ -0,0 +1,78 @@
+package com.gameengine.ecs;
+
+import com.gameengine.core.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 组件类型注册表，为每个组件类分配一个整数 ID
+ * ID 同时作为原型签名位掩码中的位序号，因此最多支持 64 种组件类型。
+ * 实体签名使用 typeMaskOf，组件子类同时登记在各级组件父类的 ID 下，按父类查询（如物理系统）也能匹配到子类
+ */
+public final class ComponentTypes {
+    public static final int MAX_TYPES = 64;
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    private static final ClassValue<Integer> IDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int id = NEXT_ID.getAndIncrement();
+            if (id >= MAX_TYPES) {
+                throw new IllegalStateException("组件类型数量超过上限 " + MAX_TYPES + ": " + type.getName());
+            }
+            return id;
+        }
+    };
+    private static final ClassValue<Long> TYPE_MASKS = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long mask = 0;
+            for (Class<?> c = type; c != null && c != Component.class && Component.class.isAssignableFrom(c);
+                    c = c.getSuperclass()) {
+                mask |= maskOf(c);
+            }
+            return mask;
+        }
+    };
+
+    private ComponentTypes() {}
+
+    /**
+     * 获取组件类的 ID（首次调用时分配）
+     */
+    public static int idOf(Class<?> type) {
+        return IDS.get(type);
+    }
+
+    /**
+     * 获取组件类对应的位掩码
+     */
+    public static long maskOf(Class<?> type) {
+        return 1L << idOf(type);
+    }
+
+    /**
+     * 组件实例类及其各级组件父类的位掩码，用于实体签名
+     */
+    public static long typeMaskOf(Class<?> componentClass) {
+        return TYPE_MASKS.get(componentClass);
+    }
+
+    /**
+     * 多个组件类的组合位掩码
+     */
+    public static long maskOf(Class<?>... types) {
+        long mask = 0;
+        for (Class<?> type : types) {
+            mask |= maskOf(type);
+        }
+        return mask;
+    }
+
+    /**
+     * 当前已注册的类型数量
+     */
+    public static int count() {
+        return Math.min(NEXT_ID.get(), MAX_TYPES);
+    }
+}
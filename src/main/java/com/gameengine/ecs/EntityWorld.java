@@ -0,0 +1,164 @@
+package com.gameengine.ecs;
+
+import com.gameengine.core.Component;
+import com.gameengine.core.GameObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 原型存储，位于 Scene 与 GameObject 之下
+ * GameObject 仍是对外的实体接口（适配层），World 负责按组件集合把实体分组到连续的 Chunk 中，
+ * 供系统按块批量遍历。实体位置按 Scene 分配的句柄槽位索引。
+ * 只在主线程修改；查询结果可以交给工作线程只读遍历。
+ */
+public class EntityWorld {
+    private final Map<Long, Archetype> archetypes;
+    private final List<Archetype> archetypeList;
+    private Chunk[] chunkOf;
+    private int[] rowOf;
+    private final Component<?>[] scratch;
+    private final List<Chunk> queryResult;
+
+    public EntityWorld() {
+        this.archetypes = new HashMap<>();
+        this.archetypeList = new ArrayList<>();
+        this.chunkOf = new Chunk[64];
+        this.rowOf = new int[64];
+        this.scratch = new Component<?>[ComponentTypes.MAX_TYPES];
+        this.queryResult = new ArrayList<>();
+    }
+
+    /**
+     * 加入实体，要求实体已持有 Scene 分配的句柄
+     */
+    public void add(GameObject entity) {
+        int slot = slotOf(entity);
+        if (slot < 0) return;
+        ensureCapacity(slot);
+        if (chunkOf[slot] != null) return;
+        place(entity, slot, maskOf(entity));
+    }
+
+    /**
+     * 移除实体
+     */
+    public void remove(GameObject entity) {
+        int slot = slotOf(entity);
+        if (slot < 0 || slot >= chunkOf.length || chunkOf[slot] == null) return;
+        detach(chunkOf[slot], rowOf[slot]);
+        chunkOf[slot] = null;
+    }
+
+    /**
+     * 实体组件集合变化时迁移到新的原型
+     */
+    public void onComponentsChanged(GameObject entity) {
+        int slot = slotOf(entity);
+        if (slot < 0 || slot >= chunkOf.length || chunkOf[slot] == null) return;
+        long mask = maskOf(entity);
+        if (mask == chunkOf[slot].getArchetype().getMask()) return;
+        detach(chunkOf[slot], rowOf[slot]);
+        place(entity, slot, mask);
+    }
+
+    /**
+     * 查询包含全部指定组件的 Chunk
+     * 返回的列表在下一次查询时被复用，不要跨帧持有
+     */
+    public List<Chunk> query(long requiredMask) {
+        queryResult.clear();
+        for (Archetype archetype : archetypeList) {
+            if (!archetype.contains(requiredMask)) continue;
+            for (Chunk chunk : archetype.getChunks()) {
+                if (chunk.size() > 0) {
+                    queryResult.add(chunk);
+                }
+            }
+        }
+        return queryResult;
+    }
+
+    public List<Chunk> query(Class<?>... types) {
+        return query(ComponentTypes.maskOf(types));
+    }
+
+    /**
+     * 获取实体所在的 Chunk，实体不在 World 中时返回 null
+     */
+    public Chunk chunkOf(GameObject entity) {
+        int slot = slotOf(entity);
+        return slot < 0 || slot >= chunkOf.length ? null : chunkOf[slot];
+    }
+
+    public int rowOf(GameObject entity) {
+        return rowOf[slotOf(entity)];
+    }
+
+    public List<Archetype> getArchetypes() {
+        return archetypeList;
+    }
+
+    public void clear() {
+        archetypes.clear();
+        archetypeList.clear();
+        Arrays.fill(chunkOf, null);
+    }
+
+    private void place(GameObject entity, int slot, long mask) {
+        Archetype archetype = archetypes.get(mask);
+        if (archetype == null) {
+            archetype = new Archetype(mask);
+            archetypes.put(mask, archetype);
+            archetypeList.add(archetype);
+        }
+        // 同类型的多个组件只放第一个，与 getComponent 的语义一致；子类组件同时放进父类的列
+        for (Component<?> component : entity.getComponents()) {
+            long bits = ComponentTypes.typeMaskOf(component.getClass());
+            while (bits != 0) {
+                int column = archetype.columnOf(Long.numberOfTrailingZeros(bits));
+                if (scratch[column] == null) {
+                    scratch[column] = component;
+                }
+                bits &= bits - 1;
+            }
+        }
+        Chunk chunk = archetype.chunkWithSpace();
+        chunkOf[slot] = chunk;
+        rowOf[slot] = chunk.add(entity, scratch);
+        Arrays.fill(scratch, 0, archetype.getColumnCount(), null);
+    }
+
+    private void detach(Chunk chunk, int row) {
+        GameObject moved = chunk.swapRemove(row);
+        if (moved != null) {
+            rowOf[slotOf(moved)] = row;
+        }
+        if (chunk.size() == 0) {
+            chunk.getArchetype().trimEmptyTail();
+        }
+    }
+
+    private static long maskOf(GameObject entity) {
+        long mask = 0;
+        for (Component<?> component : entity.getComponents()) {
+            mask |= ComponentTypes.typeMaskOf(component.getClass());
+        }
+        return mask;
+    }
+
+    private static int slotOf(GameObject entity) {
+        long handle = entity.getHandle();
+        return handle == GameObject.INVALID_HANDLE ? -1 : (int) handle;
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < chunkOf.length) return;
+        int capacity = Math.max(chunkOf.length * 2, slot + 1);
+        chunkOf = Arrays.copyOf(chunkOf, capacity);
+        rowOf = Arrays.copyOf(rowOf, capacity);
+    }
+}
@@ -0,0 +1,107 @@
+package com.gameengine.ecs;
+
+import java.util.Arrays;
+
+/**
+ * 场景内实体位置的结构数组存储，按 Scene 分配的句柄槽位索引
+ * 每个槽位保存上一 tick 与当前 tick 的位置；引擎在每个模拟 tick 开始前整体复制当前位置到上一位置，
+ * 渲染前设置插值系数，渲染按两者插值，模拟频率低于显示刷新率时运动仍然平滑。
+ * 槽位只在主线程分配；不同槽位可以由工作线程并行写入。
+ */
+public final class TransformBuffer {
+    private float[] prevX;
+    private float[] prevY;
+    private float[] x;
+    private float[] y;
+    // 已使用的最大槽位 + 1，snapshot 只复制这一段
+    private int size;
+    private float alpha;
+
+    public TransformBuffer() {
+        this.prevX = new float[64];
+        this.prevY = new float[64];
+        this.x = new float[64];
+        this.y = new float[64];
+        this.alpha = 1.0f;
+    }
+
+    /**
+     * 占用槽位并写入初始位置，上一位置与当前位置相同，新实体不会从旧数据插值过来
+     */
+    public void put(int slot, float px, float py) {
+        if (slot >= x.length) {
+            int capacity = Math.max(slot + 1, x.length * 2);
+            prevX = Arrays.copyOf(prevX, capacity);
+            prevY = Arrays.copyOf(prevY, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+        if (slot >= size) {
+            size = slot + 1;
+        }
+        prevX[slot] = px;
+        prevY[slot] = py;
+        x[slot] = px;
+        y[slot] = py;
+    }
+
+    /**
+     * 当前位置成为上一位置，在每个模拟 tick 开始前调用
+     */
+    public void snapshot() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    /**
+     * 设置渲染插值系数：0 为上一 tick 的位置，1 为当前位置
+     */
+    public void setAlpha(float alpha) {
+        this.alpha = Math.max(0.0f, Math.min(1.0f, alpha));
+    }
+
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public void clear() {
+        size = 0;
+        alpha = 1.0f;
+    }
+
+    public float x(int slot) {
+        return x[slot];
+    }
+
+    public float y(int slot) {
+        return y[slot];
+    }
+
+    public void set(int slot, float px, float py) {
+        x[slot] = px;
+        y[slot] = py;
+    }
+
+    public void translate(int slot, float dx, float dy) {
+        x[slot] += dx;
+        y[slot] += dy;
+    }
+
+    /**
+     * 瞬移：上一位置一并改写，渲染不插值
+     */
+    public void teleport(int slot, float px, float py) {
+        prevX[slot] = px;
+        prevY[slot] = py;
+        x[slot] = px;
+        y[slot] = py;
+    }
+
+    public float renderX(int slot) {
+        return prevX[slot] + (x[slot] - prevX[slot]) * alpha;
+    }
+
+    public float renderY(int slot) {
+        return prevY[slot] + (y[slot] - prevY[slot]) * alpha;
+    }
+}
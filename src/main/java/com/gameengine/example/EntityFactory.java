@@ -8,6 +8,8 @@ import com.gameengine.components.PlayerShootingComponent;
 import com.gameengine.components.EnemyShootingComponent;
 import com.gameengine.core.GameObject;
 import com.gameengine.graphics.IRenderer;
+import com.gameengine.jfr.EngineEvents;
+import com.gameengine.jfr.EntityLifecycleEvent;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
@@ -19,21 +21,19 @@ public final class EntityFactory {
     public static GameObject createPlayer(IRenderer renderer, Scene scene) {
         // 创建葫芦娃 - 所有部位都在一个GameObject中
         GameObject player = new GameObject("Player") {
-            private Vector2 basePosition;
-
             @Override
             public void update(float deltaTime) {
                 super.update(deltaTime);
                 updateComponents(deltaTime);
-                TransformComponent tc = getComponent(TransformComponent.class);
-                if (tc != null) { basePosition = tc.getPosition(); }
             }
 
             @Override
             public void render() {
-                if (basePosition == null) { return; }
+                TransformComponent tc = getTransform();
+                if (tc == null) { return; }
+                Vector2 basePosition = tc.getRenderPosition();
 
-                HealthComponent health = getComponent(HealthComponent.class);
+                HealthComponent health = getHealth();
                 boolean isInvincible = health != null && health.isInvincible();
                 // 根据无敌状态决定颜色和透明度
                 float alpha = 1.0f;
@@ -54,7 +54,7 @@ public final class EntityFactory {
             }
 
             private void renderHealthBar(float x, float y) {
-                HealthComponent health = getComponent(HealthComponent.class);
+                HealthComponent health = getHealth();
                 if (health == null)
                     return;
 
@@ -93,6 +93,7 @@ public final class EntityFactory {
         shooting.setRenderer(renderer);
 
         scene.addGameObject(player);
+        EngineEvents.entity(EntityLifecycleEvent.SPAWN, player.getName());
 
         return player;
     }
@@ -111,7 +112,7 @@ public final class EntityFactory {
                 updateComponents(deltaTime);
                 
                 if (transform == null) {
-                    transform = getComponent(TransformComponent.class);
+                    transform = getTransform();
                 }
                 
                 if (transform != null) {
@@ -153,6 +154,7 @@ public final class EntityFactory {
         
         // 添加到场景
         scene.addGameObject(bullet);
+        EngineEvents.entity(EntityLifecycleEvent.SPAWN, bullet.getName());
         
         return bullet;
     }
@@ -197,6 +199,7 @@ public final class EntityFactory {
 
         // 添加到场景
         scene.addGameObject(enemy);
+        EngineEvents.entity(EntityLifecycleEvent.SPAWN, enemy.getName());
 
         return enemy;
     }
@@ -228,6 +231,7 @@ public final class EntityFactory {
         
         // 添加到场景
         scene.addGameObject(decoration);
+        EngineEvents.entity(EntityLifecycleEvent.SPAWN, decoration.getName());
         
         return decoration;
     }
@@ -2,6 +2,7 @@ package com.gameengine.example;
 
 import com.gameengine.core.GameEngine;
 import com.gameengine.graphics.RenderBackend;
+import com.gameengine.util.ConfigManager;
 
 public class Game {
     public static final int WINDOW_WIDTH = 1024;
@@ -12,8 +13,9 @@ public class Game {
 
         GameEngine engine = null;
         try {
-            System.out.println("使用渲染后端: GPU");
-            engine = new GameEngine(WINDOW_WIDTH, WINDOW_HEIGHT, "游戏引擎", RenderBackend.GPU);
+            RenderBackend backend = parseBackend(ConfigManager.getInstance().getString("render.backend"));
+            System.out.println("使用渲染后端: " + backend);
+            engine = new GameEngine(WINDOW_WIDTH, WINDOW_HEIGHT, "游戏引擎", backend);
 
             MenuScene menuScene = new MenuScene(engine, "MainMenu");
             engine.setScene(menuScene);
@@ -29,4 +31,16 @@ public class Game {
 
         System.out.println("游戏结束");
     }
+
+    private static RenderBackend parseBackend(String value) {
+        if (value == null || value.isBlank()) {
+            return RenderBackend.GPU;
+        }
+        try {
+            return RenderBackend.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("未知渲染后端: " + value + "，使用GPU");
+            return RenderBackend.GPU;
+        }
+    }
 }
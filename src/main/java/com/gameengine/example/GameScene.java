@@ -78,6 +78,9 @@ public class GameScene extends Scene {
         // 绘制背景
         renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.1f, 0.1f, 0.2f, 1.0f);
 
+        // 游戏区域以外（含右侧 UI 面板下方）的世界对象不提交
+        renderer.setCullRect(0, 0, renderer.getWidth() - UIComponent.UI_WIDTH, renderer.getHeight());
+
         // 渲染所有对象
         super.render();
 
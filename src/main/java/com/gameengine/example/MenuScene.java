@@ -6,6 +6,7 @@ import com.gameengine.input.InputManager;
 import com.gameengine.scene.Scene;
 import com.gameengine.recording.RecordingConfig;
 import com.gameengine.recording.RecordingService;
+import com.gameengine.util.ConfigManager;
 
 import java.io.File;
 
@@ -93,8 +94,21 @@ public class MenuScene extends Scene {
         engine.setScene(gameScene);
         try {
             new File("recordings").mkdirs();
-            String path = "recordings/session_" + System.currentTimeMillis() + ".jsonl";
+            ConfigManager config = ConfigManager.getInstance();
+            boolean compress = config.getBoolean("recording.compress");
+            boolean journal = config.getBoolean("recording.journal");
+            boolean mapped = config.getBoolean("recording.mapped");
+            String extension = mapped ? ".mrec" : journal ? ".rec" : compress ? ".jsonl.gz" : ".jsonl";
+            String path = "recordings/session_" + System.currentTimeMillis() + extension;
             RecordingConfig cfg = new RecordingConfig(path);
+            cfg.compress = compress;
+            cfg.journal = journal && !mapped;
+            cfg.mapped = mapped;
+            cfg.segmentBytes = config.getInt("recording.segment_mb") * 1024 * 1024;
+            cfg.checkpointIntervalMs = config.getInt("recording.checkpoint_interval_ms");
+            cfg.fsync = config.getBoolean("recording.fsync");
+            cfg.flushIntervalMs = config.getInt("recording.flush_interval_ms");
+            cfg.flushBytes = config.getInt("recording.flush_bytes");
             RecordingService svc = new RecordingService(cfg);
             engine.enableRecording(svc);
         } catch (Exception e) {
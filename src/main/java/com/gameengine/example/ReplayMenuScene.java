@@ -1,8 +1,12 @@
 package com.gameengine.example;
 
 import com.gameengine.core.GameEngine;
+import com.gameengine.graphics.Bitmap;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.input.InputManager;
+import com.gameengine.recording.ReplayData;
+import com.gameengine.recording.ReplayLoader;
+import com.gameengine.recording.ReplayThumbnails;
 import com.gameengine.scene.Scene;
 import java.io.File;
 import java.util.ArrayList;
@@ -12,12 +16,19 @@ import java.util.List;
  * 回放文件选择场景
  */
 public class ReplayMenuScene extends Scene {
+    // 菜单中出现的全部中文，进入场景时让渲染器提前准备字形
+    private static final String MENU_TEXT = "选择回放文件正在加载记录文件没有找到记录文件按ESC返回菜单使用上下箭头选择按ENTER开始回放失败";
     private final GameEngine engine;
     private IRenderer renderer;
     private InputManager inputManager;
-    private List<String> recordingFiles;
+    private volatile List<String> recordingFiles;
     private int selectedIndex;
-    private boolean fileListLoaded;
+    private volatile boolean fileListLoaded;
+    private boolean selectionPrefetched; // 列表加载后是否已预取默认选中的文件
+    private String loadError; // 最近一次回放加载失败的提示，切换选择时清除
+    private ReplayLoader loader;
+    private ReplayThumbnails thumbnails;
+    private ReplayLoader.Task pendingReplay; // 已按 ENTER，等待加载完成
     
     public ReplayMenuScene(GameEngine engine) {
         super("ReplayMenuScene");
@@ -32,6 +43,9 @@ public class ReplayMenuScene extends Scene {
         super.initialize();
         this.renderer = engine.getRenderer();
         this.inputManager = InputManager.getInstance();
+        this.loader = ReplayLoader.getInstance();
+        this.thumbnails = ReplayThumbnails.getInstance();
+        renderer.prefetchText(MENU_TEXT);
         
         // 加载记录文件列表
         loadRecordingFiles();
@@ -44,6 +58,24 @@ public class ReplayMenuScene extends Scene {
         if (!fileListLoaded) {
             return;
         }
+        // 选中下标只在主线程读写，列表线程只负责发布文件名
+        if (!selectionPrefetched) {
+            selectionPrefetched = true;
+            prefetchSelected();
+        }
+        
+        // 等待中的回放加载完成后再切换场景
+        if (pendingReplay != null) {
+            if (pendingReplay.isFailed()) {
+                loadError = describeFailure(pendingReplay);
+                pendingReplay = null;
+            } else if (pendingReplay.isDone()) {
+                ReplayData data = pendingReplay.getNow();
+                pendingReplay = null;
+                startReplay(data);
+                return;
+            }
+        }
         
         // 处理键盘输入
         handleInput();
@@ -96,6 +128,8 @@ public class ReplayMenuScene extends Scene {
             // 高亮选中的文件
             if (i == selectedIndex) {
                 renderer.drawRect(x - 10, y - 5, 400, 25, 0.3f, 0.3f, 0.5f, 0.5f);
+                renderLoadProgress(x - 10, y + 18, "recordings/" + fileName);
+                renderPreview(i);
                 renderer.drawText(x, y, "> " + fileName, 1.0f, 1.0f, 0.0f, 1.0f);
             } else {
                 renderer.drawText(x, y, fileName, 1.0f, 1.0f, 1.0f, 1.0f);
@@ -108,32 +142,93 @@ public class ReplayMenuScene extends Scene {
         String hint3 = "按ESC返回菜单";
         
         float hintY = renderer.getHeight() - 80;
+        if (loadError != null) {
+            renderer.drawText(50, hintY - 30, loadError, 1.0f, 0.3f, 0.3f, 1.0f);
+        }
         renderer.drawText(50, hintY, hint1, 0.8f, 0.8f, 0.8f, 1.0f);
         renderer.drawText(50, hintY + 20, hint2, 0.8f, 0.8f, 0.8f, 1.0f);
         renderer.drawText(50, hintY + 40, hint3, 0.8f, 0.8f, 0.8f, 1.0f);
     }
     
+    /**
+     * 在右侧绘制选中文件的预览条，并顺带请求相邻文件的预览条
+     */
+    private void renderPreview(int index) {
+        Bitmap strip = thumbnails.get("recordings/" + recordingFiles.get(index));
+        if (index > 0) {
+            thumbnails.get("recordings/" + recordingFiles.get(index - 1));
+        }
+        if (index + 1 < recordingFiles.size()) {
+            thumbnails.get("recordings/" + recordingFiles.get(index + 1));
+        }
+        float x = renderer.getWidth() - ReplayThumbnails.STRIP_WIDTH - 40;
+        float y = 100;
+        renderer.drawRect(x - 2, y - 2, ReplayThumbnails.STRIP_WIDTH + 4, ReplayThumbnails.FRAME_HEIGHT + 4, 0.3f, 0.3f, 0.5f, 1.0f);
+        if (strip != null) {
+            renderer.drawBitmap(strip, x, y, ReplayThumbnails.STRIP_WIDTH, ReplayThumbnails.FRAME_HEIGHT);
+        }
+    }
+    
+    /**
+     * 在高亮条底部绘制预取进度
+     */
+    private void renderLoadProgress(float x, float y, String filePath) {
+        ReplayLoader.Task task = loader.peek(filePath);
+        if (task == null) return;
+        if (task.isFailed()) {
+            renderer.drawRect(x, y, 400, 2, 0.8f, 0.2f, 0.2f, 1.0f);
+        } else if (!task.isDone()) {
+            renderer.drawRect(x, y, 400 * task.getProgress(), 2, 0.3f, 0.8f, 0.3f, 1.0f);
+        }
+        if (pendingReplay == task) {
+            renderer.drawText(x + 410, y - 18, (int) (task.getProgress() * 100) + "%", 0.8f, 0.8f, 0.8f, 1.0f);
+        }
+    }
+    
     /**
      * 加载记录文件列表
      */
     private void loadRecordingFiles() {
-        new Thread(() -> {
+        Thread.ofVirtual().name("replay-list").start(() -> {
+            List<String> names = new ArrayList<>();
             try {
                 File recordingsDir = new File("recordings");
                 if (recordingsDir.exists() && recordingsDir.isDirectory()) {
-                    File[] files = recordingsDir.listFiles((dir, name) -> name.endsWith(".jsonl"));
+                    File[] files = recordingsDir.listFiles((dir, name) -> name.endsWith(".jsonl") || name.endsWith(".jsonl.gz") || name.endsWith(".rec") || name.endsWith(".mrec"));
                     if (files != null) {
                         for (File file : files) {
-                            recordingFiles.add(file.getName());
+                            names.add(file.getName());
                         }
                     }
                 }
-                fileListLoaded = true;
             } catch (Exception e) {
                 System.err.println("加载记录文件失败: " + e.getMessage());
-                fileListLoaded = true;
             }
-        }).start();
+            recordingFiles = names;
+            fileListLoaded = true;
+            // 只为没有缓存或缓存过期的文件在后台生成预览条
+            thumbnails.scan(names.stream().map(name -> "recordings/" + name).toList());
+        });
+    }
+    
+    /**
+     * 失败提示：文件名加上异常原因
+     */
+    private static String describeFailure(ReplayLoader.Task task) {
+        Throwable error = task.getError();
+        String name = new File(task.getPath()).getName();
+        String reason = error == null ? null : error.getMessage();
+        return "加载回放失败: " + name + (reason != null ? " (" + reason + ")" : "");
+    }
+    
+    /**
+     * 预取当前高亮的文件（主线程）
+     */
+    private void prefetchSelected() {
+        List<String> files = recordingFiles;
+        if (selectedIndex >= 0 && selectedIndex < files.size()) {
+            loader.prefetch("recordings/" + files.get(selectedIndex));
+        }
     }
     
     /**
@@ -141,19 +236,33 @@ public class ReplayMenuScene extends Scene {
      */
     private void handleInput() {
         // 上下选择
+        int previousIndex = selectedIndex;
         if (inputManager.isKeyJustPressed(38)) { // 上箭头
             selectedIndex = Math.max(0, selectedIndex - 1);
         }
         if (inputManager.isKeyJustPressed(40)) { // 下箭头
             selectedIndex = Math.min(recordingFiles.size() - 1, selectedIndex + 1);
         }
+        if (selectedIndex != previousIndex) {
+            pendingReplay = null;
+            loadError = null;
+            prefetchSelected();
+        }
         
         // 确认选择
         if (inputManager.isKeyJustPressed(10)) { // ENTER
             if (!recordingFiles.isEmpty()) {
                 String selectedFile = recordingFiles.get(selectedIndex);
                 String filePath = "recordings/" + selectedFile;
-                startReplay(filePath);
+                System.out.println("开始回放文件: " + filePath);
+                // 已预取完成时本帧直接切换，否则等加载完成
+                ReplayLoader.Task task = loader.load(filePath);
+                if (task.isDone() && !task.isFailed()) {
+                    startReplay(task.getNow());
+                    return;
+                }
+                loadError = null;
+                pendingReplay = task;
             }
         }
         
@@ -166,9 +275,8 @@ public class ReplayMenuScene extends Scene {
     /**
      * 开始回放
      */
-    private void startReplay(String filePath) {
-        System.out.println("开始回放文件: " + filePath);
-        ReplayScene replayScene = new ReplayScene(engine, filePath);
+    private void startReplay(ReplayData data) {
+        ReplayScene replayScene = new ReplayScene(engine, data);
         engine.setScene(replayScene);
     }
     
@@ -8,8 +8,13 @@ import com.gameengine.math.Vector2;
 import com.gameengine.graphics.IRenderer;
 import com.gameengine.components.*;
 import com.gameengine.input.ReplayInputManager;
-import com.gameengine.recording.RecordingParser;
+import com.gameengine.jfr.EngineEvents;
+import com.gameengine.jfr.KeyframeCorrectionEvent;
+import com.gameengine.metrics.EngineMetrics;
 import com.gameengine.recording.KeyFrame;
+import com.gameengine.recording.ReplayData;
+import com.gameengine.recording.ReplayLoader;
+import com.gameengine.recording.ReplayEntityRegistry;
 
 import java.util.Random;
 import java.util.List;
@@ -17,7 +22,6 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
-import java.io.IOException;
 
 public class ReplayScene extends Scene {
     public final GameEngine engine;
@@ -26,9 +30,10 @@ public class ReplayScene extends Scene {
     private GameLogic gameLogic;
     private ReplayInputManager replayInputManager;
     private String recordingFilePath;
+    private ReplayData replayData;
     
     private List<KeyFrame> keyframes;
-    private Map<Integer, GameObject> enemyIdMap; // 敌人ID到GameObject的映射
+    private ReplayEntityRegistry enemyRegistry; // 敌人ID到GameObject的映射，只保存存活敌人
     private Map<Integer, GameObject> playerIdMap; // 玩家ID到GameObject的映射
     private double replayTime;
     private int currentKeyframeIndex;
@@ -39,6 +44,14 @@ public class ReplayScene extends Scene {
         this.recordingFilePath = recordingFilePath;
     }
     
+    /**
+     * 使用已加载好的回放数据（菜单预取），初始化时不再读文件
+     */
+    public ReplayScene(GameEngine engine, ReplayData replayData) {
+        this(engine, replayData.getPath());
+        this.replayData = replayData;
+    }
+    
     @Override
     public void initialize() {
         super.initialize();
@@ -46,28 +59,29 @@ public class ReplayScene extends Scene {
         this.random = new Random();
         this.replayTime = 0.0;
         this.currentKeyframeIndex = 0;
-        this.enemyIdMap = new HashMap<>();
+        this.enemyRegistry = new ReplayEntityRegistry();
         this.playerIdMap = new HashMap<>();
+        EngineMetrics.getInstance().resetReplayDrift();
         
         // 初始化回放输入管理器
         this.replayInputManager = ReplayInputManager.getInstance();
         
-        try {
-            // 加载录制数据
-            var inputEvents = RecordingParser.parseRecordingFile(recordingFilePath);
-            replayInputManager.loadRecording(inputEvents);
-            System.out.println("加载录制文件成功: " + recordingFilePath + ", 输入事件数量: " + inputEvents.size());
-            
-            // 加载快照数据
-            this.keyframes = RecordingParser.parseSnapshotFile(recordingFilePath);
-            System.out.println("加载快照数据成功: " + recordingFilePath + ", 快照数量: " + keyframes.size());
-        } catch (IOException e) {
-            System.err.println("加载录制文件失败: " + recordingFilePath);
-            e.printStackTrace();
-            // 如果加载失败，返回菜单
-            returnToMenu();
-            return;
+        if (replayData == null) {
+            try {
+                // 未经菜单预取时同步加载（只解析一次文件）
+                replayData = ReplayLoader.getInstance().loadNow(recordingFilePath);
+            } catch (Exception e) {
+                System.err.println("加载录制文件失败: " + recordingFilePath);
+                e.printStackTrace();
+                // 如果加载失败，返回菜单
+                returnToMenu();
+                return;
+            }
         }
+        replayInputManager.loadTimeline(replayData.getInputs());
+        this.keyframes = replayData.getKeyframes();
+        System.out.println("加载录制文件成功: " + recordingFilePath + ", 输入事件数量: " + replayData.getInputEventCount()
+            + ", 快照数量: " + keyframes.size());
 
         // 创建游戏逻辑，使用回放输入管理器
         this.gameLogic = new GameLogic(this);
@@ -131,65 +145,72 @@ public class ReplayScene extends Scene {
     
     /**
      * 处理关键帧中的敌人数据
+     * 完整帧列出全部敌人，未列出的敌人移除；增量帧只包含有变化的敌人，
+     * 其余敌人继续按速度运动，消失的敌人由 goneIds 给出
      */
     private void processKeyframeEnemies(KeyFrame keyframe) {
         if (keyframe.enemyInfos == null) {
             return;
         }
         
-        // 收集当前关键帧中存在的敌人ID
-        Set<Integer> currentFrameEnemyIds = new HashSet<>();
+        if (!keyframe.delta) {
+            enemyRegistry.beginFrame();
+        }
+        
+        // 关键帧可能在本帧之前就已到期，按速度外推到当前回放时间
+        float lag = (float) (replayTime - keyframe.timestamp);
         
         for (KeyFrame.EnemyInfo enemyInfo : keyframe.enemyInfos) {
-            currentFrameEnemyIds.add(enemyInfo.enemyId);
-            
             // 检查敌人是否已经存在
-            GameObject existingEnemy = enemyIdMap.get(enemyInfo.enemyId);
+            GameObject existingEnemy = enemyRegistry.get(enemyInfo.enemyId);
+            Vector2 position = enemyInfo.position.add(enemyInfo.velocity.multiply(lag));
             
             if (existingEnemy == null) {
                 // 创建新敌人
-                GameObject enemy = EntityFactory.createEnemy(enemyInfo.position, enemyInfo.velocity, renderer, this);
-                enemyIdMap.put(enemyInfo.enemyId, enemy);
+                GameObject enemy = EntityFactory.createEnemy(position, enemyInfo.velocity, renderer, this);
+                enemyRegistry.spawn(enemyInfo.enemyId, enemy);
             } else {
                 // 更新现有敌人的位置和速度
-                updateEnemyState(existingEnemy, enemyInfo);
-                // 确保敌人是活动的
-                existingEnemy.setActive(true);
+                updateEnemyState(existingEnemy, enemyInfo, position, keyframe.timestamp);
             }
         }
         
-        // 处理在当前关键帧中消失的敌人
-        handleMissingEnemies(currentFrameEnemyIds);
-    }
-    
-    /**
-     * 处理在当前关键帧中消失的敌人
-     */
-    private void handleMissingEnemies(Set<Integer> currentFrameEnemyIds) {
-        // 找出在当前关键帧中不存在的敌人
-        for (Map.Entry<Integer, GameObject> entry : enemyIdMap.entrySet()) {
-            int enemyId = entry.getKey();
-            GameObject enemy = entry.getValue();
-            
-            if (!currentFrameEnemyIds.contains(enemyId)) {
-                // 这个敌人在当前关键帧中不存在，设置为非活动状态
-                enemy.setActive(false);
+        if (keyframe.delta) {
+            if (keyframe.goneIds != null) {
+                for (int enemyId : keyframe.goneIds) {
+                    enemyRegistry.despawn(enemyId);
+                }
             }
+        } else {
+            // 在当前完整帧中消失的敌人失活并移出注册表
+            enemyRegistry.endFrame();
         }
     }
     
     /**
      * 更新敌人的状态（位置和速度）
      */
-    private void updateEnemyState(GameObject enemy, KeyFrame.EnemyInfo enemyInfo) {
+    private void updateEnemyState(GameObject enemy, KeyFrame.EnemyInfo enemyInfo, Vector2 position, double keyframeTime) {
         // 更新变换组件
-        var transform = enemy.getComponent(com.gameengine.components.TransformComponent.class);
+        var transform = enemy.getTransform();
         if (transform != null) {
-            transform.setPosition(enemyInfo.position);
+            if (EngineEvents.isEnabled() || EngineMetrics.isEnabled()) {
+                float drift = transform.getPosition().distance(position);
+                EngineMetrics.getInstance().recordReplayDrift(drift);
+                KeyframeCorrectionEvent event = new KeyframeCorrectionEvent();
+                if (event.shouldCommit()) {
+                    event.enemyId = enemyInfo.enemyId;
+                    event.keyframeTime = keyframeTime;
+                    event.drift = drift;
+                    event.commit();
+                }
+            }
+            // 校正直接瞬移，渲染不在偏差位置与校正位置之间插值
+            transform.teleport(position);
         }
         
         // 更新物理组件
-        var physics = enemy.getComponent(com.gameengine.components.PhysicsComponent.class);
+        var physics = enemy.getPhysics();
         if (physics != null) {
             physics.setVelocity(enemyInfo.velocity);
         }
@@ -245,7 +266,7 @@ public class ReplayScene extends Scene {
      * 更新玩家的状态（血量和分数）
      */
     private void updatePlayerState(GameObject player, KeyFrame.PlayerInfo playerInfo) {
-        HealthComponent health = player.getComponent(HealthComponent.class);
+        HealthComponent health = player.getHealth();
         ScoreComponent score = player.getComponent(ScoreComponent.class);
         
         if (health != null) {
@@ -287,6 +308,9 @@ public class ReplayScene extends Scene {
         // 绘制背景
         renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.1f, 0.1f, 0.2f, 1.0f);
 
+        // 游戏区域以外（含右侧 UI 面板下方）的世界对象不提交
+        renderer.setCullRect(0, 0, renderer.getWidth() - UIComponent.UI_WIDTH, renderer.getHeight());
+
         // 渲染所有对象
         super.render();
 
@@ -0,0 +1,66 @@
+package com.gameengine.graphics;
+
+/**
+ * 内存中的 ARGB 位图（缩略图等），用 IRenderer.drawBitmap 绘制
+ * GPU 后端首次绘制时上传为纹理，像素改动后调用 markDirty 重新上传；
+ * 不再使用时调用 release，渲染器在下一帧开始时删除对应的纹理。
+ */
+public class Bitmap {
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private int version;
+    private volatile boolean released;
+
+    // 渲染器持有的纹理
+    int textureHandle;
+    int textureVersion = -1;
+
+    public Bitmap(int width, int height) {
+        this(width, height, new int[width * height]);
+    }
+
+    public Bitmap(int width, int height, int[] pixels) {
+        if (pixels.length != width * height) {
+            throw new IllegalArgumentException("像素数与尺寸不符: " + pixels.length + " != " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * ARGB 像素，行主序
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public void markDirty() {
+        version++;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void release() {
+        released = true;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    public long getByteSize() {
+        return (long) pixels.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,71 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * GL 后端共用的位图纹理管理：按需创建、版本变化时重新上传、删除已释放位图的纹理
+ */
+final class BitmapTextures {
+    private BitmapTextures() { }
+
+    /**
+     * 确保位图的纹理存在且为最新版本，返回纹理对象（失败时为 0）；新建的位图加入 tracked
+     */
+    static int bind(Bitmap bitmap, List<Bitmap> tracked) {
+        if (bitmap.textureHandle == 0) {
+            int texture = GL11.glGenTextures();
+            if (texture <= 0) {
+                System.err.println("创建位图纹理失败: 0x" + Integer.toHexString(GL11.glGetError()));
+                return 0;
+            }
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+            bitmap.textureHandle = texture;
+            tracked.add(bitmap);
+        } else {
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, bitmap.textureHandle);
+        }
+        if (bitmap.textureVersion != bitmap.getVersion()) {
+            // int ARGB 在小端内存中正是 BGRA 字节序
+            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, bitmap.getWidth(), bitmap.getHeight(), 0,
+                    GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV, bitmap.getPixels());
+            bitmap.textureVersion = bitmap.getVersion();
+        }
+        return bitmap.textureHandle;
+    }
+
+    /**
+     * 删除已释放位图的纹理（GL 线程，每帧开始时调用）
+     */
+    static void deleteReleased(List<Bitmap> tracked) {
+        Iterator<Bitmap> it = tracked.iterator();
+        while (it.hasNext()) {
+            Bitmap bitmap = it.next();
+            if (bitmap.isReleased()) {
+                delete(bitmap);
+                it.remove();
+            }
+        }
+    }
+
+    static void deleteAll(List<Bitmap> tracked) {
+        for (Bitmap bitmap : tracked) {
+            delete(bitmap);
+        }
+        tracked.clear();
+    }
+
+    private static void delete(Bitmap bitmap) {
+        GL11.glDeleteTextures(bitmap.textureHandle);
+        bitmap.textureHandle = 0;
+        bitmap.textureVersion = -1;
+    }
+}
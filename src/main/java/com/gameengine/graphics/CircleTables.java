@@ -0,0 +1,41 @@
+package com.gameengine.graphics;
+
+/**
+ * 单位圆顶点表缓存
+ * 按分段数缓存 cos/sin（首尾相同，共 segments + 1 个点），绘制圆时只做乘加，不再逐段调用三角函数
+ * 缓存在类初始化时一次建好（约 260KB），之后只读，缩略图工作线程与渲染线程可以同时使用
+ */
+final class CircleTables {
+    private static final int MAX_CACHED_SEGMENTS = 256;
+    private static final float[][] TABLES = buildAll();
+
+    private CircleTables() {}
+
+    /**
+     * 返回 [cos0, sin0, cos1, sin1, ...]，超出缓存范围的分段数每次现算
+     */
+    static float[] unit(int segments) {
+        if (segments > MAX_CACHED_SEGMENTS) {
+            return build(segments);
+        }
+        return TABLES[segments];
+    }
+
+    private static float[][] buildAll() {
+        float[][] tables = new float[MAX_CACHED_SEGMENTS + 1][];
+        for (int segments = 0; segments <= MAX_CACHED_SEGMENTS; segments++) {
+            tables[segments] = build(segments);
+        }
+        return tables;
+    }
+
+    private static float[] build(int segments) {
+        float[] table = new float[(segments + 1) * 2];
+        for (int i = 0; i <= segments; i++) {
+            double angle = i * 2.0 * Math.PI / segments;
+            table[i * 2] = (float) Math.cos(angle);
+            table[i * 2 + 1] = (float) Math.sin(angle);
+        }
+        return table;
+    }
+}
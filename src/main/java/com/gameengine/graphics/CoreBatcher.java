@@ -0,0 +1,180 @@
+package com.gameengine.graphics;
+
+import java.util.Arrays;
+
+/**
+ * 核心模式的顶点流
+ * 所有图元展开成三角形写进同一个交错顶点数组（x, y, u, v, r, g, b, a），
+ * 相邻且使用同一纹理的图元合并成一段，每段一次 glDrawArrays；纯色图元采样白色纹理，
+ * 因此矩形、圆、线段、文字与位图共用一个着色器，只有纹理切换时才断开。
+ * 不含任何 GL 调用，命令录制模式与真实后端生成的数据完全相同。
+ */
+final class CoreBatcher implements TextRenderer.PageSink {
+    static final int VERTEX_FLOATS = TextRenderer.VERTEX_FLOATS;
+
+    private final int solidTexture;
+    private float[] vertices;
+    private int size;
+    private int[] runTextures;
+    private int[] runFirsts;
+    private int[] runCounts;
+    private int runs;
+
+    CoreBatcher(int solidTexture) {
+        this.solidTexture = solidTexture;
+        this.vertices = new float[VERTEX_FLOATS * 6 * 1024];
+        this.runTextures = new int[16];
+        this.runFirsts = new int[16];
+        this.runCounts = new int[16];
+    }
+
+    void reset() {
+        size = 0;
+        runs = 0;
+    }
+
+    void rect(float x, float y, float w, float h, float r, float g, float b, float a) {
+        int o = reserve(solidTexture, 6);
+        o = vertex(o, x, y, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x + w, y, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x + w, y + h, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x, y, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x + w, y + h, 0.5f, 0.5f, r, g, b, a);
+        size = vertex(o, x, y + h, 0.5f, 0.5f, r, g, b, a);
+    }
+
+    void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (segments <= 0) return;
+        float[] unit = CircleTables.unit(segments);
+        int o = reserve(solidTexture, segments * 3);
+        for (int s = 0; s < segments; s++) {
+            o = vertex(o, x, y, 0.5f, 0.5f, r, g, b, a);
+            o = vertex(o, x + radius * unit[s * 2], y + radius * unit[s * 2 + 1], 0.5f, 0.5f, r, g, b, a);
+            o = vertex(o, x + radius * unit[s * 2 + 2], y + radius * unit[s * 2 + 3], 0.5f, 0.5f, r, g, b, a);
+        }
+        size = o;
+    }
+
+    /**
+     * 核心模式不支持大于 1 的线宽，线段展开成沿法线方向加宽的四边形
+     */
+    void line(float x1, float y1, float x2, float y2, float thickness, float r, float g, float b, float a) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len < 0.001f) return;
+        float scale = thickness * 0.5f / len;
+        float nx = -dy * scale;
+        float ny = dx * scale;
+        int o = reserve(solidTexture, 6);
+        o = vertex(o, x1 - nx, y1 - ny, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x1 + nx, y1 + ny, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x2 + nx, y2 + ny, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x1 - nx, y1 - ny, 0.5f, 0.5f, r, g, b, a);
+        o = vertex(o, x2 + nx, y2 + ny, 0.5f, 0.5f, r, g, b, a);
+        size = vertex(o, x2 - nx, y2 - ny, 0.5f, 0.5f, r, g, b, a);
+    }
+
+    /**
+     * 贴整张纹理的矩形（位图），顶点色为白色
+     */
+    void image(int texture, float x, float y, float w, float h) {
+        int o = reserve(texture, 6);
+        o = vertex(o, x, y, 0, 0, 1, 1, 1, 1);
+        o = vertex(o, x + w, y, 1, 0, 1, 1, 1, 1);
+        o = vertex(o, x + w, y + h, 1, 1, 1, 1, 1, 1);
+        o = vertex(o, x, y, 0, 0, 1, 1, 1, 1);
+        o = vertex(o, x + w, y + h, 1, 1, 1, 1, 1, 1);
+        size = vertex(o, x, y + h, 0, 1, 1, 1, 1, 1);
+    }
+
+    /**
+     * 接收 TextRenderer 的一页四边形，拆成两个三角形
+     */
+    @Override
+    public void accept(int texture, float[] quads, int quadSize) {
+        int quadFloats = VERTEX_FLOATS * 4;
+        int quadCount = quadSize / quadFloats;
+        int o = reserve(texture, quadCount * 6);
+        for (int q = 0; q < quadCount; q++) {
+            int base = q * quadFloats;
+            o = copyVertex(o, quads, base);
+            o = copyVertex(o, quads, base + VERTEX_FLOATS);
+            o = copyVertex(o, quads, base + VERTEX_FLOATS * 2);
+            o = copyVertex(o, quads, base);
+            o = copyVertex(o, quads, base + VERTEX_FLOATS * 2);
+            o = copyVertex(o, quads, base + VERTEX_FLOATS * 3);
+        }
+        size = o;
+    }
+
+    float[] getVertices() {
+        return vertices;
+    }
+
+    int getFloatCount() {
+        return size;
+    }
+
+    int getVertexCount() {
+        return size / VERTEX_FLOATS;
+    }
+
+    int getRunCount() {
+        return runs;
+    }
+
+    int getRunTexture(int run) {
+        return runTextures[run];
+    }
+
+    int getRunFirst(int run) {
+        return runFirsts[run];
+    }
+
+    int getRunVertexCount(int run) {
+        return runCounts[run];
+    }
+
+    /**
+     * 为 count 个顶点预留空间：纹理与上一段相同则延长该段，否则新开一段；返回写入位置
+     */
+    private int reserve(int texture, int count) {
+        int needed = size + count * VERTEX_FLOATS;
+        if (needed > vertices.length) {
+            vertices = Arrays.copyOf(vertices, Math.max(needed, vertices.length * 2));
+        }
+        if (runs > 0 && runTextures[runs - 1] == texture) {
+            runCounts[runs - 1] += count;
+        } else {
+            if (runs == runTextures.length) {
+                runTextures = Arrays.copyOf(runTextures, runs * 2);
+                runFirsts = Arrays.copyOf(runFirsts, runs * 2);
+                runCounts = Arrays.copyOf(runCounts, runs * 2);
+            }
+            runTextures[runs] = texture;
+            runFirsts[runs] = size / VERTEX_FLOATS;
+            runCounts[runs] = count;
+            runs++;
+        }
+        return size;
+    }
+
+    private int vertex(int o, float x, float y, float u, float v, float r, float g, float b, float a) {
+        float[] out = vertices;
+        out[o] = x;
+        out[o + 1] = y;
+        out[o + 2] = u;
+        out[o + 3] = v;
+        out[o + 4] = r;
+        out[o + 5] = g;
+        out[o + 6] = b;
+        out[o + 7] = a;
+        return o + VERTEX_FLOATS;
+    }
+
+    private int copyVertex(int o, float[] src, int from) {
+        System.arraycopy(src, from, vertices, o, VERTEX_FLOATS);
+        return o + VERTEX_FLOATS;
+    }
+}
@@ -0,0 +1,516 @@
+package com.gameengine.graphics;
+
+import com.gameengine.input.InputManager;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.glfw.GLFWErrorCallback;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import java.awt.Font;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * OpenGL 3.3 核心模式渲染器
+ * 一个着色器、一个 VAO、一个流式 VBO：整帧的图元由 CoreBatcher 展开进同一个顶点数组，
+ * endFrame 时孤立旧缓冲（glBufferData 重新分配）后一次上传，再按纹理分段 glDrawArrays。
+ * 正交投影在创建时写入 uniform，混合等状态只设置一次，beginFrame 只清屏。
+ * 单通道纹理（字形页、纯色用的白色纹素）通过重排采样成 (1, 1, 1, r)，与 RGBA 位图共用同一个着色器。
+ * 录制模式不创建窗口与上下文，把每帧本应发出的 GL 命令（清屏、孤立与上传、纹理绑定、绘制、交换）记成文本，
+ * 供没有 GPU 的机器校验；孤立大小与绑定的取舍和真实后端走同一段代码。
+ */
+public class GLCoreRenderer implements IRenderer {
+    private static final float LINE_WIDTH = 2.5f;
+    private static final String PRELOAD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+-=[]{}|;:,.<>?/~` ";
+
+    private static final String VERTEX_SHADER = """
+            #version 330 core
+            layout(location = 0) in vec2 aPosition;
+            layout(location = 1) in vec2 aTexCoord;
+            layout(location = 2) in vec4 aColor;
+            uniform mat4 uProjection;
+            out vec2 vTexCoord;
+            out vec4 vColor;
+            void main() {
+                vTexCoord = aTexCoord;
+                vColor = aColor;
+                gl_Position = uProjection * vec4(aPosition, 0.0, 1.0);
+            }
+            """;
+
+    private static final String FRAGMENT_SHADER = """
+            #version 330 core
+            in vec2 vTexCoord;
+            in vec4 vColor;
+            uniform sampler2D uTexture;
+            out vec4 fragColor;
+            void main() {
+                fragColor = vColor * texture(uTexture, vTexCoord);
+            }
+            """;
+
+    private final int width;
+    private final int height;
+    private final String title;
+    private final boolean recording;
+    private final float[] projection;
+    private long window;
+    private int program;
+    private int vao;
+    private int vbo;
+    private long vboCapacity;
+    private FloatBuffer uploadBuffer;
+    private int whiteTexture;
+    private GlyphAtlas glyphAtlas;
+    private TextRenderer textRenderer;
+    private CoreBatcher batcher;
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private int nextRecordedTexture = 1 << 16;
+    private boolean initialized;
+
+    private List<String> commands;
+    private List<String> lastCommands = Collections.emptyList();
+    private int lastDrawCalls;
+    private int lastVertexCount;
+    private long frameCount;
+
+    public GLCoreRenderer(int width, int height, String title) {
+        this(width, height, title, false);
+    }
+
+    private GLCoreRenderer(int width, int height, String title, boolean recording) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.recording = recording;
+        this.projection = ortho(width, height);
+        if (recording) {
+            initializeRecording();
+        } else {
+            initialize();
+        }
+    }
+
+    /**
+     * 创建不需要 GPU 的命令录制渲染器
+     */
+    public static GLCoreRenderer recording(int width, int height, String title) {
+        return new GLCoreRenderer(width, height, title, true);
+    }
+
+    private void initializeRecording() {
+        System.setProperty("java.awt.headless", "true");
+        Font font = new Font(Font.MONOSPACED, Font.BOLD, 32);
+        glyphAtlas = GlyphAtlas.withoutUpload(font, 32);
+        glyphAtlas.preload(PRELOAD_CHARS);
+        textRenderer = new TextRenderer(glyphAtlas, 32);
+        batcher = new CoreBatcher(0);
+        commands = new ArrayList<>();
+        initialized = true;
+    }
+
+    private void initialize() {
+        try {
+            System.setProperty("java.awt.headless", "true");
+            GLFWErrorCallback.createPrint(System.err).set();
+            if (!GLFW.glfwInit()) {
+                throw new RuntimeException("无法初始化GLFW");
+            }
+
+            GLFW.glfwDefaultWindowHints();
+            GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_TRUE);
+            GLFW.glfwWindowHint(GLFW.GLFW_RESIZABLE, GLFW.GLFW_FALSE);
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 3);
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 3);
+            GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_CORE_PROFILE);
+            GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_FORWARD_COMPAT, GLFW.GLFW_TRUE);
+
+            window = GLFW.glfwCreateWindow(width, height, title, MemoryUtil.NULL, MemoryUtil.NULL);
+            if (window == MemoryUtil.NULL) {
+                throw new RuntimeException("无法创建OpenGL 3.3核心模式窗口");
+            }
+            org.lwjgl.glfw.GLFWVidMode vidmode = GLFW.glfwGetVideoMode(GLFW.glfwGetPrimaryMonitor());
+            if (vidmode != null) {
+                GLFW.glfwSetWindowPos(window, (vidmode.width() - width) / 2, (vidmode.height() - height) / 2);
+            }
+
+            InputManager inputManager = InputManager.getInstance();
+            GLFW.glfwSetKeyCallback(window, (w, key, scancode, action, mods) -> {
+                if (action == GLFW.GLFW_PRESS) {
+                    inputManager.postKeyEvent(GlfwKeys.toJava(key), true);
+                } else if (action == GLFW.GLFW_RELEASE) {
+                    inputManager.postKeyEvent(GlfwKeys.toJava(key), false);
+                }
+            });
+
+            GLFW.glfwMakeContextCurrent(window);
+            GL.createCapabilities();
+            GLFW.glfwSwapInterval(1);
+            GLFW.glfwShowWindow(window);
+
+            program = createProgram();
+            GL20.glUseProgram(program);
+            GL20.glUniformMatrix4fv(GL20.glGetUniformLocation(program, "uProjection"), false, projection);
+            GL20.glUniform1i(GL20.glGetUniformLocation(program, "uTexture"), 0);
+
+            vao = GL30.glGenVertexArrays();
+            GL30.glBindVertexArray(vao);
+            vbo = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            int stride = CoreBatcher.VERTEX_FLOATS * Float.BYTES;
+            GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, stride, 0);
+            GL20.glVertexAttribPointer(1, 2, GL11.GL_FLOAT, false, stride, 2L * Float.BYTES);
+            GL20.glVertexAttribPointer(2, 4, GL11.GL_FLOAT, false, stride, 4L * Float.BYTES);
+            GL20.glEnableVertexAttribArray(0);
+            GL20.glEnableVertexAttribArray(1);
+            GL20.glEnableVertexAttribArray(2);
+
+            GL11.glViewport(0, 0, width, height);
+            GL11.glEnable(GL11.GL_BLEND);
+            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+            GL11.glDisable(GL11.GL_DEPTH_TEST);
+            GL11.glDisable(GL11.GL_CULL_FACE);
+            GL11.glClearColor(0.2f, 0.2f, 0.2f, 1.0f);
+
+            whiteTexture = createWhiteTexture();
+            uploadBuffer = BufferUtils.createFloatBuffer(CoreBatcher.VERTEX_FLOATS * 6 * 1024);
+
+            Font font = new Font(Font.MONOSPACED, Font.BOLD, 32);
+            glyphAtlas = GlyphAtlas.forCoreProfile(font, 32);
+            glyphAtlas.preload(PRELOAD_CHARS);
+            textRenderer = new TextRenderer(glyphAtlas, 32);
+            batcher = new CoreBatcher(whiteTexture);
+            initialized = true;
+
+            System.out.println("核心模式渲染器初始化成功！");
+            System.out.println("OpenGL版本: " + GL11.glGetString(GL11.GL_VERSION));
+            System.out.println("渲染器: " + GL11.glGetString(GL11.GL_RENDERER));
+        } catch (RuntimeException e) {
+            releaseWindow();
+            throw new RuntimeException("核心模式渲染器初始化失败: " + e.getMessage(), e);
+        }
+    }
+
+    private int createProgram() {
+        int vertex = compileShader(GL20.GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragment = compileShader(GL20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        int id = GL20.glCreateProgram();
+        GL20.glAttachShader(id, vertex);
+        GL20.glAttachShader(id, fragment);
+        GL20.glLinkProgram(id);
+        GL20.glDeleteShader(vertex);
+        GL20.glDeleteShader(fragment);
+        if (GL20.glGetProgrami(id, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+            String log = GL20.glGetProgramInfoLog(id);
+            GL20.glDeleteProgram(id);
+            throw new RuntimeException("着色器链接失败: " + log);
+        }
+        return id;
+    }
+
+    private static int compileShader(int type, String source) {
+        int id = GL20.glCreateShader(type);
+        GL20.glShaderSource(id, source);
+        GL20.glCompileShader(id);
+        if (GL20.glGetShaderi(id, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+            String log = GL20.glGetShaderInfoLog(id);
+            GL20.glDeleteShader(id);
+            throw new RuntimeException("着色器编译失败: " + log);
+        }
+        return id;
+    }
+
+    /**
+     * 纯色图元采样的 1x1 白色纹理
+     */
+    private static int createWhiteTexture() {
+        ByteBuffer texel = BufferUtils.createByteBuffer(1);
+        texel.put((byte) 255).flip();
+        int texture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteriv(GL11.GL_TEXTURE_2D, GL33.GL_TEXTURE_SWIZZLE_RGBA, GlyphAtlas.ALPHA_SWIZZLE);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_R8, 1, 1, 0, GL11.GL_RED, GL11.GL_UNSIGNED_BYTE, texel);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        return texture;
+    }
+
+    /**
+     * 左上角为原点、y 轴向下的正交投影（列主序）
+     */
+    static float[] ortho(int width, int height) {
+        float[] m = new float[16];
+        m[0] = 2.0f / width;
+        m[5] = -2.0f / height;
+        m[10] = -1.0f;
+        m[12] = -1.0f;
+        m[13] = 1.0f;
+        m[15] = 1.0f;
+        return m;
+    }
+
+    @Override
+    public void beginFrame() {
+        if (!initialized) return;
+        batcher.reset();
+        textRenderer.beginFrame();
+        if (recording) {
+            commands.clear();
+            command("clear");
+        } else {
+            BitmapTextures.deleteReleased(bitmaps);
+            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+        }
+    }
+
+    @Override
+    public void endFrame() {
+        if (!initialized) return;
+        textRenderer.drain(batcher);
+        submit();
+        lastDrawCalls = batcher.getRunCount();
+        lastVertexCount = batcher.getVertexCount();
+        frameCount++;
+        if (recording) {
+            command("swap");
+            lastCommands = List.copyOf(commands);
+        } else {
+            GLFW.glfwSwapBuffers(window);
+        }
+    }
+
+    /**
+     * 孤立并上传整帧顶点，再按纹理分段绘制
+     */
+    private void submit() {
+        int floats = batcher.getFloatCount();
+        if (floats == 0) return;
+        long bytes = (long) floats * Float.BYTES;
+        if (bytes > vboCapacity) {
+            vboCapacity = Math.max(bytes, vboCapacity * 2);
+        }
+        if (recording) {
+            command("orphan %d bytes", vboCapacity);
+            command("upload %d vertices", batcher.getVertexCount());
+        } else {
+            if (uploadBuffer.capacity() < floats) {
+                uploadBuffer = BufferUtils.createFloatBuffer(Math.max(floats, uploadBuffer.capacity() * 2));
+            }
+            uploadBuffer.clear();
+            uploadBuffer.put(batcher.getVertices(), 0, floats).flip();
+            // 重新分配同样大小的存储让驱动丢弃上一帧仍在使用的旧缓冲，避免同步等待
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vboCapacity, GL15.GL_STREAM_DRAW);
+            GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, uploadBuffer);
+        }
+        int bound = -1;
+        for (int run = 0; run < batcher.getRunCount(); run++) {
+            int texture = batcher.getRunTexture(run);
+            int first = batcher.getRunFirst(run);
+            int count = batcher.getRunVertexCount(run);
+            if (texture != bound) {
+                if (recording) {
+                    command("bind texture=%d", texture);
+                } else {
+                    GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+                }
+                bound = texture;
+            }
+            if (recording) {
+                command("draw first=%d count=%d", first, count);
+            } else {
+                GL11.glDrawArrays(GL11.GL_TRIANGLES, first, count);
+            }
+        }
+    }
+
+    private void command(String format, Object... args) {
+        commands.add(args.length == 0 ? format : String.format(Locale.ROOT, format, args));
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
+        if (!initialized) return;
+        textRenderer.drain(batcher);
+        batcher.rect(x, y, w, h, r, g, b, a);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (!initialized) return;
+        textRenderer.drain(batcher);
+        batcher.circle(x, y, radius, segments, r, g, b, a);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        if (!initialized) return;
+        textRenderer.drain(batcher);
+        batcher.line(x1, y1, x2, y2, LINE_WIDTH, r, g, b, a);
+    }
+
+    /**
+     * 文字按纹理页攒批，遇到其他图元或帧结束时并入顶点流，保持绘制顺序
+     */
+    @Override
+    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
+        if (!initialized || text == null || text.isEmpty()) return;
+        textRenderer.draw(x, y, text, r, g, b, a);
+    }
+
+    /**
+     * 保留几何直接回放进顶点流，与其他图元同批上传，不单独占用绘制调用
+     */
+    @Override
+    public void drawMesh(RetainedMesh mesh) {
+        if (!initialized) return;
+        mesh.replay(this);
+    }
+
+    /**
+     * 位图纹理在添加到顶点流时就上传（早于本帧的 glDrawArrays），录制模式只分配一个编号
+     */
+    @Override
+    public void drawBitmap(Bitmap bitmap, float x, float y, float w, float h) {
+        if (!initialized || bitmap.isReleased()) return;
+        textRenderer.drain(batcher);
+        int texture;
+        if (recording) {
+            if (bitmap.textureHandle == 0) {
+                bitmap.textureHandle = nextRecordedTexture++;
+            }
+            if (bitmap.textureVersion != bitmap.getVersion()) {
+                command("upload texture=%d %dx%d", bitmap.textureHandle, bitmap.getWidth(), bitmap.getHeight());
+                bitmap.textureVersion = bitmap.getVersion();
+            }
+            texture = bitmap.textureHandle;
+        } else {
+            texture = BitmapTextures.bind(bitmap, bitmaps);
+            if (texture == 0) return;
+        }
+        batcher.image(texture, x, y, w, h);
+    }
+
+    @Override
+    public void prefetchText(String text) {
+        if (!initialized || text == null) return;
+        glyphAtlas.request(text);
+    }
+
+    /**
+     * 上一帧的绘制调用次数（纹理分段数）
+     */
+    public int getLastFrameDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    public int getLastFrameVertexCount() {
+        return lastVertexCount;
+    }
+
+    /**
+     * 录制模式下上一帧的命令，真实后端返回空列表
+     */
+    public List<String> getLastFrameCommands() {
+        return lastCommands;
+    }
+
+    /**
+     * 创建时写入着色器的投影矩阵
+     */
+    public float[] getProjection() {
+        return projection.clone();
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        if (!initialized || recording) return false;
+        return GLFW.glfwWindowShouldClose(window);
+    }
+
+    @Override
+    public void pollEvents() {
+        if (initialized && !recording) {
+            GLFW.glfwPollEvents();
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (textRenderer != null) {
+            textRenderer.cleanup();
+            glyphAtlas.cleanup();
+        }
+        if (!recording && initialized) {
+            BitmapTextures.deleteAll(bitmaps);
+            GL11.glDeleteTextures(whiteTexture);
+            GL15.glDeleteBuffers(vbo);
+            GL30.glDeleteVertexArrays(vao);
+            GL20.glDeleteProgram(program);
+        }
+        initialized = false;
+        if (!recording) {
+            releaseWindow();
+        }
+    }
+
+    private void releaseWindow() {
+        if (window != MemoryUtil.NULL) {
+            GLFW.glfwDestroyWindow(window);
+            window = MemoryUtil.NULL;
+        }
+        GLFW.glfwTerminate();
+        GLFWErrorCallback prev = GLFW.glfwSetErrorCallback(null);
+        if (prev != null) {
+            prev.free();
+        }
+    }
+
+    @Override
+    public boolean setSwapInterval(int interval) {
+        if (!initialized || recording) return false;
+        return GlfwSwap.setInterval(window, interval);
+    }
+
+    @Override
+    public int getRefreshRate() {
+        return initialized && !recording ? GlfwSwap.refreshRate() : 0;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+}
@@ -9,13 +9,14 @@ import org.lwjgl.opengl.GL12;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
-import java.awt.*;
-import java.awt.image.BufferedImage;
+import java.awt.Font;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import org.lwjgl.BufferUtils;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class GPURenderer implements IRenderer {
     private int width;
@@ -24,10 +25,16 @@ public class GPURenderer implements IRenderer {
     private InputManager inputManager;
     private boolean initialized;
     private long window;
-    private Map<Character, Integer> charTextures;
     private Font font;
     private int fontSize;
-    private boolean texturesPreloaded;
+    private GlyphAtlas glyphAtlas;
+    private TextRenderer textRenderer;
+    private List<RetainedMesh> compiledMeshes;
+    private List<Bitmap> bitmaps;
+    private FloatBuffer shapeBuffer;
+    // 本帧待提交的圆：每个顶点 x, y, r, g, b, a，三角形列表
+    private float[] circleBatch;
+    private int circleBatchSize;
     private static final String PRELOAD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+-=[]{}|;:,.<>?/~` ";
 
     public GPURenderer(int width, int height, String title) {
@@ -37,10 +44,12 @@ public class GPURenderer implements IRenderer {
         this.inputManager = InputManager.getInstance();
         this.initialized = false;
         this.window = 0;
-        this.charTextures = new HashMap<>();
         this.font = new Font(Font.MONOSPACED, Font.BOLD, 32);
         this.fontSize = 32;
-        this.texturesPreloaded = false;
+        this.compiledMeshes = new ArrayList<>();
+        this.bitmaps = new ArrayList<>();
+        this.shapeBuffer = BufferUtils.createFloatBuffer(6 * 3 * 256);
+        this.circleBatch = new float[6 * 3 * 16 * 64];
 
         initialize();
     }
@@ -86,6 +95,7 @@ public class GPURenderer implements IRenderer {
             
             GLFW.glfwMakeContextCurrent(window);
             GL.createCapabilities();
+            // 默认垂直同步，FramePacer 按 render.pacing 重新设置
             GLFW.glfwSwapInterval(1);
             
             GLFW.glfwShowWindow(window);
@@ -117,8 +127,12 @@ public class GPURenderer implements IRenderer {
             System.out.println("渲染器: " + glRenderer);
             System.out.println("最大纹理尺寸: " + maxTex[0]);
             
-            // 仅在上下文确认有效后再预加载纹理
-            preloadTextures();
+            // 仅在上下文确认有效后再创建字形图集，ASCII 同步载入，其余字符按需后台光栅化
+            glyphAtlas = new GlyphAtlas(font, fontSize);
+            glyphAtlas.preload(PRELOAD_CHARS);
+            textRenderer = new TextRenderer(glyphAtlas, fontSize);
+            System.out.println("字形图集预加载完成: " + glyphAtlas.getGlyphCount() + " 个字形, "
+                    + glyphAtlas.getPageCount() + " 个纹理页");
         } catch (Exception e) {
             throw new RuntimeException("GPU渲染器初始化失败: " + e.getMessage(), e);
         }
@@ -127,11 +141,11 @@ public class GPURenderer implements IRenderer {
     private void setupInput() {
         GLFW.glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
             // 将GLFW键码转换为Java键码
-            int javaKeyCode = convertGLFWKeyToJava(key);
+            int javaKeyCode = GlfwKeys.toJava(key);
             if (action == GLFW.GLFW_PRESS) {
-                inputManager.onKeyPressed(javaKeyCode);
+                inputManager.postKeyEvent(javaKeyCode, true);
             } else if (action == GLFW.GLFW_RELEASE) {
-                inputManager.onKeyReleased(javaKeyCode);
+                inputManager.postKeyEvent(javaKeyCode, false);
             }
         });
     }
@@ -160,17 +174,23 @@ public class GPURenderer implements IRenderer {
         GL11.glDisable(GL11.GL_CULL_FACE);
         GL11.glDisable(GL11.GL_COLOR_MATERIAL);
         
+        textRenderer.beginFrame();
+        BitmapTextures.deleteReleased(bitmaps);
     }
     
     @Override
     public void endFrame() {
         if (!initialized) return;
+        flushCircles();
+        textRenderer.flush();
         GLFW.glfwSwapBuffers(window);
     }
     
     @Override
     public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
         if (!initialized) return;
+        flushCircles();
+        textRenderer.flush();
         
         GL11.glColor4f(r, g, b, a);
         GL11.glBegin(GL11.GL_QUADS);
@@ -185,26 +205,76 @@ public class GPURenderer implements IRenderer {
         }
     }
     
+    /**
+     * 圆用缓存的单位圆表展开成三角形追加到批次，连续的圆合成一次绘制调用
+     */
     @Override
     public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
-        if (!initialized) return;
-        
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-        GL11.glVertex2f(x, y);
+        if (!initialized || segments <= 0) return;
+        textRenderer.flush();
         
-        for (int i = 0; i <= segments; i++) {
-            float angle = (float) (i * 2.0 * Math.PI / segments);
-            float px = x + (float) (radius * Math.cos(angle));
-            float py = y + (float) (radius * Math.sin(angle));
-            GL11.glVertex2f(px, py);
+        int needed = circleBatchSize + segments * 18;
+        if (needed > circleBatch.length) {
+            circleBatch = Arrays.copyOf(circleBatch, Math.max(needed, circleBatch.length * 2));
         }
-        GL11.glEnd();
+        circleBatchSize = appendCircle(circleBatch, circleBatchSize, x, y, radius, segments, r, g, b, a);
+    }
+    
+    /**
+     * 写入一个圆的三角形（每段一个三角形，每顶点 6 个 float），返回新的写入位置
+     */
+    private static int appendCircle(float[] out, int o, float x, float y, float radius, int segments,
+                                    float r, float g, float b, float a) {
+        float[] unit = CircleTables.unit(segments);
+        for (int s = 0; s < segments; s++) {
+            o = putVertex(out, o, x, y, r, g, b, a);
+            o = putVertex(out, o, x + radius * unit[s * 2], y + radius * unit[s * 2 + 1], r, g, b, a);
+            o = putVertex(out, o, x + radius * unit[s * 2 + 2], y + radius * unit[s * 2 + 3], r, g, b, a);
+        }
+        return o;
+    }
+    
+    private static int putVertex(float[] out, int o, float x, float y, float r, float g, float b, float a) {
+        out[o] = x;
+        out[o + 1] = y;
+        out[o + 2] = r;
+        out[o + 3] = g;
+        out[o + 4] = b;
+        out[o + 5] = a;
+        return o + 6;
+    }
+    
+    private void flushCircles() {
+        if (circleBatchSize == 0) return;
+        drawColoredTriangles(circleBatch, circleBatchSize);
+        circleBatchSize = 0;
+    }
+    
+    /**
+     * 一次 glDrawArrays 画出带顶点颜色的三角形列表
+     */
+    private void drawColoredTriangles(float[] vertices, int size) {
+        if (shapeBuffer.capacity() < size) {
+            shapeBuffer = BufferUtils.createFloatBuffer(Math.max(size, shapeBuffer.capacity() * 2));
+        }
+        shapeBuffer.clear();
+        shapeBuffer.put(vertices, 0, size).flip();
+        int stride = 6 * Float.BYTES;
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glVertexPointer(2, GL11.GL_FLOAT, stride, shapeBuffer.position(0));
+        GL11.glColorPointer(4, GL11.GL_FLOAT, stride, shapeBuffer.position(2));
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, size / 6);
+        GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
     }
     
     @Override
     public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
         if (!initialized) return;
+        flushCircles();
+        textRenderer.flush();
         
         GL11.glLineWidth(2.5f);
         GL11.glColor4f(r, g, b, a);
@@ -214,219 +284,115 @@ public class GPURenderer implements IRenderer {
         GL11.glEnd();
     }
     
+    /**
+     * 文字先进入批次，遇到其他图元或帧结束时统一提交，保持绘制顺序
+     */
     @Override
     public void drawText(float x, float y, String text, float r, float g, float b, float a) {
         if (!initialized || text == null || text.isEmpty()) return;
-        
-        if (!texturesPreloaded) {
-            preloadTextures();
-        }
-        
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-        
-        float currentX = x;
-        float charHeight = fontSize;
-        float charWidth = fontSize * 0.6f;
-        float spacing = 1.0f;
-        
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == ' ') {
-                currentX += charWidth * 0.5f;
-                continue;
-            }
-            
-            int textureId = getCharTexture(c);
-            if (textureId > 0) {
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-                GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
-                GL11.glColor4f(r, g, b, a);
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(0.0f, 0.0f);
-                GL11.glVertex2f(currentX, y);
-                GL11.glTexCoord2f(1.0f, 0.0f);
-                GL11.glVertex2f(currentX + charWidth, y);
-                GL11.glTexCoord2f(1.0f, 1.0f);
-                GL11.glVertex2f(currentX + charWidth, y + charHeight);
-                GL11.glTexCoord2f(0.0f, 1.0f);
-                GL11.glVertex2f(currentX, y + charHeight);
-                GL11.glEnd();
-            }
-            
-            currentX += charWidth + spacing;
-        }
-        
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        flushCircles();
+        textRenderer.draw(x, y, text, r, g, b, a);
     }
     
-    private void preloadTextures() {
-        if (!initialized || texturesPreloaded) return;
-        
-        GLFW.glfwMakeContextCurrent(window);
-        
-        int loaded = 0;
-        int failed = 0;
-        
-        for (int i = 0; i < PRELOAD_CHARS.length(); i++) {
-            char c = PRELOAD_CHARS.charAt(i);
-            if (c == ' ') continue;
-            
-            if (!charTextures.containsKey(c)) {
-                int error = GL11.glGetError();
-                while (error != GL11.GL_NO_ERROR) {
-                    error = GL11.glGetError();
-                }
-                
-                int textureId = createCharTexture(c);
-                if (textureId > 0) {
-                    charTextures.put(c, textureId);
-                    loaded++;
-                } else {
-                    failed++;
-                }
+    /**
+     * 保留几何编译成显示列表，内容版本变化（或上次编译时字形未就绪）时才重建，
+     * 每帧只是一次 glCallList
+     */
+    @Override
+    public void drawMesh(RetainedMesh mesh) {
+        if (!initialized) return;
+        flushCircles();
+        textRenderer.flush();
+        if (mesh.compiledHandle == 0) {
+            mesh.compiledHandle = GL11.glGenLists(1);
+            if (mesh.compiledHandle == 0) {
+                mesh.replay(this);
+                return;
             }
+            compiledMeshes.add(mesh);
         }
-        
-        texturesPreloaded = true;
-        System.out.println("预加载字符纹理完成: " + loaded + " 成功, " + failed + " 失败");
+        if (mesh.compiledVersion != mesh.getVersion() || !mesh.compiledComplete) {
+            compileMesh(mesh);
+        }
+        GL11.glCallList(mesh.compiledHandle);
     }
     
-    private int getCharTexture(char c) {
-        if (charTextures.containsKey(c)) {
-            return charTextures.get(c);
+    /**
+     * 图形细分为一个带顶点颜色的三角形数组，文字走图集批次，一起录入显示列表
+     */
+    private void compileMesh(RetainedMesh mesh) {
+        int size = 0;
+        float[] shapes = mesh.getShapes();
+        for (int i = 0; i < mesh.getShapeCount(); i++) {
+            int o = i * RetainedMesh.SHAPE_FLOATS;
+            size += ((int) shapes[o] == RetainedMesh.RECT ? 6 : 3 * (int) shapes[o + 4]) * 6;
         }
-        
-        if (!texturesPreloaded) {
-            preloadTextures();
-            if (charTextures.containsKey(c)) {
-                return charTextures.get(c);
+        float[] vertices = new float[size];
+        int v = 0;
+        for (int i = 0; i < mesh.getShapeCount(); i++) {
+            int o = i * RetainedMesh.SHAPE_FLOATS;
+            float x = shapes[o + 1], y = shapes[o + 2];
+            float r = shapes[o + 5], g = shapes[o + 6], b = shapes[o + 7], a = shapes[o + 8];
+            if ((int) shapes[o] == RetainedMesh.RECT) {
+                float w = shapes[o + 3], h = shapes[o + 4];
+                v = putVertex(vertices, v, x, y, r, g, b, a);
+                v = putVertex(vertices, v, x + w, y, r, g, b, a);
+                v = putVertex(vertices, v, x + w, y + h, r, g, b, a);
+                v = putVertex(vertices, v, x, y, r, g, b, a);
+                v = putVertex(vertices, v, x + w, y + h, r, g, b, a);
+                v = putVertex(vertices, v, x, y + h, r, g, b, a);
+            } else {
+                v = appendCircle(vertices, v, x, y, shapes[o + 3], (int) shapes[o + 4], r, g, b, a);
             }
         }
         
-        if (!initialized) {
-            return 0;
+        int incompleteBefore = textRenderer.getIncompleteLayouts();
+        GL11.glNewList(mesh.compiledHandle, GL11.GL_COMPILE);
+        if (v > 0) {
+            drawColoredTriangles(vertices, v);
         }
-        
-        GLFW.glfwMakeContextCurrent(window);
-        
-        int error = GL11.glGetError();
-        while (error != GL11.GL_NO_ERROR) {
-            error = GL11.glGetError();
-        }
-        
-        int textureId = createCharTexture(c);
-        if (textureId > 0) {
-            charTextures.put(c, textureId);
+        float[] params = mesh.getTextParams();
+        for (int i = 0; i < mesh.getTextCount(); i++) {
+            int o = i * RetainedMesh.TEXT_FLOATS;
+            textRenderer.draw(params[o], params[o + 1], mesh.getText(i), params[o + 2], params[o + 3], params[o + 4], params[o + 5]);
         }
-        return textureId;
+        textRenderer.flush();
+        GL11.glEndList();
+        mesh.compiledVersion = mesh.getVersion();
+        mesh.compiledComplete = textRenderer.getIncompleteLayouts() == incompleteBefore;
     }
     
-    private int createCharTexture(char c) {
-        try {
-            BufferedImage img = new BufferedImage(fontSize, fontSize, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2d = img.createGraphics();
-            
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            g2d.setComposite(AlphaComposite.Clear);
-            g2d.fillRect(0, 0, fontSize, fontSize);
-            
-            g2d.setComposite(AlphaComposite.SrcOver);
-            g2d.setColor(new Color(255, 255, 255, 255));
-            g2d.setFont(font);
-            FontMetrics fm = g2d.getFontMetrics();
-            int x = (fontSize - fm.charWidth(c)) / 2;
-            int y = (fontSize - fm.getHeight()) / 2 + fm.getAscent();
-            g2d.drawString(String.valueOf(c), x, y);
-            g2d.dispose();
-            
-            int[] pixels = new int[fontSize * fontSize];
-            img.getRGB(0, 0, fontSize, fontSize, pixels, 0, fontSize);
-            
-            ByteBuffer buffer = ByteBuffer.allocateDirect(fontSize * fontSize * 4);
-            for (int i = 0; i < pixels.length; i++) {
-                int pixel = pixels[i];
-                buffer.put((byte) ((pixel >> 16) & 0xFF));
-                buffer.put((byte) ((pixel >> 8) & 0xFF));
-                buffer.put((byte) (pixel & 0xFF));
-                buffer.put((byte) ((pixel >> 24) & 0xFF));
-            }
-            buffer.flip();
-            
-            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
-            GL11.glEnable(GL11.GL_TEXTURE_2D);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            
-            int prevError = GL11.glGetError();
-            while (prevError != GL11.GL_NO_ERROR) {
-                System.err.println("Clearing OpenGL error before genTextures for '" + c + "': " + Integer.toHexString(prevError));
-                prevError = GL11.glGetError();
-            }
-            
-            int textureId;
-            try {
-                IntBuffer ids = BufferUtils.createIntBuffer(1);
-                GL11.glGenTextures(ids);
-                textureId = ids.get(0);
-            } catch (Throwable t) {
-                textureId = GL11.glGenTextures();
-            }
-            
-            if (textureId <= 0) {
-                int genError = GL11.glGetError();
-                System.err.println("glGenTextures returned 0 or negative for char '" + c + "'");
-                if (genError != GL11.GL_NO_ERROR) {
-                    System.err.println("OpenGL error code: 0x" + Integer.toHexString(genError));
-                } else {
-                    System.err.println("No OpenGL error reported, but textureId is invalid. Possible causes:");
-                    System.err.println("  - OpenGL context not properly initialized");
-                    System.err.println("  - Reached texture limit");
-                    System.err.println("  - Graphics driver issue");
-                }
-                return 0;
-            }
-            
-            int genError = GL11.glGetError();
-            if (genError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error after glGenTextures for '" + c + "': 0x" + Integer.toHexString(genError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
-            }
-            
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-            
-            int bindError = GL11.glGetError();
-            if (bindError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error binding texture for '" + c + "': " + Integer.toHexString(bindError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
-            }
-            
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, fontSize, fontSize, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
-            
-            int texError = GL11.glGetError();
-            if (texError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error uploading texture data for '" + c + "': " + Integer.toHexString(texError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
-            }
-            
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL11.glDisable(GL11.GL_TEXTURE_2D);
-            
-            return textureId;
-        } catch (Exception e) {
-            System.err.println("Exception creating texture for char '" + c + "': " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+    /**
+     * 位图作为 RGBA 纹理贴到一个四边形上，像素版本变化时才重新上传
+     */
+    @Override
+    public void drawBitmap(Bitmap bitmap, float x, float y, float w, float h) {
+        if (!initialized || bitmap.isReleased()) return;
+        flushCircles();
+        textRenderer.flush();
+        GL11.glEnable(GL11.GL_TEXTURE_2D);
+        if (BitmapTextures.bind(bitmap, bitmaps) != 0) {
+            GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
+            GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+            GL11.glBegin(GL11.GL_QUADS);
+            GL11.glTexCoord2f(0, 0);
+            GL11.glVertex2f(x, y);
+            GL11.glTexCoord2f(1, 0);
+            GL11.glVertex2f(x + w, y);
+            GL11.glTexCoord2f(1, 1);
+            GL11.glVertex2f(x + w, y + h);
+            GL11.glTexCoord2f(0, 1);
+            GL11.glVertex2f(x, y + h);
+            GL11.glEnd();
         }
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+    }
+    
+    @Override
+    public void prefetchText(String text) {
+        if (!initialized || text == null) return;
+        glyphAtlas.request(text);
     }
 
     private int createTestTexture() {
@@ -517,74 +483,19 @@ public class GPURenderer implements IRenderer {
         }
     }
     
-    /**
-     * 将GLFW键码转换为Java键码
-     */
-    private int convertGLFWKeyToJava(int glfwKey) {
-        switch (glfwKey) {
-            // 字母键
-            case GLFW.GLFW_KEY_A: return 65; // A
-            case GLFW.GLFW_KEY_B: return 66; // B
-            case GLFW.GLFW_KEY_C: return 67; // C
-            case GLFW.GLFW_KEY_D: return 68; // D
-            case GLFW.GLFW_KEY_E: return 69; // E
-            case GLFW.GLFW_KEY_F: return 70; // F
-            case GLFW.GLFW_KEY_G: return 71; // G
-            case GLFW.GLFW_KEY_H: return 72; // H
-            case GLFW.GLFW_KEY_I: return 73; // I
-            case GLFW.GLFW_KEY_J: return 74; // J
-            case GLFW.GLFW_KEY_K: return 75; // K
-            case GLFW.GLFW_KEY_L: return 76; // L
-            case GLFW.GLFW_KEY_M: return 77; // M
-            case GLFW.GLFW_KEY_N: return 78; // N
-            case GLFW.GLFW_KEY_O: return 79; // O
-            case GLFW.GLFW_KEY_P: return 80; // P
-            case GLFW.GLFW_KEY_Q: return 81; // Q
-            case GLFW.GLFW_KEY_R: return 82; // R
-            case GLFW.GLFW_KEY_S: return 83; // S
-            case GLFW.GLFW_KEY_T: return 84; // T
-            case GLFW.GLFW_KEY_U: return 85; // U
-            case GLFW.GLFW_KEY_V: return 86; // V
-            case GLFW.GLFW_KEY_W: return 87; // W
-            case GLFW.GLFW_KEY_X: return 88; // X
-            case GLFW.GLFW_KEY_Y: return 89; // Y
-            case GLFW.GLFW_KEY_Z: return 90; // Z
-            
-            // 数字键
-            case GLFW.GLFW_KEY_0: return 48; // 0
-            case GLFW.GLFW_KEY_1: return 49; // 1
-            case GLFW.GLFW_KEY_2: return 50; // 2
-            case GLFW.GLFW_KEY_3: return 51; // 3
-            case GLFW.GLFW_KEY_4: return 52; // 4
-            case GLFW.GLFW_KEY_5: return 53; // 5
-            case GLFW.GLFW_KEY_6: return 54; // 6
-            case GLFW.GLFW_KEY_7: return 55; // 7
-            case GLFW.GLFW_KEY_8: return 56; // 8
-            case GLFW.GLFW_KEY_9: return 57; // 9
-            
-            // 方向键
-            case GLFW.GLFW_KEY_UP: return 38;    // 上箭头
-            case GLFW.GLFW_KEY_DOWN: return 40;  // 下箭头
-            case GLFW.GLFW_KEY_LEFT: return 37;  // 左箭头
-            case GLFW.GLFW_KEY_RIGHT: return 39; // 右箭头
-            
-            // 功能键
-            case GLFW.GLFW_KEY_ENTER: return 10; // Enter
-            case GLFW.GLFW_KEY_SPACE: return 32; // Space
-            case GLFW.GLFW_KEY_ESCAPE: return 27; // ESC
-            
-            default: return glfwKey; // 其他键码保持不变
-        }
-    }
-    
     @Override
     public void cleanup() {
-        for (Integer textureId : charTextures.values()) {
-            if (textureId > 0) {
-                GL11.glDeleteTextures(textureId);
-            }
+        for (RetainedMesh mesh : compiledMeshes) {
+            GL11.glDeleteLists(mesh.compiledHandle, 1);
+            mesh.compiledHandle = 0;
+            mesh.compiledVersion = -1;
+        }
+        compiledMeshes.clear();
+        BitmapTextures.deleteAll(bitmaps);
+        if (textRenderer != null) {
+            textRenderer.cleanup();
+            glyphAtlas.cleanup();
         }
-        charTextures.clear();
         
         if (window != MemoryUtil.NULL) {
             GLFW.glfwDestroyWindow(window);
@@ -597,6 +508,17 @@ public class GPURenderer implements IRenderer {
         }
     }
     
+    @Override
+    public boolean setSwapInterval(int interval) {
+        if (!initialized) return false;
+        return GlfwSwap.setInterval(window, interval);
+    }
+    
+    @Override
+    public int getRefreshRate() {
+        return initialized ? GlfwSwap.refreshRate() : 0;
+    }
+    
     @Override
     public int getWidth() {
         return width;
@@ -0,0 +1,29 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.glfw.GLFWVidMode;
+
+/**
+ * GLFW 窗口后端共用的交换间隔与刷新率查询
+ */
+final class GlfwSwap {
+    private GlfwSwap() { }
+
+    /**
+     * 在窗口上下文中设置交换间隔；负值需要撕裂控制扩展，不支持时返回 false
+     */
+    static boolean setInterval(long window, int interval) {
+        GLFW.glfwMakeContextCurrent(window);
+        if (interval < 0 && !GLFW.glfwExtensionSupported("WGL_EXT_swap_control_tear")
+                && !GLFW.glfwExtensionSupported("GLX_EXT_swap_control_tear")) {
+            return false;
+        }
+        GLFW.glfwSwapInterval(interval);
+        return true;
+    }
+
+    static int refreshRate() {
+        GLFWVidMode vidmode = GLFW.glfwGetVideoMode(GLFW.glfwGetPrimaryMonitor());
+        return vidmode != null ? vidmode.refreshRate() : 0;
+    }
+}
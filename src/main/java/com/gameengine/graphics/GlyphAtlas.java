@@ -0,0 +1,300 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 字形图集
+ * 所有字形打包进若干张 PAGE_SIZE 的 alpha 纹理页，每个字形占一个定长格子（四周留 1 像素空隙）；
+ * 页满时新建一页，中文等大字符集按需增长。
+ * 缺失字形在虚拟线程上光栅化，主线程每帧开始时把结果拷进纹理页，不在绘制中途创建纹理。
+ * 固定管线用 GL_ALPHA 纹理，核心模式没有 GL_ALPHA，改用单通道 GL_R8 并把采样结果重排为 (1, 1, 1, r)；
+ * 不上传的图集（核心模式录制、软件光栅化）不做任何 GL 调用，字形拷进内存中的页，
+ * 用页号 + 1 代替纹理对象。
+ */
+class GlyphAtlas {
+    static final int PAGE_SIZE = 512;
+    // 单通道纹理按 alpha 纹理采样
+    static final int[] ALPHA_SWIZZLE = {GL11.GL_ONE, GL11.GL_ONE, GL11.GL_ONE, GL11.GL_RED};
+
+    private final Font font;
+    private final int internalFormat;
+    private final int pixelFormat;
+    private final boolean upload;
+    private final int fontSize;
+    private final int cellSize;
+    private final int cellsPerRow;
+    private final int cellsPerPage;
+    private final Map<Character, Glyph> glyphs;
+    private final List<Integer> pages;
+    private final List<byte[]> cpuPages;
+    private final Set<Character> requested;
+    private final ConcurrentLinkedQueue<Raster> ready;
+    private final ExecutorService executor;
+    private final ByteBuffer uploadBuffer;
+    private int nextCell;
+
+    /**
+     * 图集中的一个字形：纹理页与纹理坐标
+     */
+    static final class Glyph {
+        final int page;
+        final float u0, v0, u1, v1;
+
+        Glyph(int page, float u0, float v0, float u1, float v1) {
+            this.page = page;
+            this.u0 = u0;
+            this.v0 = v0;
+            this.u1 = u1;
+            this.v1 = v1;
+        }
+    }
+
+    /**
+     * 后台光栅化结果，等待主线程上传
+     */
+    private static final class Raster {
+        final char c;
+        final byte[] alpha;
+
+        Raster(char c, byte[] alpha) {
+            this.c = c;
+            this.alpha = alpha;
+        }
+    }
+
+    GlyphAtlas(Font font, int fontSize) {
+        this(font, fontSize, GL11.GL_ALPHA8, GL11.GL_ALPHA, true);
+    }
+
+    private GlyphAtlas(Font font, int fontSize, int internalFormat, int pixelFormat, boolean upload) {
+        this.font = font;
+        this.internalFormat = internalFormat;
+        this.pixelFormat = pixelFormat;
+        this.upload = upload;
+        this.fontSize = fontSize;
+        this.cellSize = fontSize + 2;
+        this.cellsPerRow = PAGE_SIZE / cellSize;
+        this.cellsPerPage = cellsPerRow * cellsPerRow;
+        this.glyphs = new HashMap<>();
+        this.pages = new ArrayList<>();
+        this.cpuPages = new ArrayList<>();
+        this.requested = ConcurrentHashMap.newKeySet();
+        this.ready = new ConcurrentLinkedQueue<>();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.uploadBuffer = BufferUtils.createByteBuffer(fontSize * fontSize);
+    }
+
+    /**
+     * 核心模式的单通道图集
+     */
+    static GlyphAtlas forCoreProfile(Font font, int fontSize) {
+        return new GlyphAtlas(font, fontSize, GL30.GL_R8, GL11.GL_RED, true);
+    }
+
+    /**
+     * 不上传纹理的图集，字形保存在内存页中
+     */
+    static GlyphAtlas withoutUpload(Font font, int fontSize) {
+        return new GlyphAtlas(font, fontSize, 0, 0, false);
+    }
+
+    /**
+     * 同步光栅化并上传（启动时用于 ASCII，必须在 GL 线程调用）
+     */
+    void preload(String chars) {
+        BufferedImage image = newImage();
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c != ' ' && !glyphs.containsKey(c) && requested.add(c)) {
+                place(c, rasterize(image, c));
+            }
+        }
+    }
+
+    /**
+     * 请求文本中缺失的字形，在后台线程光栅化；可在任意线程调用
+     */
+    void request(CharSequence text) {
+        StringBuilder missing = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != ' ' && requested.add(c)) {
+                if (missing == null) missing = new StringBuilder();
+                missing.append(c);
+            }
+        }
+        if (missing == null) return;
+        String chars = missing.toString();
+        executor.submit(() -> {
+            BufferedImage image = newImage();
+            for (int i = 0; i < chars.length(); i++) {
+                ready.add(new Raster(chars.charAt(i), rasterize(image, chars.charAt(i))));
+            }
+        });
+    }
+
+    /**
+     * 把后台完成的字形拷进纹理页，返回本次上传的字形数（GL 线程）
+     */
+    int uploadPending() {
+        int count = 0;
+        Raster raster;
+        while ((raster = ready.poll()) != null) {
+            place(raster.c, raster.alpha);
+            count++;
+        }
+        return count;
+    }
+
+    Glyph get(char c) {
+        return glyphs.get(c);
+    }
+
+    int getTexture(int page) {
+        return pages.get(page);
+    }
+
+    /**
+     * 不上传的图集中一页的 alpha 数据（PAGE_SIZE 见方，行主序）
+     */
+    byte[] getPagePixels(int page) {
+        return cpuPages.get(page);
+    }
+
+    int getPageCount() {
+        return pages.size();
+    }
+
+    int getGlyphCount() {
+        return glyphs.size();
+    }
+
+    void cleanup() {
+        executor.shutdownNow();
+        if (upload) {
+            for (int texture : pages) {
+                GL11.glDeleteTextures(texture);
+            }
+        }
+        pages.clear();
+        cpuPages.clear();
+        glyphs.clear();
+        requested.clear();
+        ready.clear();
+    }
+
+    /**
+     * 分配下一个格子并上传，当前页已满时新建一页
+     */
+    private void place(char c, byte[] alpha) {
+        int page = nextCell / cellsPerPage;
+        int slot = nextCell % cellsPerPage;
+        if (page == pages.size()) {
+            int texture = createPage();
+            if (texture <= 0) {
+                requested.remove(c);
+                return;
+            }
+            pages.add(texture);
+        }
+        nextCell++;
+        int x = (slot % cellsPerRow) * cellSize + 1;
+        int y = (slot / cellsPerRow) * cellSize + 1;
+
+        if (upload) {
+            uploadBuffer.clear();
+            uploadBuffer.put(alpha).flip();
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, pages.get(page));
+            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, fontSize, fontSize, pixelFormat, GL11.GL_UNSIGNED_BYTE, uploadBuffer);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        } else {
+            byte[] pixels = cpuPages.get(page);
+            for (int row = 0; row < fontSize; row++) {
+                System.arraycopy(alpha, row * fontSize, pixels, (y + row) * PAGE_SIZE + x, fontSize);
+            }
+        }
+
+        float scale = 1.0f / PAGE_SIZE;
+        glyphs.put(c, new Glyph(page, x * scale, y * scale, (x + fontSize) * scale, (y + fontSize) * scale));
+    }
+
+    private int createPage() {
+        if (!upload) {
+            cpuPages.add(new byte[PAGE_SIZE * PAGE_SIZE]);
+            return pages.size() + 1;
+        }
+        int texture = GL11.glGenTextures();
+        if (texture <= 0) {
+            System.err.println("创建字形图集纹理页失败: 0x" + Integer.toHexString(GL11.glGetError()));
+            return 0;
+        }
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        if (internalFormat == GL30.GL_R8) {
+            GL11.glTexParameteriv(GL11.GL_TEXTURE_2D, GL33.GL_TEXTURE_SWIZZLE_RGBA, ALPHA_SWIZZLE);
+        }
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, internalFormat, PAGE_SIZE, PAGE_SIZE, 0,
+                pixelFormat, GL11.GL_UNSIGNED_BYTE, BufferUtils.createByteBuffer(PAGE_SIZE * PAGE_SIZE));
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        System.out.println("字形图集新建纹理页 #" + pages.size() + " (" + glyphs.size() + " 个字形)");
+        return texture;
+    }
+
+    private BufferedImage newImage() {
+        return new BufferedImage(fontSize, fontSize, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * 字形居中绘制到 fontSize 见方的格子里，只保留 alpha
+     */
+    private byte[] rasterize(BufferedImage image, char c) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setComposite(AlphaComposite.Clear);
+        g2d.fillRect(0, 0, fontSize, fontSize);
+
+        g2d.setComposite(AlphaComposite.SrcOver);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(font);
+        FontMetrics fm = g2d.getFontMetrics();
+        int x = (fontSize - fm.charWidth(c)) / 2;
+        int y = (fontSize - fm.getHeight()) / 2 + fm.getAscent();
+        g2d.drawString(String.valueOf(c), x, y);
+        g2d.dispose();
+
+        int[] pixels = new int[fontSize * fontSize];
+        image.getRGB(0, 0, fontSize, fontSize, pixels, 0, fontSize);
+        byte[] alpha = new byte[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            alpha[i] = (byte) (pixels[i] >>> 24);
+        }
+        return alpha;
+    }
+}
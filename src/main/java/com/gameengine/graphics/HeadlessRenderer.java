@@ -0,0 +1,199 @@
+package com.gameengine.graphics;
+
+/**
+ * 无窗口渲染器，不做任何 GL 调用，只统计每帧的图元与绘制调用
+ * 绘制调用按 GPURenderer 的合批规则计数：矩形、线段各一次，连续的圆、连续的文字各合成一批，
+ * 保留几何、位图各一次。设置上限后，endFrame 发现超出即抛出异常，用于测试中断言绘制调用数。
+ */
+public class HeadlessRenderer implements IRenderer {
+    private static final int BATCH_NONE = 0;
+    private static final int BATCH_CIRCLES = 1;
+    private static final int BATCH_TEXT = 2;
+
+    private final int width;
+    private final int height;
+    private final String title;
+    private int drawCallLimit;
+    private long maxFrames;
+    private long frameCount;
+
+    private int batch;
+    private int drawCalls;
+    private int rects;
+    private int circles;
+    private int lines;
+    private int texts;
+    private int meshes;
+    private int bitmaps;
+
+    private int lastDrawCalls;
+    private int lastRects;
+    private int lastCircles;
+    private int lastLines;
+    private int lastTexts;
+    private int lastMeshes;
+    private int lastBitmaps;
+
+    public HeadlessRenderer(int width, int height, String title) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+    }
+
+    /**
+     * 每帧绘制调用上限，0 表示不检查
+     */
+    public void setDrawCallLimit(int limit) {
+        this.drawCallLimit = limit;
+    }
+
+    /**
+     * 运行指定帧数后 shouldClose 返回 true，0 表示不限制
+     */
+    public void setMaxFrames(long frames) {
+        this.maxFrames = frames;
+    }
+
+    @Override
+    public void beginFrame() {
+        batch = BATCH_NONE;
+        drawCalls = 0;
+        rects = 0;
+        circles = 0;
+        lines = 0;
+        texts = 0;
+        meshes = 0;
+        bitmaps = 0;
+    }
+
+    @Override
+    public void endFrame() {
+        flushBatch();
+        lastDrawCalls = drawCalls;
+        lastRects = rects;
+        lastCircles = circles;
+        lastLines = lines;
+        lastTexts = texts;
+        lastMeshes = meshes;
+        lastBitmaps = bitmaps;
+        frameCount++;
+        if (drawCallLimit > 0 && drawCalls > drawCallLimit) {
+            throw new IllegalStateException("第 " + frameCount + " 帧绘制调用 " + drawCalls + " 次，超过上限 " + drawCallLimit);
+        }
+    }
+
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        flushBatch();
+        drawCalls++;
+        rects++;
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        joinBatch(BATCH_CIRCLES);
+        circles++;
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        flushBatch();
+        drawCalls++;
+        lines++;
+    }
+
+    @Override
+    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
+        if (text == null || text.isEmpty()) return;
+        joinBatch(BATCH_TEXT);
+        texts++;
+    }
+
+    @Override
+    public void drawMesh(RetainedMesh mesh) {
+        flushBatch();
+        drawCalls++;
+        meshes++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float x, float y, float width, float height) {
+        flushBatch();
+        drawCalls++;
+        bitmaps++;
+    }
+
+    private void joinBatch(int kind) {
+        if (batch != kind) {
+            flushBatch();
+            batch = kind;
+        }
+    }
+
+    private void flushBatch() {
+        if (batch != BATCH_NONE) {
+            drawCalls++;
+            batch = BATCH_NONE;
+        }
+    }
+
+    public int getLastFrameDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    public int getLastFrameRects() {
+        return lastRects;
+    }
+
+    public int getLastFrameCircles() {
+        return lastCircles;
+    }
+
+    public int getLastFrameLines() {
+        return lastLines;
+    }
+
+    public int getLastFrameTexts() {
+        return lastTexts;
+    }
+
+    public int getLastFrameMeshes() {
+        return lastMeshes;
+    }
+
+    public int getLastFrameBitmaps() {
+        return lastBitmaps;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return maxFrames > 0 && frameCount >= maxFrames;
+    }
+
+    @Override
+    public void pollEvents() {
+    }
+
+    @Override
+    public void cleanup() {
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+}
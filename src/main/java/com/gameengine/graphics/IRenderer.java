@@ -1,6 +1,12 @@
 package com.gameengine.graphics;
 
 public interface IRenderer {
+    // 绘制层，数值越大越靠上；不排序的后端按提交顺序绘制
+    int LAYER_BACKGROUND = 0;
+    int LAYER_WORLD = 1;
+    int LAYER_UI = 2;
+    int LAYER_OVERLAY = 3;
+    
     void beginFrame();
     void endFrame();
     
@@ -9,6 +15,57 @@ public interface IRenderer {
     void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a);
     void drawText(float x, float y, String text, float r, float g, float b, float a);
     
+    /**
+     * 提前准备文本用到的字形（如中文菜单），默认不做处理
+     */
+    default void prefetchText(String text) {
+    }
+    
+    /**
+     * 设置之后提交的图元所在的层，默认忽略
+     */
+    default void setLayer(int layer) {
+    }
+    
+    /**
+     * 设置层内的绘制顺序号（通常是对象在场景中的序号），序号大的画在上面；切换层时归零，默认忽略
+     */
+    default void setOrder(int order) {
+    }
+    
+    /**
+     * 设置世界层的可见区域，完全落在区域外的图元可被剔除；默认忽略
+     */
+    default void setCullRect(float x, float y, float width, float height) {
+    }
+    
+    /**
+     * 绘制保留模式几何，默认逐条回放
+     */
+    default void drawMesh(RetainedMesh mesh) {
+        mesh.replay(this);
+    }
+    
+    /**
+     * 把位图缩放绘制到指定矩形，不支持位图的后端忽略
+     */
+    default void drawBitmap(Bitmap bitmap, float x, float y, float width, float height) {
+    }
+    
+    /**
+     * 设置交换间隔：1 等待垂直同步，0 立即交换，-1 自适应（错过同步时立即交换）；返回后端是否接受
+     */
+    default boolean setSwapInterval(int interval) {
+        return false;
+    }
+    
+    /**
+     * 显示器刷新率（Hz），未知时为 0
+     */
+    default int getRefreshRate() {
+        return 0;
+    }
+    
     boolean shouldClose();
     void pollEvents();
     void cleanup();
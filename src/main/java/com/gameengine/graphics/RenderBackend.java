@@ -1,6 +1,9 @@
 package com.gameengine.graphics;
 
 public enum RenderBackend {
-    GPU
+    GPU,
+    GL33,
+    GL33_RECORDING,
+    SOFTWARE,
+    HEADLESS
 }
-
@@ -0,0 +1,313 @@
+package com.gameengine.graphics;
+
+import java.util.Arrays;
+
+/**
+ * 渲染命令队列
+ * 包装真正的后端：绘制调用只记录成命令和一个 64 位排序键，endFrame 时按键做基数排序后统一交给后端执行。
+ * 排序键从高到低：层 | 顺序号 | 是否带纹理 | 图元类型 | 提交序号。
+ * 顺序号由场景按对象设置，不同对象之间保持提交顺序（后创建的对象画在上面）；
+ * 同一对象（同一顺序号）内相同状态的图元排在一起，相邻对象的同状态图元在后端照常合成一批。
+ * 世界层的矩形、圆、线段、位图在提交时按包围盒与裁剪矩形做剔除，完全不可见的不进入队列；
+ * 裁剪矩形每帧重置为整个视口，场景可在绘制前收窄到游戏区域（例如扣掉右侧 UI 面板）。
+ */
+public class RenderQueue implements IRenderer {
+    static final int PRIM_RECT = 0;
+    static final int PRIM_CIRCLE = 1;
+    static final int PRIM_LINE = 2;
+    static final int PRIM_TEXT = 3;
+    static final int PRIM_MESH = 4;
+    static final int PRIM_BITMAP = 5;
+
+    private static final int SEQ_BITS = 24;
+    private static final long SEQ_MASK = (1L << SEQ_BITS) - 1;
+    private static final int PRIM_SHIFT = SEQ_BITS;
+    private static final int TEXTURED_SHIFT = PRIM_SHIFT + 3;
+    private static final int ORDER_SHIFT = TEXTURED_SHIFT + 1;
+    private static final int ORDER_BITS = 20;
+    private static final int ORDER_MAX = (1 << ORDER_BITS) - 1;
+    private static final int LAYER_SHIFT = ORDER_SHIFT + ORDER_BITS;
+    // 每条命令：x, y, w/半径/x2, h/y2, r, g, b, a
+    private static final int PARAM_FLOATS = 8;
+
+    private final IRenderer backend;
+    private int layer;
+    private int order;
+    private int count;
+    private long[] keys;
+    private long[] scratch;
+    private float[] params;
+    private int[] segments;
+    private Object[] refs;
+    private final int[] histogram;
+    private float cullMinX, cullMinY, cullMaxX, cullMaxY;
+    private int culled;
+    private int lastSubmitted;
+    private int lastCulled;
+
+    public RenderQueue(IRenderer backend) {
+        this.backend = backend;
+        this.keys = new long[1024];
+        this.scratch = new long[1024];
+        this.params = new float[1024 * PARAM_FLOATS];
+        this.segments = new int[1024];
+        this.refs = new Object[1024];
+        this.histogram = new int[256];
+    }
+
+    public IRenderer getBackend() {
+        return backend;
+    }
+
+    @Override
+    public void setLayer(int layer) {
+        this.layer = Math.max(0, Math.min(15, layer));
+        this.order = 0;
+    }
+
+    /**
+     * 超出范围的顺序号按最大值处理，这些对象之间退化为按状态分组
+     */
+    @Override
+    public void setOrder(int order) {
+        this.order = Math.max(0, Math.min(ORDER_MAX, order));
+    }
+
+    @Override
+    public void setCullRect(float x, float y, float width, float height) {
+        cullMinX = x;
+        cullMinY = y;
+        cullMaxX = x + width;
+        cullMaxY = y + height;
+    }
+
+    /**
+     * 本帧已提交的命令数
+     */
+    public int getCommandCount() {
+        return count;
+    }
+
+    /**
+     * 本帧被剔除的命令数
+     */
+    public int getCulledCount() {
+        return culled;
+    }
+
+    /**
+     * 上一帧交给后端的命令数
+     */
+    public int getLastSubmittedCount() {
+        return lastSubmitted;
+    }
+
+    /**
+     * 上一帧被剔除的命令数
+     */
+    public int getLastCulledCount() {
+        return lastCulled;
+    }
+
+    @Override
+    public void beginFrame() {
+        count = 0;
+        culled = 0;
+        layer = LAYER_BACKGROUND;
+        order = 0;
+        setCullRect(0, 0, backend.getWidth(), backend.getHeight());
+        backend.beginFrame();
+    }
+
+    @Override
+    public void endFrame() {
+        execute();
+        lastSubmitted = count;
+        lastCulled = culled;
+        backend.endFrame();
+    }
+
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        if (isCulled(x, y, x + width, y + height)) return;
+        submit(PRIM_RECT, false, x, y, width, height, r, g, b, a, 0, null);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (isCulled(x - radius, y - radius, x + radius, y + radius)) return;
+        submit(PRIM_CIRCLE, false, x, y, radius, 0, r, g, b, a, segments, null);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        if (isCulled(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2))) return;
+        submit(PRIM_LINE, false, x1, y1, x2, y2, r, g, b, a, 0, null);
+    }
+
+    @Override
+    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
+        if (text == null || text.isEmpty()) return;
+        submit(PRIM_TEXT, true, x, y, 0, 0, r, g, b, a, 0, text);
+    }
+
+    @Override
+    public void drawMesh(RetainedMesh mesh) {
+        submit(PRIM_MESH, true, 0, 0, 0, 0, 0, 0, 0, 0, 0, mesh);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float x, float y, float width, float height) {
+        if (isCulled(x, y, x + width, y + height)) return;
+        submit(PRIM_BITMAP, true, x, y, width, height, 0, 0, 0, 0, 0, bitmap);
+    }
+
+    @Override
+    public void prefetchText(String text) {
+        backend.prefetchText(text);
+    }
+
+    /**
+     * 只剔除世界层：背景、UI 与覆盖层本来就按屏幕坐标布局，文字和预构建几何没有廉价的包围盒，不参与剔除
+     */
+    private boolean isCulled(float minX, float minY, float maxX, float maxY) {
+        if (layer != LAYER_WORLD) return false;
+        if (maxX < cullMinX || minX > cullMaxX || maxY < cullMinY || minY > cullMaxY) {
+            culled++;
+            return true;
+        }
+        return false;
+    }
+
+    private void submit(int prim, boolean textured, float p0, float p1, float p2, float p3,
+                        float r, float g, float b, float a, int segs, Object ref) {
+        if (count > SEQ_MASK) return;
+        if (count == keys.length) {
+            grow();
+        }
+        int i = count++;
+        keys[i] = ((long) layer << LAYER_SHIFT) | ((long) order << ORDER_SHIFT) | ((textured ? 1L : 0L) << TEXTURED_SHIFT)
+                | ((long) prim << PRIM_SHIFT) | i;
+        int o = i * PARAM_FLOATS;
+        params[o] = p0;
+        params[o + 1] = p1;
+        params[o + 2] = p2;
+        params[o + 3] = p3;
+        params[o + 4] = r;
+        params[o + 5] = g;
+        params[o + 6] = b;
+        params[o + 7] = a;
+        segments[i] = segs;
+        refs[i] = ref;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        scratch = new long[capacity];
+        params = Arrays.copyOf(params, capacity * PARAM_FLOATS);
+        segments = Arrays.copyOf(segments, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+    }
+
+    /**
+     * 排序后按顺序交给后端，并释放文本与几何引用
+     */
+    private void execute() {
+        sortKeys();
+        for (int k = 0; k < count; k++) {
+            long key = keys[k];
+            int i = (int) (key & SEQ_MASK);
+            int prim = (int) ((key >>> PRIM_SHIFT) & 7);
+            int o = i * PARAM_FLOATS;
+            switch (prim) {
+                case PRIM_RECT -> backend.drawRect(params[o], params[o + 1], params[o + 2], params[o + 3],
+                        params[o + 4], params[o + 5], params[o + 6], params[o + 7]);
+                case PRIM_CIRCLE -> backend.drawCircle(params[o], params[o + 1], params[o + 2], segments[i],
+                        params[o + 4], params[o + 5], params[o + 6], params[o + 7]);
+                case PRIM_LINE -> backend.drawLine(params[o], params[o + 1], params[o + 2], params[o + 3],
+                        params[o + 4], params[o + 5], params[o + 6], params[o + 7]);
+                case PRIM_TEXT -> backend.drawText(params[o], params[o + 1], (String) refs[i],
+                        params[o + 4], params[o + 5], params[o + 6], params[o + 7]);
+                case PRIM_MESH -> backend.drawMesh((RetainedMesh) refs[i]);
+                case PRIM_BITMAP -> backend.drawBitmap((Bitmap) refs[i], params[o], params[o + 1], params[o + 2], params[o + 3]);
+                default -> { }
+            }
+        }
+        Arrays.fill(refs, 0, count, null);
+    }
+
+    /**
+     * LSD 基数排序，每趟 8 位；所有键在某一字节上相同时跳过该趟（序号高位、顺序号高位、层位通常如此）
+     */
+    private void sortKeys() {
+        if (count < 2) return;
+        long[] src = keys;
+        long[] dst = scratch;
+        int keyBits = LAYER_SHIFT + 4;
+        for (int shift = 0; shift < keyBits; shift += 8) {
+            Arrays.fill(histogram, 0);
+            for (int i = 0; i < count; i++) {
+                histogram[(int) ((src[i] >>> shift) & 0xFF)]++;
+            }
+            if (histogram[(int) ((src[0] >>> shift) & 0xFF)] == count) {
+                continue;
+            }
+            int sum = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = histogram[d];
+                histogram[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) {
+                long key = src[i];
+                dst[histogram[(int) ((key >>> shift) & 0xFF)]++] = key;
+            }
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        keys = src;
+        scratch = dst;
+    }
+
+    @Override
+    public boolean setSwapInterval(int interval) {
+        return backend.setSwapInterval(interval);
+    }
+
+    @Override
+    public int getRefreshRate() {
+        return backend.getRefreshRate();
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return backend.shouldClose();
+    }
+
+    @Override
+    public void pollEvents() {
+        backend.pollEvents();
+    }
+
+    @Override
+    public void cleanup() {
+        backend.cleanup();
+    }
+
+    @Override
+    public int getWidth() {
+        return backend.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return backend.getHeight();
+    }
+
+    @Override
+    public String getTitle() {
+        return backend.getTitle();
+    }
+}
@@ -5,6 +5,24 @@ public class RendererFactory {
         if (backend == RenderBackend.GPU) {
             return new GPURenderer(width, height, title);
         }
+        if (backend == RenderBackend.GL33) {
+            try {
+                return new GLCoreRenderer(width, height, title);
+            } catch (RuntimeException e) {
+                // 驱动不支持 3.3 核心模式时回退到固定管线
+                System.err.println(e.getMessage() + "，回退到GPU渲染器");
+                return new GPURenderer(width, height, title);
+            }
+        }
+        if (backend == RenderBackend.GL33_RECORDING) {
+            return GLCoreRenderer.recording(width, height, title);
+        }
+        if (backend == RenderBackend.SOFTWARE) {
+            return new SoftwareRenderer(width, height, title);
+        }
+        if (backend == RenderBackend.HEADLESS) {
+            return new HeadlessRenderer(width, height, title);
+        }
         throw new IllegalArgumentException("不支持的渲染后端: " + backend);
     }
 }
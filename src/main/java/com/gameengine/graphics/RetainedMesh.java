@@ -0,0 +1,130 @@
+package com.gameengine.graphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 保留模式的 UI 几何
+ * 调用方只在内容变化时 begin 并重新记录矩形、圆和文字，每帧用 IRenderer.drawMesh 绘制；
+ * 渲染器可以把它编译成预构建的 GPU 对象（GPURenderer 用显示列表），版本号变化时才重建。
+ * 绘制顺序：全部图形按记录顺序绘制，文字统一绘制在图形之上。
+ */
+public class RetainedMesh {
+    static final int RECT = 0;
+    static final int CIRCLE = 1;
+    // 每条图形命令：类型, x, y, w/半径, h/分段数, r, g, b, a
+    static final int SHAPE_FLOATS = 9;
+    // 每条文字命令：x, y, r, g, b, a（文本另存）
+    static final int TEXT_FLOATS = 6;
+
+    private float[] shapes;
+    private int shapeCount;
+    private float[] textParams;
+    private final List<String> texts;
+    private int version;
+
+    // 渲染器持有的编译结果
+    int compiledHandle;
+    int compiledVersion = -1;
+    boolean compiledComplete;
+
+    public RetainedMesh() {
+        this.shapes = new float[SHAPE_FLOATS * 32];
+        this.textParams = new float[TEXT_FLOATS * 8];
+        this.texts = new ArrayList<>();
+    }
+
+    /**
+     * 清空并开始重新记录，版本号加一
+     */
+    public void begin() {
+        shapeCount = 0;
+        texts.clear();
+        version++;
+    }
+
+    public void rect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        addShape(RECT, x, y, width, height, r, g, b, a);
+    }
+
+    public void circle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        addShape(CIRCLE, x, y, radius, segments, r, g, b, a);
+    }
+
+    public void text(float x, float y, String text, float r, float g, float b, float a) {
+        int i = texts.size() * TEXT_FLOATS;
+        if (i + TEXT_FLOATS > textParams.length) {
+            textParams = Arrays.copyOf(textParams, textParams.length * 2);
+        }
+        textParams[i] = x;
+        textParams[i + 1] = y;
+        textParams[i + 2] = r;
+        textParams[i + 3] = g;
+        textParams[i + 4] = b;
+        textParams[i + 5] = a;
+        texts.add(text);
+    }
+
+    /**
+     * 逐条回放到渲染器，不支持预构建的后端用它作为 drawMesh 的默认实现
+     */
+    public void replay(IRenderer renderer) {
+        for (int i = 0; i < shapeCount; i++) {
+            int o = i * SHAPE_FLOATS;
+            if ((int) shapes[o] == RECT) {
+                renderer.drawRect(shapes[o + 1], shapes[o + 2], shapes[o + 3], shapes[o + 4],
+                        shapes[o + 5], shapes[o + 6], shapes[o + 7], shapes[o + 8]);
+            } else {
+                renderer.drawCircle(shapes[o + 1], shapes[o + 2], shapes[o + 3], (int) shapes[o + 4],
+                        shapes[o + 5], shapes[o + 6], shapes[o + 7], shapes[o + 8]);
+            }
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            int o = i * TEXT_FLOATS;
+            renderer.drawText(textParams[o], textParams[o + 1], texts.get(i),
+                    textParams[o + 2], textParams[o + 3], textParams[o + 4], textParams[o + 5]);
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    int getShapeCount() {
+        return shapeCount;
+    }
+
+    float[] getShapes() {
+        return shapes;
+    }
+
+    int getTextCount() {
+        return texts.size();
+    }
+
+    String getText(int index) {
+        return texts.get(index);
+    }
+
+    float[] getTextParams() {
+        return textParams;
+    }
+
+    private void addShape(int type, float x, float y, float w, float h, float r, float g, float b, float a) {
+        int o = shapeCount * SHAPE_FLOATS;
+        if (o + SHAPE_FLOATS > shapes.length) {
+            shapes = Arrays.copyOf(shapes, shapes.length * 2);
+        }
+        shapes[o] = type;
+        shapes[o + 1] = x;
+        shapes[o + 2] = y;
+        shapes[o + 3] = w;
+        shapes[o + 4] = h;
+        shapes[o + 5] = r;
+        shapes[o + 6] = g;
+        shapes[o + 7] = b;
+        shapes[o + 8] = a;
+        shapeCount++;
+    }
+}
@@ -0,0 +1,526 @@
+package com.gameengine.graphics;
+
+import javax.imageio.ImageIO;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 纯 Java 软件光栅化渲染器，输出到 int[] ARGB 帧缓冲
+ * 绘制调用只记录命令，并按包围盒分到 TILE_SIZE 见方的图块；endFrame 时工作线程按图块领取任务，
+ * 每个图块按提交顺序光栅化落在其中的命令并裁剪到图块内，图块互不重叠，无需加锁，结果与线程数无关。
+ * 采样取像素中心，不做抗锯齿；文字使用内存字形图集（ASCII 启动时同步载入）。
+ * 没有 GPU 的构建机上可以把帧写成 PNG 与基准图比对，也可用作录像缩略图的离屏渲染器。
+ */
+public class SoftwareRenderer implements IRenderer {
+    static final int TILE_SIZE = 64;
+    private static final float LINE_HALF_WIDTH = 1.25f;
+    private static final int CLEAR_COLOR = 0xFF333333;
+    private static final int FONT_SIZE = 32;
+    private static final String PRELOAD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+-=[]{}|;:,.<>?/~` ";
+
+    private static final int CMD_RECT = 0;
+    private static final int CMD_CIRCLE = 1;
+    private static final int CMD_LINE = 2;
+    private static final int CMD_GLYPH = 3;
+    private static final int CMD_BITMAP = 4;
+    // 每条命令：矩形/位图 x0, y0, x1, y1；圆 cx, cy, r；线段 x1, y1, x2, y2；字形 x0, y0, x1, y1, u0, v0, u1, v1
+    private static final int PARAM_FLOATS = 8;
+
+    private final int width;
+    private final int height;
+    private final String title;
+    private final int[] pixels;
+    private final int tilesX;
+    private final int tilesY;
+    private final GlyphAtlas glyphAtlas;
+    private final TextRenderer textRenderer;
+    private final ExecutorService executor;
+    private final int threadCount;
+
+    private int count;
+    private int[] types;
+    private int[] colors;
+    private int[] pages;
+    private float[] params;
+    private Bitmap[] bitmaps;
+    private final int[][] bins;
+    private final int[] binSizes;
+
+    private long frameCount;
+    private long lastRasterNanos;
+    private int lastCommandCount;
+
+    public SoftwareRenderer(int width, int height, String title) {
+        this(width, height, title, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SoftwareRenderer(int width, int height, String title, int threads) {
+        System.setProperty("java.awt.headless", "true");
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.pixels = new int[width * height];
+        this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.bins = new int[tilesX * tilesY][16];
+        this.binSizes = new int[tilesX * tilesY];
+        this.types = new int[1024];
+        this.colors = new int[1024];
+        this.pages = new int[1024];
+        this.params = new float[1024 * PARAM_FLOATS];
+        this.bitmaps = new Bitmap[1024];
+
+        this.glyphAtlas = GlyphAtlas.withoutUpload(new Font(Font.MONOSPACED, Font.BOLD, FONT_SIZE), FONT_SIZE);
+        glyphAtlas.preload(PRELOAD_CHARS);
+        this.textRenderer = new TextRenderer(glyphAtlas, FONT_SIZE);
+
+        this.threadCount = Math.max(1, threads);
+        this.executor = threadCount > 1 ? Executors.newFixedThreadPool(threadCount, r -> {
+            Thread t = new Thread(r, "software-raster");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        Arrays.fill(pixels, CLEAR_COLOR);
+    }
+
+    @Override
+    public void beginFrame() {
+        Arrays.fill(bitmaps, 0, count, null);
+        count = 0;
+        Arrays.fill(binSizes, 0);
+        textRenderer.beginFrame();
+    }
+
+    @Override
+    public void endFrame() {
+        textRenderer.drain(this::addGlyphs);
+        long start = System.nanoTime();
+        rasterize();
+        lastRasterNanos = System.nanoTime() - start;
+        lastCommandCount = count;
+        frameCount++;
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
+        textRenderer.drain(this::addGlyphs);
+        int i = add(CMD_RECT, pack(r, g, b, a), 0);
+        if (i < 0) return;
+        setParams(i, x, y, x + w, y + h);
+        bin(i, x, y, x + w, y + h);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (radius <= 0) return;
+        textRenderer.drain(this::addGlyphs);
+        int i = add(CMD_CIRCLE, pack(r, g, b, a), 0);
+        if (i < 0) return;
+        setParams(i, x, y, radius, 0);
+        bin(i, x - radius, y - radius, x + radius, y + radius);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        textRenderer.drain(this::addGlyphs);
+        int i = add(CMD_LINE, pack(r, g, b, a), 0);
+        if (i < 0) return;
+        setParams(i, x1, y1, x2, y2);
+        bin(i, Math.min(x1, x2) - LINE_HALF_WIDTH, Math.min(y1, y2) - LINE_HALF_WIDTH,
+                Math.max(x1, x2) + LINE_HALF_WIDTH, Math.max(y1, y2) + LINE_HALF_WIDTH);
+    }
+
+    /**
+     * 文字按页攒批，遇到其他图元或帧结束时展开成字形命令，保持绘制顺序
+     */
+    @Override
+    public void drawText(float x, float y, String text, float r, float g, float b, float a) {
+        if (text == null || text.isEmpty()) return;
+        textRenderer.draw(x, y, text, r, g, b, a);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float x, float y, float w, float h) {
+        if (bitmap.isReleased() || w <= 0 || h <= 0) return;
+        textRenderer.drain(this::addGlyphs);
+        int i = add(CMD_BITMAP, 0xFFFFFFFF, 0);
+        setParams(i, x, y, x + w, y + h);
+        bitmaps[i] = bitmap;
+        bin(i, x, y, x + w, y + h);
+    }
+
+    @Override
+    public void prefetchText(String text) {
+        if (text != null) {
+            glyphAtlas.request(text);
+        }
+    }
+
+    /**
+     * 同步载入文本用到的字形，比对基准图前调用可保证第一帧就有完整文字
+     */
+    public void preloadText(String text) {
+        glyphAtlas.preload(text);
+    }
+
+    /**
+     * 接收 TextRenderer 的一页四边形（纹理号为页号 + 1），每个字形一条命令，颜色取首个顶点
+     */
+    private void addGlyphs(int texture, float[] quads, int size) {
+        int quadFloats = TextRenderer.VERTEX_FLOATS * 4;
+        for (int o = 0; o + quadFloats <= size; o += quadFloats) {
+            int v2 = o + TextRenderer.VERTEX_FLOATS * 2;
+            float x0 = quads[o], y0 = quads[o + 1], x1 = quads[v2], y1 = quads[v2 + 1];
+            int i = add(CMD_GLYPH, pack(quads[o + 4], quads[o + 5], quads[o + 6], quads[o + 7]), texture - 1);
+            if (i < 0) return;
+            int p = i * PARAM_FLOATS;
+            params[p] = x0;
+            params[p + 1] = y0;
+            params[p + 2] = x1;
+            params[p + 3] = y1;
+            params[p + 4] = quads[o + 2];
+            params[p + 5] = quads[o + 3];
+            params[p + 6] = quads[v2 + 2];
+            params[p + 7] = quads[v2 + 3];
+            bin(i, x0, y0, x1, y1);
+        }
+    }
+
+    /**
+     * 追加一条命令，完全透明时返回 -1
+     */
+    private int add(int type, int color, int page) {
+        if ((color >>> 24) == 0) return -1;
+        if (count == types.length) {
+            int capacity = count * 2;
+            types = Arrays.copyOf(types, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            pages = Arrays.copyOf(pages, capacity);
+            params = Arrays.copyOf(params, capacity * PARAM_FLOATS);
+            bitmaps = Arrays.copyOf(bitmaps, capacity);
+        }
+        types[count] = type;
+        colors[count] = color;
+        pages[count] = page;
+        return count++;
+    }
+
+    private void setParams(int i, float p0, float p1, float p2, float p3) {
+        int p = i * PARAM_FLOATS;
+        params[p] = p0;
+        params[p + 1] = p1;
+        params[p + 2] = p2;
+        params[p + 3] = p3;
+    }
+
+    /**
+     * 把命令加入包围盒覆盖到的每个图块
+     */
+    private void bin(int cmd, float minX, float minY, float maxX, float maxY) {
+        int tx0 = Math.max(0, (int) Math.floor(minX) / TILE_SIZE);
+        int ty0 = Math.max(0, (int) Math.floor(minY) / TILE_SIZE);
+        int tx1 = Math.min(tilesX - 1, (int) Math.floor(maxX) / TILE_SIZE);
+        int ty1 = Math.min(tilesY - 1, (int) Math.floor(maxY) / TILE_SIZE);
+        if (maxX < 0 || maxY < 0) return;
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                int tile = ty * tilesX + tx;
+                int n = binSizes[tile];
+                if (n == bins[tile].length) {
+                    bins[tile] = Arrays.copyOf(bins[tile], n * 2);
+                }
+                bins[tile][n] = cmd;
+                binSizes[tile] = n + 1;
+            }
+        }
+    }
+
+    /**
+     * 工作线程按序领取图块，直到全部完成
+     */
+    private void rasterize() {
+        int tileCount = tilesX * tilesY;
+        if (executor == null) {
+            for (int tile = 0; tile < tileCount; tile++) {
+                rasterizeTile(tile);
+            }
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            futures.add(executor.submit(() -> {
+                int tile;
+                while ((tile = next.getAndIncrement()) < tileCount) {
+                    rasterizeTile(tile);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("软件光栅化失败: " + e.getCause());
+            }
+        }
+    }
+
+    private void rasterizeTile(int tile) {
+        int x0 = (tile % tilesX) * TILE_SIZE;
+        int y0 = (tile / tilesX) * TILE_SIZE;
+        int x1 = Math.min(width, x0 + TILE_SIZE);
+        int y1 = Math.min(height, y0 + TILE_SIZE);
+        for (int y = y0; y < y1; y++) {
+            Arrays.fill(pixels, y * width + x0, y * width + x1, CLEAR_COLOR);
+        }
+        int[] bin = bins[tile];
+        for (int k = 0, n = binSizes[tile]; k < n; k++) {
+            int cmd = bin[k];
+            int p = cmd * PARAM_FLOATS;
+            switch (types[cmd]) {
+                case CMD_RECT -> fillRect(x0, y0, x1, y1, p, colors[cmd]);
+                case CMD_CIRCLE -> fillCircle(x0, y0, x1, y1, p, colors[cmd]);
+                case CMD_LINE -> fillLine(x0, y0, x1, y1, p, colors[cmd]);
+                case CMD_GLYPH -> fillGlyph(x0, y0, x1, y1, p, colors[cmd], pages[cmd]);
+                case CMD_BITMAP -> fillBitmap(x0, y0, x1, y1, p, bitmaps[cmd]);
+                default -> { }
+            }
+        }
+    }
+
+    private void fillRect(int tx0, int ty0, int tx1, int ty1, int p, int color) {
+        int ix0 = Math.max(tx0, pixelStart(params[p]));
+        int iy0 = Math.max(ty0, pixelStart(params[p + 1]));
+        int ix1 = Math.min(tx1, pixelStart(params[p + 2]));
+        int iy1 = Math.min(ty1, pixelStart(params[p + 3]));
+        int alpha = color >>> 24;
+        for (int y = iy0; y < iy1; y++) {
+            int row = y * width;
+            for (int x = ix0; x < ix1; x++) {
+                pixels[row + x] = blend(pixels[row + x], color, alpha);
+            }
+        }
+    }
+
+    private void fillCircle(int tx0, int ty0, int tx1, int ty1, int p, int color) {
+        float cx = params[p], cy = params[p + 1], radius = params[p + 2];
+        float r2 = radius * radius;
+        int ix0 = Math.max(tx0, pixelStart(cx - radius));
+        int iy0 = Math.max(ty0, pixelStart(cy - radius));
+        int ix1 = Math.min(tx1, pixelStart(cx + radius));
+        int iy1 = Math.min(ty1, pixelStart(cy + radius));
+        int alpha = color >>> 24;
+        for (int y = iy0; y < iy1; y++) {
+            float dy = y + 0.5f - cy;
+            int row = y * width;
+            for (int x = ix0; x < ix1; x++) {
+                float dx = x + 0.5f - cx;
+                if (dx * dx + dy * dy <= r2) {
+                    pixels[row + x] = blend(pixels[row + x], color, alpha);
+                }
+            }
+        }
+    }
+
+    /**
+     * 到线段距离不超过半线宽的像素着色，线宽与 GPURenderer 的 2.5 一致
+     */
+    private void fillLine(int tx0, int ty0, int tx1, int ty1, int p, int color) {
+        float ax = params[p], ay = params[p + 1], bx = params[p + 2], by = params[p + 3];
+        float dx = bx - ax, dy = by - ay;
+        float len2 = dx * dx + dy * dy;
+        float limit = LINE_HALF_WIDTH * LINE_HALF_WIDTH;
+        int ix0 = Math.max(tx0, pixelStart(Math.min(ax, bx) - LINE_HALF_WIDTH));
+        int iy0 = Math.max(ty0, pixelStart(Math.min(ay, by) - LINE_HALF_WIDTH));
+        int ix1 = Math.min(tx1, pixelStart(Math.max(ax, bx) + LINE_HALF_WIDTH));
+        int iy1 = Math.min(ty1, pixelStart(Math.max(ay, by) + LINE_HALF_WIDTH));
+        int alpha = color >>> 24;
+        for (int y = iy0; y < iy1; y++) {
+            float py = y + 0.5f - ay;
+            int row = y * width;
+            for (int x = ix0; x < ix1; x++) {
+                float px = x + 0.5f - ax;
+                float t = len2 > 0 ? Math.max(0, Math.min(1, (px * dx + py * dy) / len2)) : 0;
+                float ex = px - t * dx, ey = py - t * dy;
+                if (ex * ex + ey * ey <= limit) {
+                    pixels[row + x] = blend(pixels[row + x], color, alpha);
+                }
+            }
+        }
+    }
+
+    /**
+     * 字形四边形按最近邻采样图集页的 alpha，与顶点颜色的 alpha 相乘
+     */
+    private void fillGlyph(int tx0, int ty0, int tx1, int ty1, int p, int color, int page) {
+        float gx0 = params[p], gy0 = params[p + 1], gx1 = params[p + 2], gy1 = params[p + 3];
+        if (gx1 <= gx0 || gy1 <= gy0) return;
+        float u0 = params[p + 4] * GlyphAtlas.PAGE_SIZE, v0 = params[p + 5] * GlyphAtlas.PAGE_SIZE;
+        float du = (params[p + 6] * GlyphAtlas.PAGE_SIZE - u0) / (gx1 - gx0);
+        float dv = (params[p + 7] * GlyphAtlas.PAGE_SIZE - v0) / (gy1 - gy0);
+        byte[] atlas = glyphAtlas.getPagePixels(page);
+        int ix0 = Math.max(tx0, pixelStart(gx0));
+        int iy0 = Math.max(ty0, pixelStart(gy0));
+        int ix1 = Math.min(tx1, pixelStart(gx1));
+        int iy1 = Math.min(ty1, pixelStart(gy1));
+        int colorAlpha = color >>> 24;
+        int maxTexel = GlyphAtlas.PAGE_SIZE - 1;
+        for (int y = iy0; y < iy1; y++) {
+            int v = Math.min(maxTexel, (int) (v0 + (y + 0.5f - gy0) * dv));
+            int texRow = v * GlyphAtlas.PAGE_SIZE;
+            int row = y * width;
+            for (int x = ix0; x < ix1; x++) {
+                int u = Math.min(maxTexel, (int) (u0 + (x + 0.5f - gx0) * du));
+                int coverage = atlas[texRow + u] & 0xFF;
+                if (coverage == 0) continue;
+                pixels[row + x] = blend(pixels[row + x], color, coverage * colorAlpha / 255);
+            }
+        }
+    }
+
+    /**
+     * 位图最近邻缩放，按每个像素自身的 alpha 混合
+     */
+    private void fillBitmap(int tx0, int ty0, int tx1, int ty1, int p, Bitmap bitmap) {
+        float bx0 = params[p], by0 = params[p + 1], bx1 = params[p + 2], by1 = params[p + 3];
+        int srcWidth = bitmap.getWidth();
+        int srcHeight = bitmap.getHeight();
+        int[] src = bitmap.getPixels();
+        float du = srcWidth / (bx1 - bx0);
+        float dv = srcHeight / (by1 - by0);
+        int ix0 = Math.max(tx0, pixelStart(bx0));
+        int iy0 = Math.max(ty0, pixelStart(by0));
+        int ix1 = Math.min(tx1, pixelStart(bx1));
+        int iy1 = Math.min(ty1, pixelStart(by1));
+        for (int y = iy0; y < iy1; y++) {
+            int v = Math.min(srcHeight - 1, (int) ((y + 0.5f - by0) * dv));
+            int srcRow = v * srcWidth;
+            int row = y * width;
+            for (int x = ix0; x < ix1; x++) {
+                int u = Math.min(srcWidth - 1, (int) ((x + 0.5f - bx0) * du));
+                int color = src[srcRow + u];
+                int alpha = color >>> 24;
+                if (alpha != 0) {
+                    pixels[row + x] = blend(pixels[row + x], color & 0xFFFFFF, alpha);
+                }
+            }
+        }
+    }
+
+    /**
+     * 第一个像素中心不小于 edge 的像素序号
+     */
+    private static int pixelStart(float edge) {
+        return (int) Math.ceil(edge - 0.5f);
+    }
+
+    private static int pack(float r, float g, float b, float a) {
+        return (channel(a) << 24) | (channel(r) << 16) | (channel(g) << 8) | channel(b);
+    }
+
+    private static int channel(float value) {
+        return Math.max(0, Math.min(255, Math.round(value * 255.0f)));
+    }
+
+    /**
+     * src-over 混合到不透明的帧缓冲
+     */
+    private static int blend(int dst, int src, int alpha) {
+        if (alpha >= 255) {
+            return 0xFF000000 | src;
+        }
+        int inv = 255 - alpha;
+        int r = (((src >> 16) & 0xFF) * alpha + ((dst >> 16) & 0xFF) * inv + 127) / 255;
+        int g = (((src >> 8) & 0xFF) * alpha + ((dst >> 8) & 0xFF) * inv + 127) / 255;
+        int b = ((src & 0xFF) * alpha + (dst & 0xFF) * inv + 127) / 255;
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * 帧缓冲（ARGB，行主序），endFrame 之后为完整的一帧
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * 复制当前帧为图像，可缩放后用作缩略图
+     */
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    /**
+     * 把当前帧写成 PNG
+     */
+    public void writePng(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (!ImageIO.write(toImage(), "png", path.toFile())) {
+            throw new IOException("没有可用的PNG编码器");
+        }
+    }
+
+    public long getLastRasterNanos() {
+        return lastRasterNanos;
+    }
+
+    public int getLastFrameCommandCount() {
+        return lastCommandCount;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return false;
+    }
+
+    @Override
+    public void pollEvents() {
+    }
+
+    @Override
+    public void cleanup() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        textRenderer.cleanup();
+        glyphAtlas.cleanup();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,252 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于字形图集的文字批处理
+ * 每个字符串排版一次得到相对原点的四边形网格并缓存（分数标签、菜单项等反复出现的文本直接复用），
+ * drawText 只把网格平移后追加到按纹理页分组的顶点数组；flush 时每页一次 glDrawArrays，
+ * 同一页上的整块 HUD 文字是一次绘制调用。字形尚未就绪的字符串不缓存，字形到达后重新排版。
+ * 核心模式后端不走 flush，而是用 drain 取出各页的四边形顶点并入自己的顶点流。
+ */
+class TextRenderer {
+    private static final int MESH_CACHE_SIZE = 256;
+    // 每个顶点：x, y, u, v, r, g, b, a
+    static final int VERTEX_FLOATS = 8;
+    private static final int QUAD_FLOATS = VERTEX_FLOATS * 4;
+
+    private final GlyphAtlas atlas;
+    private final float charWidth;
+    private final float charHeight;
+    private final float spacing;
+    private final LinkedHashMap<String, Mesh> meshes;
+    private float[][] batches;
+    private int[] batchSizes;
+    private FloatBuffer vertexBuffer;
+    private boolean pending;
+    private int drawCalls;
+    private int incompleteLayouts;
+
+    /**
+     * 接收一页文字的四边形顶点（每个四边形 4 个顶点，按 GL_QUADS 顺序）
+     */
+    interface PageSink {
+        void accept(int texture, float[] vertices, int size);
+    }
+
+    /**
+     * 排好版的字符串：每个字形一组 x0, x1, u0, v0, u1, v1 与所在纹理页
+     */
+    private static final class Mesh {
+        final int glyphCount;
+        final int[] pages;
+        final float[] quads;
+
+        Mesh(int glyphCount, int[] pages, float[] quads) {
+            this.glyphCount = glyphCount;
+            this.pages = pages;
+            this.quads = quads;
+        }
+    }
+
+    TextRenderer(GlyphAtlas atlas, int fontSize) {
+        this.atlas = atlas;
+        this.charWidth = fontSize * 0.6f;
+        this.charHeight = fontSize;
+        this.spacing = 1.0f;
+        this.meshes = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Mesh> eldest) {
+                return size() > MESH_CACHE_SIZE;
+            }
+        };
+        this.batches = new float[1][QUAD_FLOATS * 64];
+        this.batchSizes = new int[1];
+        this.vertexBuffer = BufferUtils.createFloatBuffer(QUAD_FLOATS * 256);
+    }
+
+    /**
+     * 每帧开始时上传后台完成的字形，并重置绘制调用计数
+     */
+    void beginFrame() {
+        atlas.uploadPending();
+        drawCalls = 0;
+    }
+
+    /**
+     * 追加一段文字到批次，不立即绘制
+     */
+    void draw(float x, float y, String text, float r, float g, float b, float a) {
+        Mesh mesh = meshes.get(text);
+        if (mesh == null) {
+            mesh = layout(text);
+        }
+        for (int i = 0; i < mesh.glyphCount; i++) {
+            int page = mesh.pages[i];
+            int q = i * 6;
+            float x0 = x + mesh.quads[q];
+            float x1 = x + mesh.quads[q + 1];
+            float u0 = mesh.quads[q + 2], v0 = mesh.quads[q + 3];
+            float u1 = mesh.quads[q + 4], v1 = mesh.quads[q + 5];
+            float[] batch = reserve(page);
+            int o = batchSizes[page];
+            o = vertex(batch, o, x0, y, u0, v0, r, g, b, a);
+            o = vertex(batch, o, x1, y, u1, v0, r, g, b, a);
+            o = vertex(batch, o, x1, y + charHeight, u1, v1, r, g, b, a);
+            o = vertex(batch, o, x0, y + charHeight, u0, v1, r, g, b, a);
+            batchSizes[page] = o;
+        }
+        pending |= mesh.glyphCount > 0;
+    }
+
+    /**
+     * 提交批次中的全部文字，每个纹理页一次绘制调用
+     */
+    void flush() {
+        if (!pending) return;
+
+        GL11.glEnable(GL11.GL_TEXTURE_2D);
+        GL11.glEnable(GL11.GL_BLEND);
+        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        drain(this::drawPage);
+        GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+    }
+
+    /**
+     * 把各页批次依次交给 sink 并清空，返回交出的页数
+     */
+    int drain(PageSink sink) {
+        if (!pending) return 0;
+        pending = false;
+        int pagesDrained = 0;
+        for (int page = 0; page < batchSizes.length; page++) {
+            int size = batchSizes[page];
+            if (size == 0) continue;
+            sink.accept(atlas.getTexture(page), batches[page], size);
+            batchSizes[page] = 0;
+            pagesDrained++;
+        }
+        return pagesDrained;
+    }
+
+    private void drawPage(int texture, float[] vertices, int size) {
+        if (vertexBuffer.capacity() < size) {
+            vertexBuffer = BufferUtils.createFloatBuffer(Math.max(size, vertexBuffer.capacity() * 2));
+        }
+        vertexBuffer.clear();
+        vertexBuffer.put(vertices, 0, size).flip();
+        int stride = VERTEX_FLOATS * Float.BYTES;
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        GL11.glVertexPointer(2, GL11.GL_FLOAT, stride, vertexBuffer.position(0));
+        GL11.glTexCoordPointer(2, GL11.GL_FLOAT, stride, vertexBuffer.position(2));
+        GL11.glColorPointer(4, GL11.GL_FLOAT, stride, vertexBuffer.position(4));
+        GL11.glDrawArrays(GL11.GL_QUADS, 0, size / VERTEX_FLOATS);
+        drawCalls++;
+    }
+
+    /**
+     * 本帧文字的绘制调用次数
+     */
+    int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * 累计因字形未就绪而不完整的排版次数，预构建几何据此判断是否需要重建
+     */
+    int getIncompleteLayouts() {
+        return incompleteLayouts;
+    }
+
+    int getCachedMeshCount() {
+        return meshes.size();
+    }
+
+    void cleanup() {
+        meshes.clear();
+        Arrays.fill(batchSizes, 0);
+        pending = false;
+    }
+
+    /**
+     * 排版字符串：等宽推进，空格占半个字符宽；有缺失字形时向图集请求并跳过这些字符，结果不缓存
+     */
+    private Mesh layout(String text) {
+        int[] pages = new int[text.length()];
+        float[] quads = new float[text.length() * 6];
+        int count = 0;
+        boolean complete = true;
+        float cursor = 0.0f;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                cursor += charWidth * 0.5f;
+                continue;
+            }
+            GlyphAtlas.Glyph glyph = atlas.get(c);
+            if (glyph == null) {
+                complete = false;
+            } else {
+                pages[count] = glyph.page;
+                int q = count * 6;
+                quads[q] = cursor;
+                quads[q + 1] = cursor + charWidth;
+                quads[q + 2] = glyph.u0;
+                quads[q + 3] = glyph.v0;
+                quads[q + 4] = glyph.u1;
+                quads[q + 5] = glyph.v1;
+                count++;
+            }
+            cursor += charWidth + spacing;
+        }
+        Mesh mesh = new Mesh(count, pages, quads);
+        if (complete) {
+            meshes.put(text, mesh);
+        } else {
+            incompleteLayouts++;
+            atlas.request(text);
+        }
+        return mesh;
+    }
+
+    private float[] reserve(int page) {
+        if (page >= batches.length) {
+            int pageCount = Math.max(page + 1, atlas.getPageCount());
+            batches = Arrays.copyOf(batches, pageCount);
+            batchSizes = Arrays.copyOf(batchSizes, pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                if (batches[i] == null) batches[i] = new float[QUAD_FLOATS * 64];
+            }
+        }
+        if (batchSizes[page] + QUAD_FLOATS > batches[page].length) {
+            batches[page] = Arrays.copyOf(batches[page], batches[page].length * 2);
+        }
+        return batches[page];
+    }
+
+    private static int vertex(float[] batch, int o, float x, float y, float u, float v, float r, float g, float b, float a) {
+        batch[o] = x;
+        batch[o + 1] = y;
+        batch[o + 2] = u;
+        batch[o + 3] = v;
+        batch[o + 4] = r;
+        batch[o + 5] = g;
+        batch[o + 6] = b;
+        batch[o + 7] = a;
+        return o + VERTEX_FLOATS;
+    }
+}
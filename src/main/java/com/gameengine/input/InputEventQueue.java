@@ -0,0 +1,106 @@
+package com.gameengine.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁多生产者单消费者输入事件队列（有界环形缓冲）
+ * 窗口回调等任意线程写入，模拟线程在每个 tick 的固定位置统一取出。
+ * 每个槽位带序号：生产者 CAS 抢占写位置，写完数据后发布序号；
+ * 消费者只在序号就绪时读取，因此不需要锁，也不在事件路径上分配对象。
+ */
+public final class InputEventQueue {
+
+    /**
+     * 事件处理回调
+     */
+    public interface Handler {
+        void onKeyEvent(int keyCode, boolean pressed, long timestampNanos);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final int[] keyCodes;
+    private final boolean[] pressed;
+    private final long[] timestamps;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+
+    public InputEventQueue(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.keyCodes = new int[this.capacity];
+        this.pressed = new boolean[this.capacity];
+        this.timestamps = new long[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入事件，可在任意线程调用
+     * @return 队列已满时返回 false，事件被丢弃
+     */
+    public boolean offer(int keyCode, boolean isPressed, long timestampNanos) {
+        long pos;
+        int index;
+        while (true) {
+            pos = tail.get();
+            index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        keyCodes[index] = keyCode;
+        pressed[index] = isPressed;
+        timestamps[index] = timestampNanos;
+        // 发布：序号写入之后消费者才能看到上面的数据
+        sequences.set(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * 取出全部已发布的事件，只能由消费者线程调用
+     * @return 处理的事件数量
+     */
+    public int drain(Handler handler) {
+        int count = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            handler.onKeyEvent(keyCodes[index], pressed[index], timestamps[index]);
+            sequences.set(index, head + capacity);
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 因队列已满而丢弃的事件数量
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
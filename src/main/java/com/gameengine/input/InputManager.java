@@ -1,23 +1,34 @@
 package com.gameengine.input;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
  * 输入管理器，处理键盘输入
+ * 窗口回调通过 postKeyEvent 写入事件队列，模拟 tick 开始时由 processEvents 统一应用
  */
 public class InputManager implements IInputManager {
     private static InputManager instance;
-    private Set<Integer> pressedKeys;
-    private Set<Integer> justPressedKeys;
-    private Map<Integer, Boolean> keyStates;
+    private final KeyState keys;
+    private final InputEventQueue events;
+    private final InputEventQueue.Handler applyEvent;
+    
+    // 最近一次 processEvents 的时间，以及该 tick 内第一次按下/释放事件的时间（0 表示没有）
+    private long lastProcessNanos;
+    private long firstPressNanos;
+    private long firstReleaseNanos;
     
     private InputManager() {
-        pressedKeys = new HashSet<>();
-        justPressedKeys = new HashSet<>();
-        keyStates = new HashMap<>();
+        keys = new KeyState();
+        events = new InputEventQueue(256);
+        applyEvent = (keyCode, pressed, timestampNanos) -> {
+            if (pressed) {
+                if (firstPressNanos == 0) firstPressNanos = timestampNanos;
+                keys.press(keyCode);
+            } else {
+                if (firstReleaseNanos == 0) firstReleaseNanos = timestampNanos;
+                keys.release(keyCode);
+            }
+        };
     }
     
     public static InputManager getInstance() {
@@ -31,46 +42,98 @@ public class InputManager implements IInputManager {
      * 更新输入状态
      */
     public void update() {
-        justPressedKeys.clear();
+        keys.endFrame();
+    }
+    
+    /**
+     * 投递按键事件，可在任意线程调用（窗口回调）
+     */
+    public void postKeyEvent(int keyCode, boolean pressed) {
+        events.offer(keyCode, pressed, System.nanoTime());
+    }
+    
+    /**
+     * 应用队列中的按键事件，每个模拟 tick 开始时调用一次
+     */
+    public void processEvents() {
+        lastProcessNanos = System.nanoTime();
+        firstPressNanos = 0;
+        firstReleaseNanos = 0;
+        events.drain(applyEvent);
     }
     
     /**
-     * 处理键盘按下事件
+     * 处理键盘按下事件（直接修改状态，只能在模拟线程调用）
      */
     public void onKeyPressed(int keyCode) {
-        if (!pressedKeys.contains(keyCode)) {
-            justPressedKeys.add(keyCode);
-        }
-        pressedKeys.add(keyCode);
-        keyStates.put(keyCode, true);
+        keys.press(keyCode);
     }
     
     /**
      * 处理键盘释放事件
      */
     public void onKeyReleased(int keyCode) {
-        pressedKeys.remove(keyCode);
-        keyStates.put(keyCode, false);
+        keys.release(keyCode);
     }
     
     /**
      * 检查按键是否被按下
      */
     public boolean isKeyPressed(int keyCode) {
-        return pressedKeys.contains(keyCode);
+        return keys.isDown(keyCode);
     }
     
     /**
      * 检查按键是否刚刚被按下（只在这一帧为true）
      */
     public boolean isKeyJustPressed(int keyCode) {
-        return justPressedKeys.contains(keyCode);
+        return keys.wasPressed(keyCode);
+    }
+    
+    /**
+     * 检查按键是否刚刚被释放（只在这一帧为true）
+     */
+    public boolean isKeyJustReleased(int keyCode) {
+        return keys.wasReleased(keyCode);
+    }
+    
+    /**
+     * 当前按住的组合键掩码，位序号见 KeyState.CHORD_KEYS
+     */
+    public long getKeyMask() {
+        return keys.getDownMask();
+    }
+    
+    /**
+     * 本帧按下的组合键掩码
+     */
+    public long getJustPressedMask() {
+        return keys.getPressedMask();
+    }
+    
+    public long getLastProcessNanos() {
+        return lastProcessNanos;
+    }
+    
+    /**
+     * 本 tick 内第一次按下事件的时间戳，没有排队事件时返回 0
+     */
+    public long getFirstPressNanos() {
+        return firstPressNanos;
+    }
+    
+    public long getFirstReleaseNanos() {
+        return firstReleaseNanos;
+    }
+    
+    public long getDroppedEventCount() {
+        return events.getDroppedCount();
     }
     
     /**
      * 获取刚刚按下的按键快照（用于录制）
      */
     public Set<Integer> getJustPressedKeysSnapshot() {
-        return new HashSet<>(justPressedKeys);
+        return keys.pressedKeys();
     }
 }
@@ -0,0 +1,125 @@
+package com.gameengine.input;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 列式回放输入时间线
+ * 每个事件只保存时间、类型和按键掩码（KeyState 组合键位序），
+ * 另存每个事件之后的按住状态前缀，任意时刻的按键状态二分查找即可得到，
+ * 支持跳转、倒退和变速播放。
+ */
+public final class InputTimeline {
+    public static final InputTimeline EMPTY = new InputTimeline(new float[0], new int[0], new boolean[0]);
+
+    private final float[] times;
+    private final int[] masks;
+    private final boolean[] downs;
+    private final int[] heldAfter;
+
+    private InputTimeline(float[] times, int[] masks, boolean[] downs) {
+        this.times = times;
+        this.masks = masks;
+        this.downs = downs;
+        this.heldAfter = new int[times.length];
+        int held = 0;
+        for (int i = 0; i < times.length; i++) {
+            held = downs[i] ? held | masks[i] : held & ~masks[i];
+            heldAfter[i] = held;
+        }
+    }
+
+    /**
+     * 由解析得到的事件列表构建，按时间稳定排序；不在组合键表中的按键被忽略
+     */
+    public static InputTimeline from(List<ReplayInputManager.InputEvent> events) {
+        List<ReplayInputManager.InputEvent> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparingDouble(e -> e.time));
+
+        int n = sorted.size();
+        float[] times = new float[n];
+        int[] masks = new int[n];
+        boolean[] downs = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            ReplayInputManager.InputEvent event = sorted.get(i);
+            times[i] = event.time;
+            masks[i] = maskOf(event.keys);
+            downs[i] = event.type == ReplayInputManager.EventType.KEYDOWN;
+        }
+        return new InputTimeline(times, masks, downs);
+    }
+
+    /**
+     * 按键码数组转换为组合键掩码
+     */
+    public static int maskOf(int[] keys) {
+        int mask = 0;
+        for (int key : keys) {
+            int bit = KeyState.chordBit(key);
+            if (bit >= 0 && bit < Integer.SIZE) {
+                mask |= 1 << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 时间不晚于 t 的事件数量，即 t 时刻的游标位置
+     */
+    public int cursorAt(float t) {
+        int lo = 0;
+        int hi = times.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] <= t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 应用前 cursor 个事件后的按住状态
+     */
+    public int heldAt(int cursor) {
+        return cursor <= 0 ? 0 : heldAfter[Math.min(cursor, heldAfter.length) - 1];
+    }
+
+    /**
+     * t 时刻的按住状态，O(log n)
+     */
+    public int heldAtTime(float t) {
+        return heldAt(cursorAt(t));
+    }
+
+    /**
+     * 游标区间 [from, to) 内新按下的按键（按下前未按住）
+     */
+    public int pressedBetween(int from, int to) {
+        int pressed = 0;
+        for (int i = Math.max(0, from); i < to; i++) {
+            if (downs[i]) {
+                pressed |= masks[i] & ~heldAt(i);
+            }
+        }
+        return pressed;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public float timeAt(int index) {
+        return times[index];
+    }
+
+    /**
+     * 最后一个事件的时间
+     */
+    public float getDuration() {
+        return times.length == 0 ? 0 : times[times.length - 1];
+    }
+}
@@ -0,0 +1,157 @@
+package com.gameengine.input;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 位集按键状态，按键码直接索引，查询不装箱
+ * 同时维护本帧按下/释放的边沿位，以及常用按键的 64 位组合掩码（用于录制比较）
+ */
+public final class KeyState {
+    public static final int MAX_KEY_CODE = 512;
+
+    /**
+     * 参与组合掩码的按键，下标即掩码中的位序号
+     */
+    public static final int[] CHORD_KEYS = {
+        87, 83, 65, 68,   // W S A D
+        38, 40, 37, 39,   // 上 下 左 右
+        90,               // Z (射击)
+        10, 32, 27        // Enter 空格 ESC
+    };
+
+    private static final int[] CHORD_BIT = new int[MAX_KEY_CODE];
+
+    static {
+        Arrays.fill(CHORD_BIT, -1);
+        for (int i = 0; i < CHORD_KEYS.length; i++) {
+            CHORD_BIT[CHORD_KEYS[i]] = i;
+        }
+    }
+
+    private final long[] down = new long[MAX_KEY_CODE / 64];
+    private final long[] pressed = new long[MAX_KEY_CODE / 64];
+    private final long[] released = new long[MAX_KEY_CODE / 64];
+    private long downMask;
+    private long pressedMask;
+    private long releasedMask;
+
+    /**
+     * 按键按下，未按住时记录按下边沿
+     */
+    public void press(int keyCode) {
+        if (!inRange(keyCode)) return;
+        int word = keyCode >>> 6;
+        long bit = 1L << keyCode;
+        if ((down[word] & bit) == 0) {
+            pressed[word] |= bit;
+            down[word] |= bit;
+            int chord = CHORD_BIT[keyCode];
+            if (chord >= 0) {
+                downMask |= 1L << chord;
+                pressedMask |= 1L << chord;
+            }
+        }
+    }
+
+    /**
+     * 按键释放，按住时记录释放边沿
+     */
+    public void release(int keyCode) {
+        if (!inRange(keyCode)) return;
+        int word = keyCode >>> 6;
+        long bit = 1L << keyCode;
+        if ((down[word] & bit) != 0) {
+            released[word] |= bit;
+            down[word] &= ~bit;
+            int chord = CHORD_BIT[keyCode];
+            if (chord >= 0) {
+                downMask &= ~(1L << chord);
+                releasedMask |= 1L << chord;
+            }
+        }
+    }
+
+    /**
+     * 清除边沿位，每帧调用一次
+     */
+    public void endFrame() {
+        Arrays.fill(pressed, 0);
+        Arrays.fill(released, 0);
+        pressedMask = 0;
+        releasedMask = 0;
+    }
+
+    public void clear() {
+        endFrame();
+        Arrays.fill(down, 0);
+        downMask = 0;
+    }
+
+    public boolean isDown(int keyCode) {
+        return inRange(keyCode) && (down[keyCode >>> 6] & (1L << keyCode)) != 0;
+    }
+
+    public boolean wasPressed(int keyCode) {
+        return inRange(keyCode) && (pressed[keyCode >>> 6] & (1L << keyCode)) != 0;
+    }
+
+    public boolean wasReleased(int keyCode) {
+        return inRange(keyCode) && (released[keyCode >>> 6] & (1L << keyCode)) != 0;
+    }
+
+    /**
+     * 当前按住的组合键掩码
+     */
+    public long getDownMask() {
+        return downMask;
+    }
+
+    /**
+     * 本帧按下的组合键掩码
+     */
+    public long getPressedMask() {
+        return pressedMask;
+    }
+
+    /**
+     * 本帧释放的组合键掩码
+     */
+    public long getReleasedMask() {
+        return releasedMask;
+    }
+
+    /**
+     * 本帧按下的全部按键（会分配集合，仅供非热路径使用）
+     */
+    public Set<Integer> pressedKeys() {
+        Set<Integer> keys = new HashSet<>();
+        for (int word = 0; word < pressed.length; word++) {
+            long bits = pressed[word];
+            while (bits != 0) {
+                keys.add((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 按键码对应的组合键位序号，不参与组合掩码时返回 -1
+     */
+    public static int chordBit(int keyCode) {
+        return inRange(keyCode) ? CHORD_BIT[keyCode] : -1;
+    }
+
+    /**
+     * 组合键位序号对应的按键码
+     */
+    public static int chordKey(int bit) {
+        return CHORD_KEYS[bit];
+    }
+
+    private static boolean inRange(int keyCode) {
+        return keyCode >= 0 && keyCode < MAX_KEY_CODE;
+    }
+}
@@ -1,28 +1,28 @@
 package com.gameengine.input;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * 回放输入管理器，从录制文件读取输入事件
+ * 事件存放在列式时间线中，按键状态由当前回放时间二分查找得到
  */
 public class ReplayInputManager implements IInputManager {
     private static ReplayInputManager instance;
-    private Set<Integer> pressedKeys;
-    private Set<Integer> justPressedKeys;
-    private List<InputEvent> inputEvents;
-    private int currentEventIndex;
+    private InputTimeline timeline;
+    private int cursor;
     private float currentTime;
+    private float speed;
     private boolean isPlaying;
+    private int heldMask;
+    private int justPressedMask;
     
     private ReplayInputManager() {
-        pressedKeys = new HashSet<>();
-        justPressedKeys = new HashSet<>();
-        inputEvents = new ArrayList<>();
-        currentEventIndex = 0;
+        timeline = InputTimeline.EMPTY;
+        cursor = 0;
         currentTime = 0;
+        speed = 1.0f;
         isPlaying = false;
     }
     
@@ -37,75 +37,91 @@ public class ReplayInputManager implements IInputManager {
      * 加载录制数据
      */
     public void loadRecording(List<InputEvent> events) {
-        this.inputEvents.clear();
-        this.inputEvents.addAll(events);
-        this.currentEventIndex = 0;
+        loadTimeline(InputTimeline.from(events));
+    }
+    
+    public void loadTimeline(InputTimeline timeline) {
+        this.timeline = timeline;
+        this.cursor = 0;
         this.currentTime = 0;
         this.isPlaying = true;
-        this.pressedKeys.clear();
-        this.justPressedKeys.clear();
+        this.heldMask = 0;
+        this.justPressedMask = 0;
     }
     
     /**
      * 更新回放状态
      */
     public void update(float deltaTime) {
-        if (!isPlaying || inputEvents.isEmpty()) {
+        if (!isPlaying) {
             return;
         }
         
-        currentTime += deltaTime;
-        justPressedKeys.clear();
-        
-        // 处理所有在当前时间之前的事件
-        while (currentEventIndex < inputEvents.size()) {
-            InputEvent event = inputEvents.get(currentEventIndex);
-            
-            // 只处理当前时间之前的事件，防止提前读取未来输入
-            if (event.time <= currentTime) {
-                // 根据事件类型处理按键
-                if (event.type == EventType.KEYDOWN) {
-                    for (int keyCode : event.keys) {
-                        if (!pressedKeys.contains(keyCode)) {
-                            justPressedKeys.add(keyCode);
-                        }
-                        pressedKeys.add(keyCode);
-                    }
-                } else if (event.type == EventType.KEYUP) {
-                    for (int keyCode : event.keys) {
-                        pressedKeys.remove(keyCode);
-                    }
-                }
-                currentEventIndex++;
-            } else {
-                // 遇到未来事件，停止处理
-                break;
-            }
-        }
+        currentTime += deltaTime * speed;
+        // 只处理当前时间之前的事件，防止提前读取未来输入
+        int next = timeline.cursorAt(currentTime);
+        justPressedMask = next > cursor ? timeline.pressedBetween(cursor, next) : 0;
+        heldMask = timeline.heldAt(next);
+        cursor = next;
+    }
+    
+    /**
+     * 跳转到指定回放时间，按键状态直接由时间线得到，不产生按下边沿
+     */
+    public void seek(float time) {
+        currentTime = Math.max(0, time);
+        cursor = timeline.cursorAt(currentTime);
+        heldMask = timeline.heldAt(cursor);
+        justPressedMask = 0;
+    }
+    
+    /**
+     * 设置播放速度，1 为原速
+     */
+    public void setSpeed(float speed) {
+        this.speed = Math.max(0, speed);
+    }
+    
+    public float getSpeed() {
+        return speed;
+    }
+    
+    public float getCurrentTime() {
+        return currentTime;
+    }
+    
+    public InputTimeline getTimeline() {
+        return timeline;
     }
     
     /**
      * 检查按键是否被按下
      */
     public boolean isKeyPressed(int keyCode) {
-        return pressedKeys.contains(keyCode);
+        return hasKey(heldMask, keyCode);
     }
     
     /**
      * 检查按键是否刚刚被按下
      */
     public boolean isKeyJustPressed(int keyCode) {
-        return justPressedKeys.contains(keyCode);
+        return hasKey(justPressedMask, keyCode);
+    }
+    
+    private static boolean hasKey(int mask, int keyCode) {
+        int bit = KeyState.chordBit(keyCode);
+        return bit >= 0 && bit < Integer.SIZE && (mask & (1 << bit)) != 0;
     }
     
     /**
      * 重置回放状态
      */
     public void reset() {
-        currentEventIndex = 0;
+        cursor = 0;
         currentTime = 0;
-        pressedKeys.clear();
-        justPressedKeys.clear();
+        speed = 1.0f;
+        heldMask = 0;
+        justPressedMask = 0;
         isPlaying = false;
     }
     
@@ -141,7 +157,11 @@ public class ReplayInputManager implements IInputManager {
     }
     
     public Set<Integer> getJustPressedKeysSnapshot() {
-        return new HashSet<>(justPressedKeys);
+        Set<Integer> keys = new HashSet<>();
+        for (int mask = justPressedMask; mask != 0; mask &= mask - 1) {
+            keys.add(KeyState.chordKey(Integer.numberOfTrailingZeros(mask)));
+        }
+        return keys;
     }
     
     public void update() {
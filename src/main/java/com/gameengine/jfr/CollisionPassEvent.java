@@ -0,0 +1,32 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 碰撞检测事件，记录一次 checkCollisions 中各类对象数量
+ */
+@Name("com.gameengine.CollisionPass")
+@Label("Collision Pass")
+@Category({"Game Engine", "Physics"})
+@Description("GameLogic.checkCollisions 的一次执行")
+@StackTrace(false)
+public class CollisionPassEvent extends jdk.jfr.Event {
+    @Label("Players")
+    public int players;
+
+    @Label("Enemies")
+    public int enemies;
+
+    @Label("Player Bullets")
+    public int playerBullets;
+
+    @Label("Enemy Bullets")
+    public int enemyBullets;
+
+    @Label("Pair Tests")
+    public long pairTests;
+}
@@ -0,0 +1,106 @@
+package com.gameengine.jfr;
+
+import com.gameengine.util.ConfigManager;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * JFR 事件开关与录制管理
+ * 通过配置 profiling.jfr.enabled 或启动参数 -Dengine.jfr=true 开启，
+ * 关闭时各埋点直接跳过，不会创建事件对象
+ */
+public final class EngineEvents {
+    private static final String SETTINGS_RESOURCE = "/jfr/engine.jfc";
+    private static final boolean ENABLED =
+        Boolean.getBoolean("engine.jfr") || ConfigManager.getInstance().getBoolean("profiling.jfr.enabled");
+
+    private static Recording recording;
+
+    private EngineEvents() {}
+
+    /**
+     * 是否开启引擎 JFR 埋点
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 使用内置的 engine.jfc 配置启动一次 JFR 录制
+     * 若 JVM 已通过 -XX:StartFlightRecording 启动录制，则只开启埋点，不重复录制
+     */
+    public static synchronized void start() {
+        if (!ENABLED || recording != null) return;
+        if (externalRecordingRunning()) {
+            System.out.println("JVM已有JFR录制在运行，只开启引擎埋点");
+            return;
+        }
+        try (InputStream in = EngineEvents.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            if (in == null) {
+                System.err.println("找不到JFR配置文件: " + SETTINGS_RESOURCE);
+                return;
+            }
+            Configuration config = Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8));
+            recording = new Recording(config);
+            recording.setName("gameengine");
+            recording.setToDisk(true);
+            recording.start();
+            System.out.println("JFR录制已启动: " + config.getLabel());
+        } catch (Exception e) {
+            System.err.println("JFR录制启动失败: " + e.getMessage());
+            recording = null;
+        }
+    }
+
+    /**
+     * 是否已有正在运行的录制（-XX:StartFlightRecording 或 jcmd JFR.start 启动的）
+     */
+    private static boolean externalRecordingRunning() {
+        if (!FlightRecorder.isAvailable()) return false;
+        for (Recording r : FlightRecorder.getFlightRecorder().getRecordings()) {
+            if (r.getState() == RecordingState.RUNNING) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 停止录制并导出到 jfr 文件
+     */
+    public static synchronized void stop() {
+        if (recording == null) return;
+        Path out = Paths.get(ConfigManager.getInstance().getString("profiling.jfr.output").isEmpty()
+            ? "gameengine.jfr"
+            : ConfigManager.getInstance().getString("profiling.jfr.output"));
+        try {
+            recording.stop();
+            recording.dump(out);
+            System.out.println("JFR录制已输出到: " + out.toAbsolutePath());
+        } catch (Exception e) {
+            System.err.println("JFR录制输出失败: " + e.getMessage());
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * 记录实体生成/销毁
+     */
+    public static void entity(String action, String entity) {
+        if (!ENABLED) return;
+        EntityLifecycleEvent event = new EntityLifecycleEvent();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.entity = entity;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 实体生成/销毁事件
+ */
+@Name("com.gameengine.EntityLifecycle")
+@Label("Entity Lifecycle")
+@Category({"Game Engine", "Entity"})
+@Description("EntityFactory 生成实体或场景移除实体")
+@StackTrace(false)
+public class EntityLifecycleEvent extends jdk.jfr.Event {
+    public static final String SPAWN = "spawn";
+    public static final String DESPAWN = "despawn";
+
+    @Label("Action")
+    public String action;
+
+    @Label("Entity")
+    public String entity;
+}
@@ -0,0 +1,33 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 帧事件，覆盖一帧从开始到结束（update + render）的完整时长
+ */
+@Name("com.gameengine.Frame")
+@Label("Frame")
+@Category({"Game Engine", "Frame"})
+@Description("一帧的 update + render 耗时")
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+    @Label("Frame Index")
+    public long frameIndex;
+
+    @Label("Delta Time (s)")
+    public float deltaTime;
+
+    @Label("Scene")
+    public String scene;
+
+    @Label("Object Count")
+    public int objectCount;
+
+    @Label("Present Interval (ms)")
+    @Description("与上一次交换缓冲区的实测间隔")
+    public float presentIntervalMs;
+}
@@ -0,0 +1,26 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 回放关键帧矫正事件，记录矫正前后的位置偏差
+ */
+@Name("com.gameengine.KeyframeCorrection")
+@Label("Replay Keyframe Correction")
+@Category({"Game Engine", "Replay"})
+@Description("回放时根据关键帧矫正敌人状态")
+@StackTrace(false)
+public class KeyframeCorrectionEvent extends jdk.jfr.Event {
+    @Label("Enemy Id")
+    public int enemyId;
+
+    @Label("Keyframe Time (s)")
+    public double keyframeTime;
+
+    @Label("Drift (px)")
+    public float drift;
+}
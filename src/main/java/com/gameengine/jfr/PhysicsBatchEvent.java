@@ -0,0 +1,23 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 物理批次事件，每个线程池批次提交一次
+ */
+@Name("com.gameengine.PhysicsBatch")
+@Label("Physics Batch")
+@Category({"Game Engine", "Physics"})
+@Description("PhysicsSystem 中一个批次的执行")
+@StackTrace(false)
+public class PhysicsBatchEvent extends jdk.jfr.Event {
+    @Label("Batch Start")
+    public int start;
+
+    @Label("Batch Size")
+    public int size;
+}
@@ -0,0 +1,24 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 录制队列丢弃事件，队列已满时记录
+ */
+@Name("com.gameengine.RecordingDrop")
+@Label("Recording Queue Drop")
+@Category({"Game Engine", "Recording"})
+@Description("录制写入队列已满，数据被丢弃")
+public class RecordingDropEvent extends jdk.jfr.Event {
+    @Label("Line Length")
+    public int lineLength;
+
+    @Label("Queue Capacity")
+    public int queueCapacity;
+
+    @Label("Total Dropped")
+    public long totalDropped;
+}
@@ -0,0 +1,23 @@
+package com.gameengine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 场景切换事件，对应 GameEngine.setScene
+ */
+@Name("com.gameengine.SceneTransition")
+@Label("Scene Transition")
+@Category({"Game Engine", "Scene"})
+@Description("场景切换，包含旧场景清理和新场景初始化")
+@StackTrace(false)
+public class SceneTransitionEvent extends jdk.jfr.Event {
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+}
@@ -0,0 +1,352 @@
+package com.gameengine.metrics;
+
+import com.gameengine.core.GameObject;
+import com.gameengine.scene.Scene;
+import com.gameengine.util.ConfigManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 引擎运行时指标
+ * 主线程写入，HTTP/JMX 线程读取；通过 metrics.enabled 开启
+ */
+public class EngineMetrics implements EngineMetricsMXBean {
+    // 帧耗时直方图上界（毫秒），最后一个桶为 +Inf
+    static final double[] FRAME_BUCKETS_MS = {1, 2, 4, 8, 16.7, 33.3, 50, 100};
+    private static final long ENTITY_SAMPLE_INTERVAL_NANOS = 1_000_000_000L;
+    static final String OBJECT_NAME = "com.gameengine:type=EngineMetrics";
+
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+    private static final boolean ENABLED =
+        Boolean.getBoolean("engine.metrics") || ConfigManager.getInstance().getBoolean("metrics.enabled");
+
+    private final AtomicLongArray frameBuckets = new AtomicLongArray(FRAME_BUCKETS_MS.length + 1);
+    private volatile long frameCount;
+    private volatile double frameTimeSumMs;
+    private volatile double lastFrameTimeMs;
+    private volatile double fps;
+    private volatile double lastWorkTimeMs;
+    private volatile double workTimeMs;
+
+    private volatile Map<String, Integer> entityCounts = Collections.emptyMap();
+    private volatile int totalEntities;
+    private long lastEntitySample;
+
+    private volatile int poolActiveThreads;
+    private volatile int poolQueuedTasks;
+    private volatile int lastPhysicsBatchCount;
+    private volatile int lastPhysicsBatchSize;
+
+    private volatile int recordingQueueDepth;
+    private volatile long recordingBytesWritten;
+    private volatile long recordingDroppedLines;
+
+    private volatile int renderSubmitted;
+    private volatile int renderCulled;
+
+    private volatile double lastPresentIntervalMs;
+    private volatile double presentIntervalMs;
+    private volatile double presentJitterMs;
+    private volatile int swapInterval;
+
+    private volatile double replayLastDrift;
+    private volatile double replayMaxDrift;
+
+    private MetricsServer server;
+    private boolean registered;
+
+    private EngineMetrics() { }
+
+    public static EngineMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 注册 MBean 并启动 HTTP 指标服务
+     */
+    public synchronized void start() {
+        if (!ENABLED) return;
+        register();
+        if (server == null) {
+            int port = ConfigManager.getInstance().getInt("metrics.port");
+            server = new MetricsServer(this, port > 0 ? port : MetricsServer.DEFAULT_PORT);
+            if (!server.start()) {
+                server = null;
+            }
+        }
+    }
+
+    synchronized void register() {
+        if (registered) return;
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mbs.isRegistered(objectName)) {
+                mbs.registerMBean(this, objectName);
+            }
+            registered = true;
+        } catch (Exception e) {
+            System.err.println("注册JMX指标失败: " + e.getMessage());
+        }
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    /**
+     * 记录一帧
+     * @param frameNanos 实际帧间隔（相邻两帧开始时间之差，含节奏等待），计入 FPS 与帧耗时直方图；首帧为 0，不计入
+     * @param workNanos 本帧工作时间（模拟与渲染，不含等待），单独统计
+     */
+    public void recordFrame(long frameNanos, long workNanos) {
+        double work = workNanos / 1_000_000.0;
+        lastWorkTimeMs = work;
+        workTimeMs = workTimeMs == 0 ? work : workTimeMs * 0.9 + work * 0.1;
+        if (frameNanos <= 0) return;
+        double ms = frameNanos / 1_000_000.0;
+        int bucket = FRAME_BUCKETS_MS.length;
+        for (int i = 0; i < FRAME_BUCKETS_MS.length; i++) {
+            if (ms <= FRAME_BUCKETS_MS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        frameBuckets.incrementAndGet(bucket);
+        frameCount++;
+        frameTimeSumMs += ms;
+        lastFrameTimeMs = ms;
+        // 指数平滑 FPS
+        double instant = ms > 0 ? 1000.0 / ms : 0;
+        fps = fps == 0 ? instant : fps * 0.9 + instant * 0.1;
+    }
+
+    /**
+     * 按名称统计场景实体数量，每秒最多采样一次；未到采样时间时不访问对象列表
+     */
+    public void sampleEntities(Scene scene) {
+        long now = System.nanoTime();
+        if (now - lastEntitySample < ENTITY_SAMPLE_INTERVAL_NANOS) return;
+        lastEntitySample = now;
+
+        List<GameObject> objects = scene.getGameObjectsView();
+        Map<String, Integer> counts = new TreeMap<>();
+        for (GameObject obj : objects) {
+            if (obj.isActive()) {
+                counts.merge(obj.getName(), 1, Integer::sum);
+            }
+        }
+        entityCounts = Collections.unmodifiableMap(counts);
+        totalEntities = objects.size();
+    }
+
+    /**
+     * 记录物理系统批次与线程池使用情况
+     */
+    public void recordPhysics(int batchCount, int batchSize, int activeThreads, int queuedTasks) {
+        lastPhysicsBatchCount = batchCount;
+        lastPhysicsBatchSize = batchSize;
+        poolActiveThreads = activeThreads;
+        poolQueuedTasks = queuedTasks;
+    }
+
+    /**
+     * 记录录制服务状态
+     */
+    public void recordRecording(int queueDepth, long bytesWritten, long droppedLines) {
+        recordingQueueDepth = queueDepth;
+        recordingBytesWritten = bytesWritten;
+        recordingDroppedLines = droppedLines;
+    }
+
+    /**
+     * 记录渲染队列上一帧提交与剔除的命令数
+     */
+    public void recordRender(int submitted, int culled) {
+        renderSubmitted = submitted;
+        renderCulled = culled;
+    }
+
+    /**
+     * 记录两次交换之间的实测间隔与当前交换间隔；平均间隔与抖动（平均绝对偏差）做指数平滑
+     */
+    public void recordPresent(long intervalNanos, int swapInterval) {
+        this.swapInterval = swapInterval;
+        if (intervalNanos <= 0) return;
+        double ms = intervalNanos / 1_000_000.0;
+        lastPresentIntervalMs = ms;
+        if (presentIntervalMs == 0) {
+            presentIntervalMs = ms;
+        } else {
+            presentJitterMs = presentJitterMs * 0.9 + Math.abs(ms - presentIntervalMs) * 0.1;
+            presentIntervalMs = presentIntervalMs * 0.9 + ms * 0.1;
+        }
+    }
+
+    /**
+     * 开始新的回放时清零偏差统计，最大偏差只反映当前回放
+     */
+    public void resetReplayDrift() {
+        replayLastDrift = 0;
+        replayMaxDrift = 0;
+    }
+
+    /**
+     * 记录回放关键帧矫正的位置偏差
+     */
+    public void recordReplayDrift(double drift) {
+        replayLastDrift = drift;
+        if (drift > replayMaxDrift) {
+            replayMaxDrift = drift;
+        }
+    }
+
+    double getFrameTimeSumMs() {
+        return frameTimeSumMs;
+    }
+
+    long[] getFrameBucketCounts() {
+        long[] counts = new long[frameBuckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = frameBuckets.get(i);
+        }
+        return counts;
+    }
+
+    // MXBean
+    @Override
+    public double getFps() {
+        return fps;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public double getLastFrameTimeMs() {
+        return lastFrameTimeMs;
+    }
+
+    @Override
+    public double getLastWorkTimeMs() {
+        return lastWorkTimeMs;
+    }
+
+    @Override
+    public double getWorkTimeMs() {
+        return workTimeMs;
+    }
+
+    @Override
+    public Map<String, Long> getFrameTimeHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        long[] counts = getFrameBucketCounts();
+        for (int i = 0; i < FRAME_BUCKETS_MS.length; i++) {
+            histogram.put("le_" + FRAME_BUCKETS_MS[i] + "ms", counts[i]);
+        }
+        histogram.put("le_inf", counts[FRAME_BUCKETS_MS.length]);
+        return histogram;
+    }
+
+    @Override
+    public Map<String, Integer> getEntityCounts() {
+        return entityCounts;
+    }
+
+    @Override
+    public int getTotalEntities() {
+        return totalEntities;
+    }
+
+    @Override
+    public int getPoolActiveThreads() {
+        return poolActiveThreads;
+    }
+
+    @Override
+    public int getPoolQueuedTasks() {
+        return poolQueuedTasks;
+    }
+
+    @Override
+    public int getLastPhysicsBatchCount() {
+        return lastPhysicsBatchCount;
+    }
+
+    @Override
+    public int getLastPhysicsBatchSize() {
+        return lastPhysicsBatchSize;
+    }
+
+    @Override
+    public int getRecordingQueueDepth() {
+        return recordingQueueDepth;
+    }
+
+    @Override
+    public long getRecordingBytesWritten() {
+        return recordingBytesWritten;
+    }
+
+    @Override
+    public long getRecordingDroppedLines() {
+        return recordingDroppedLines;
+    }
+
+    @Override
+    public int getRenderSubmitted() {
+        return renderSubmitted;
+    }
+
+    @Override
+    public int getRenderCulled() {
+        return renderCulled;
+    }
+
+    @Override
+    public double getLastPresentIntervalMs() {
+        return lastPresentIntervalMs;
+    }
+
+    @Override
+    public double getPresentIntervalMs() {
+        return presentIntervalMs;
+    }
+
+    @Override
+    public double getPresentJitterMs() {
+        return presentJitterMs;
+    }
+
+    @Override
+    public int getSwapInterval() {
+        return swapInterval;
+    }
+
+    @Override
+    public double getReplayLastDrift() {
+        return replayLastDrift;
+    }
+
+    @Override
+    public double getReplayMaxDrift() {
+        return replayMaxDrift;
+    }
+}
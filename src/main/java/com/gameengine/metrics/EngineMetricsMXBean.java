@@ -0,0 +1,40 @@
+package com.gameengine.metrics;
+
+import java.util.Map;
+
+/**
+ * 引擎指标的 JMX 接口
+ * 采用 MXBean，Map 属性映射为 TabularData，JConsole 等通用控制台可以直接展开查看
+ */
+public interface EngineMetricsMXBean {
+    double getFps();
+    long getFrameCount();
+    double getLastFrameTimeMs();
+    double getLastWorkTimeMs();
+    double getWorkTimeMs();
+    Map<String, Long> getFrameTimeHistogram();
+
+    Map<String, Integer> getEntityCounts();
+    int getTotalEntities();
+
+    int getPoolActiveThreads();
+    int getPoolQueuedTasks();
+
+    int getLastPhysicsBatchCount();
+    int getLastPhysicsBatchSize();
+
+    int getRecordingQueueDepth();
+    long getRecordingBytesWritten();
+    long getRecordingDroppedLines();
+
+    int getRenderSubmitted();
+    int getRenderCulled();
+
+    double getLastPresentIntervalMs();
+    double getPresentIntervalMs();
+    double getPresentJitterMs();
+    int getSwapInterval();
+
+    double getReplayLastDrift();
+    double getReplayMaxDrift();
+}
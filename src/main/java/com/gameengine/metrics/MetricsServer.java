@@ -0,0 +1,157 @@
+package com.gameengine.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于 JDK 内置 HttpServer 的指标服务，只监听本机回环地址
+ * GET /metrics 返回 Prometheus 文本格式
+ */
+public class MetricsServer {
+    public static final int DEFAULT_PORT = 9404;
+
+    private final EngineMetrics metrics;
+    private final int port;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsServer(EngineMetrics metrics, int port) {
+        this.metrics = metrics;
+        this.port = port;
+    }
+
+    public boolean start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "metrics-http");
+                t.setDaemon(true);
+                return t;
+            });
+            server.setExecutor(executor);
+            server.createContext("/metrics", this::handleMetrics);
+            server.start();
+            System.out.println("指标服务已启动: http://localhost:" + getPort() + "/metrics");
+            return true;
+        } catch (IOException e) {
+            System.err.println("指标服务启动失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * 实际监听端口（port 为 0 时由系统分配）
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 生成 Prometheus 文本格式的指标
+     */
+    String render() {
+        StringBuilder sb = new StringBuilder(2048);
+
+        gauge(sb, "gameengine_fps", "Smoothed frames per second", metrics.getFps());
+
+        sb.append("# HELP gameengine_frame_time_ms Frame interval histogram in milliseconds, including the pacing wait\n");
+        sb.append("# TYPE gameengine_frame_time_ms histogram\n");
+        long[] counts = metrics.getFrameBucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < EngineMetrics.FRAME_BUCKETS_MS.length; i++) {
+            cumulative += counts[i];
+            sb.append("gameengine_frame_time_ms_bucket{le=\"").append(EngineMetrics.FRAME_BUCKETS_MS[i]).append("\"} ")
+              .append(cumulative).append('\n');
+        }
+        cumulative += counts[EngineMetrics.FRAME_BUCKETS_MS.length];
+        sb.append("gameengine_frame_time_ms_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        sb.append("gameengine_frame_time_ms_sum ").append(format(metrics.getFrameTimeSumMs())).append('\n');
+        sb.append("gameengine_frame_time_ms_count ").append(cumulative).append('\n');
+        gauge(sb, "gameengine_frame_work_ms", "Simulation and render time of the last frame, excluding the pacing wait", metrics.getLastWorkTimeMs());
+        gauge(sb, "gameengine_frame_work_avg_ms", "Smoothed frame work time", metrics.getWorkTimeMs());
+
+        sb.append("# HELP gameengine_entities Active entities per tag\n");
+        sb.append("# TYPE gameengine_entities gauge\n");
+        for (Map.Entry<String, Integer> entry : metrics.getEntityCounts().entrySet()) {
+            sb.append("gameengine_entities{tag=\"").append(escape(entry.getKey())).append("\"} ")
+              .append(entry.getValue()).append('\n');
+        }
+        gauge(sb, "gameengine_entities_total", "All objects in the current scene", metrics.getTotalEntities());
+
+        gauge(sb, "gameengine_pool_active_threads", "Active threads in the physics pool", metrics.getPoolActiveThreads());
+        gauge(sb, "gameengine_pool_queued_tasks", "Queued tasks in the physics pool", metrics.getPoolQueuedTasks());
+        gauge(sb, "gameengine_physics_batches", "Physics batches in the last frame", metrics.getLastPhysicsBatchCount());
+        gauge(sb, "gameengine_physics_batch_size", "Physics batch size in the last frame", metrics.getLastPhysicsBatchSize());
+
+        gauge(sb, "gameengine_recording_queue_depth", "Lines waiting in the recording queue", metrics.getRecordingQueueDepth());
+        counter(sb, "gameengine_recording_bytes_written_total", "Bytes written by the recording writer", metrics.getRecordingBytesWritten());
+        counter(sb, "gameengine_recording_dropped_lines_total", "Lines dropped because the queue was full", metrics.getRecordingDroppedLines());
+
+        gauge(sb, "gameengine_render_commands", "Draw commands submitted in the last frame", metrics.getRenderSubmitted());
+        gauge(sb, "gameengine_render_culled", "Draw commands culled in the last frame", metrics.getRenderCulled());
+
+        gauge(sb, "gameengine_present_interval_ms", "Measured interval between the last two buffer swaps", metrics.getLastPresentIntervalMs());
+        gauge(sb, "gameengine_present_interval_avg_ms", "Smoothed interval between buffer swaps", metrics.getPresentIntervalMs());
+        gauge(sb, "gameengine_present_jitter_ms", "Smoothed deviation of the swap interval", metrics.getPresentJitterMs());
+        gauge(sb, "gameengine_swap_interval", "Swap interval in effect (1 vsync, 0 immediate, -1 adaptive)", metrics.getSwapInterval());
+
+        gauge(sb, "gameengine_replay_drift_px", "Position drift at the last keyframe correction", metrics.getReplayLastDrift());
+        gauge(sb, "gameengine_replay_max_drift_px", "Max position drift seen during replay", metrics.getReplayMaxDrift());
+        return sb.toString();
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, double value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        sb.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, long value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,98 @@
+package com.gameengine.recording;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * 只交付完整行的输入流，包在 gzip 解压流外面
+ * 崩溃留下的 gzip 文件缺少尾部，解压到截断处会抛 EOFException；
+ * 上层的 InputStreamReader 会预读一大块，异常一抛，已解码的内容也跟着丢掉。
+ * 这里把读到的字节先留在缓冲区，只放出最后一个换行符之前的部分；
+ * 正常结束时放出剩余内容，截断时丢弃不完整的最后一行并当作文件结束。
+ */
+final class CompleteLineInputStream extends InputStream {
+    private final InputStream in;
+    private final String name;
+    private byte[] data;
+    // [pos, limit) 可交付，[limit, fill) 是尚未确认完整的行
+    private int pos;
+    private int limit;
+    private int fill;
+    private boolean eof;
+
+    CompleteLineInputStream(InputStream in, String name) {
+        this.in = in;
+        this.name = name;
+        this.data = new byte[8192];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) return -1;
+        return data[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!ensureAvailable()) return -1;
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(data, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean ensureAvailable() throws IOException {
+        while (pos == limit) {
+            if (eof) return false;
+            refill();
+        }
+        return true;
+    }
+
+    private void refill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(data, pos, data, 0, fill - pos);
+            limit -= pos;
+            fill -= pos;
+            pos = 0;
+        }
+        if (fill == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        int n;
+        try {
+            n = in.read(data, fill, data.length - fill);
+        } catch (EOFException e) {
+            System.err.println("录制文件末尾不完整，读到最后一条完整记录为止: " + name);
+            fill = limit;
+            eof = true;
+            return;
+        }
+        if (n < 0) {
+            limit = fill;
+            eof = true;
+            return;
+        }
+        int scanFrom = fill;
+        fill += n;
+        for (int i = fill - 1; i >= scanFrom; i--) {
+            if (data[i] == '\n') {
+                limit = i + 1;
+                break;
+            }
+        }
+    }
+}
@@ -1,45 +1,71 @@
 package com.gameengine.recording;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class FileRecordingStorage implements RecordingStorage {
-    private BufferedWriter writer;
+    private FileOutputStream file;
+    private BufferedOutputStream out;
     private String currentPath;
 
     @Override
     public void openWriter(String path) throws IOException {
         this.currentPath = path;
-        File file = new File(path);
-        file.getParentFile().mkdirs();
-        this.writer = new BufferedWriter(new FileWriter(file));
+        File f = new File(path);
+        if (f.getParentFile() != null) {
+            f.getParentFile().mkdirs();
+        }
+        this.file = new FileOutputStream(f);
+        this.out = new BufferedOutputStream(file, 64 * 1024);
     }
 
     @Override
     public void writeLine(String line) throws IOException {
-        if (writer != null) {
-            writer.write(line);
-            writer.newLine();
+        if (out != null) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void writeBytes(byte[] data, int offset, int length) throws IOException {
+        if (out != null) {
+            out.write(data, offset, length);
+        }
+    }
+
+    /**
+     * 刷新缓冲区，sync 为 true 时强制落盘
+     */
+    @Override
+    public void flush(boolean sync) throws IOException {
+        if (out != null) {
+            out.flush();
+            if (sync) {
+                file.getFD().sync();
+            }
         }
     }
 
     @Override
     public void closeWriter() {
-        if (writer != null) {
+        if (out != null) {
             try {
-                writer.close();
+                out.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
-            writer = null;
+            out = null;
+            file = null;
         }
     }
 
     @Override
     public Iterable<String> readLines(String path) throws IOException {
         List<String> lines = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+        try (BufferedReader reader = RecordingParser.openReader(path)) {
             String line;
             while ((line = reader.readLine()) != null) {
                 lines.add(line);
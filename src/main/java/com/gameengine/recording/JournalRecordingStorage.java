@@ -0,0 +1,181 @@
+package com.gameengine.recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * 以日志格式写入录制文件，每次写入是一条带长度与 CRC32C 的记录
+ * 每隔 checkpointIntervalMs 写一条 CHECKPOINT 并强制落盘，再把检查点偏移写回文件头，恢复时从这里开始校验；
+ * 打开已有文件时先做尾部恢复再追加
+ */
+public class JournalRecordingStorage implements RecordingStorage {
+    private final boolean deflate;
+    private final long checkpointIntervalNanos;
+    private final ByteBuffer recordHeader;
+    private final ByteBuffer checkpoint;
+    private final ByteBuffer checkpointPointer;
+    private FileChannel channel;
+    // 版本 1 的文件头没有检查点指针
+    private boolean pointerInHeader;
+    private Deflater deflater;
+    private long lastCheckpointNanos;
+    private long dataBytes;
+    private int records;
+
+    /**
+     * @param deflate 写入方是否已按记录压缩（文件头标志，writeLine 会自行压缩）
+     */
+    public JournalRecordingStorage(boolean deflate, int checkpointIntervalMs) {
+        this.deflate = deflate;
+        this.checkpointIntervalNanos = Math.max(1, checkpointIntervalMs) * 1_000_000L;
+        this.recordHeader = ByteBuffer.allocate(RecordingJournal.RECORD_HEADER_SIZE);
+        this.checkpoint = ByteBuffer.allocate(20);
+        this.checkpointPointer = ByteBuffer.allocate(Long.BYTES);
+    }
+
+    @Override
+    public void openWriter(String path) throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        boolean existing = Files.exists(file) && Files.size(file) > 0;
+        if (existing && RecordingJournal.recover(file) < 0) {
+            throw new IOException("已存在的文件不是录制日志: " + path);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (existing) {
+            ByteBuffer head = ByteBuffer.allocate(RecordingJournal.V1_HEADER_SIZE);
+            channel.read(head, 0);
+            pointerInHeader = head.get(4) >= 2;
+            channel.position(channel.size());
+        } else {
+            channel.write(RecordingJournal.header(deflate));
+            pointerInHeader = true;
+        }
+        if (deflate) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, false);
+        }
+        lastCheckpointNanos = System.nanoTime();
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (deflate) {
+            bytes = RecordingJournal.deflate(deflater, bytes, 0, bytes.length);
+        }
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeBytes(byte[] data, int offset, int length) throws IOException {
+        if (channel == null) return;
+        writeRecord(RecordingJournal.TYPE_DATA, ByteBuffer.wrap(data, offset, length), data, offset, length);
+        dataBytes += length;
+        records++;
+    }
+
+    /**
+     * 记录直接写入 FileChannel，进程崩溃后已写入的记录由操作系统保留；
+     * sync 为 true 或到达检查点间隔时写检查点并强制落盘
+     */
+    @Override
+    public void flush(boolean sync) throws IOException {
+        if (channel == null) return;
+        long now = System.nanoTime();
+        if (sync || now - lastCheckpointNanos >= checkpointIntervalNanos) {
+            long offset = writeCheckpoint();
+            channel.force(false);
+            updateCheckpointPointer(offset);
+            lastCheckpointNanos = now;
+        }
+    }
+
+    @Override
+    public void closeWriter() {
+        if (channel == null) return;
+        try {
+            long offset = writeCheckpoint();
+            channel.force(true);
+            updateCheckpointPointer(offset);
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("关闭录制日志失败: " + e.getMessage());
+        }
+        channel = null;
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
+
+    /**
+     * @return 检查点记录在文件中的偏移
+     */
+    private long writeCheckpoint() throws IOException {
+        long offset = channel.position();
+        checkpoint.clear();
+        checkpoint.putLong(System.currentTimeMillis()).putLong(dataBytes).putInt(records).flip();
+        byte[] payload = checkpoint.array();
+        writeRecord(RecordingJournal.TYPE_CHECKPOINT, checkpoint, payload, 0, checkpoint.limit());
+        return offset;
+    }
+
+    /**
+     * 检查点落盘之后才更新指针，指针落盘前崩溃时恢复仍从上一个检查点开始；
+     * 按位置写入，不影响追加位置
+     */
+    private void updateCheckpointPointer(long offset) throws IOException {
+        if (!pointerInHeader) return;
+        checkpointPointer.clear();
+        checkpointPointer.putLong(offset).flip();
+        long position = RecordingJournal.CHECKPOINT_POINTER_OFFSET;
+        while (checkpointPointer.hasRemaining()) {
+            position += channel.write(checkpointPointer, position);
+        }
+    }
+
+    private void writeRecord(byte type, ByteBuffer payload, byte[] array, int offset, int length) throws IOException {
+        recordHeader.clear();
+        recordHeader.putInt(length).putInt(RecordingJournal.crc(type, array, offset, length)).put(type).flip();
+        ByteBuffer[] parts = {recordHeader, payload};
+        do {
+            channel.write(parts);
+        } while (recordHeader.hasRemaining() || payload.hasRemaining());
+    }
+
+    @Override
+    public Iterable<String> readLines(String path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (var reader = RecordingParser.openReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Override
+    public List<File> listRecordings() {
+        List<File> recordings = new ArrayList<>();
+        File[] files = new File("recordings").listFiles((dir, name) -> name.endsWith(".rec"));
+        if (files != null) {
+            for (File file : files) {
+                recordings.add(file);
+            }
+        }
+        return recordings;
+    }
+}
@@ -7,6 +7,8 @@ import java.util.List;
 public class KeyFrame {
     public double timestamp;
     public List<EnemyInfo> enemyInfos;
+    public boolean delta;   // 增量帧：enemyInfos 只包含有变化的敌人
+    public int[] goneIds;   // 增量帧中消失的敌人ID
     public List<PlayerInfo> playerInfos;
     
     public static class EnemyInfo {
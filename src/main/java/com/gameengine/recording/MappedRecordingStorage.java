@@ -0,0 +1,308 @@
+package com.gameengine.recording;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 内存映射的分段录制存储
+ * 数据写入预分配的定长段文件（path.000、path.001 ...），写满后滚动到下一段；
+ * 每段开头 8 字节记录已提交长度，写入只是内存拷贝，flush 时更新段头长度提交本组数据，不产生系统调用。
+ * path 本身是段索引：魔数行 + 每段一行「文件名 字节数 起始行号」，每次滚动时重写，
+ * 进程崩溃后仍能按索引与段头长度读出已提交的数据。
+ * 段写完后截掉未用的预分配空间；截断失败时文件保留段大小，读取只以段头长度为准。
+ */
+public class MappedRecordingStorage implements RecordingStorage {
+    static final byte[] INDEX_MAGIC = {'G', 'S', 'E', 'G'};
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private final int segmentSize;
+    private final List<Segment> segments;
+    private Path indexPath;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long lines;
+
+    /**
+     * 段索引中的一项
+     */
+    private static final class Segment {
+        final String name;
+        long bytes;
+        final long firstLine;
+
+        Segment(String name, long bytes, long firstLine) {
+            this.name = name;
+            this.bytes = bytes;
+            this.firstLine = firstLine;
+        }
+    }
+
+    public MappedRecordingStorage(int segmentSize) {
+        this.segmentSize = Math.max(MIN_SEGMENT_SIZE, segmentSize);
+        this.segments = new ArrayList<>();
+    }
+
+    @Override
+    public void openWriter(String path) throws IOException {
+        indexPath = Path.of(path);
+        if (indexPath.getParent() != null) {
+            Files.createDirectories(indexPath.getParent());
+        }
+        segments.clear();
+        lines = 0;
+        nextSegment();
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 块能放进一个新段时整体换段，保持行不跨段；超过段大小的块才拆分
+     */
+    @Override
+    public void writeBytes(byte[] data, int offset, int length) throws IOException {
+        if (mapped == null) return;
+        lines += countLines(data, offset, length);
+        while (length > 0) {
+            if (mapped.remaining() < length && mapped.position() > SEGMENT_HEADER_SIZE
+                    && length <= segmentSize - SEGMENT_HEADER_SIZE) {
+                nextSegment();
+            }
+            int n = Math.min(length, mapped.remaining());
+            mapped.put(data, offset, n);
+            offset += n;
+            length -= n;
+            if (length > 0) {
+                nextSegment();
+            }
+        }
+    }
+
+    /**
+     * 更新段头长度，提交到目前为止写入的数据；读取方和崩溃恢复只看得到已提交的部分，不会读到半组数据。
+     * 数据已在页缓存中，进程退出后由操作系统写回，sync 为 true 时才强制落盘
+     */
+    @Override
+    public void flush(boolean sync) throws IOException {
+        if (mapped == null) return;
+        commit();
+        if (sync) {
+            mapped.force();
+        }
+    }
+
+    private void commit() {
+        mapped.putLong(0, mapped.position() - SEGMENT_HEADER_SIZE);
+    }
+
+    @Override
+    public void closeWriter() {
+        if (mapped == null) return;
+        try {
+            finishSegment();
+            writeIndex();
+        } catch (IOException e) {
+            System.err.println("关闭映射录制文件失败: " + e.getMessage());
+        }
+        mapped = null;
+    }
+
+    private void nextSegment() throws IOException {
+        if (mapped != null) {
+            finishSegment();
+        }
+        String name = indexPath.getFileName() + String.format(".%03d", segments.size());
+        segments.add(new Segment(name, 0, lines));
+        // 先写索引再映射新段，索引中总能找到所有段
+        writeIndex();
+        channel = FileChannel.open(indexPath.resolveSibling(name),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        mapped.putLong(0, 0);
+        mapped.position(SEGMENT_HEADER_SIZE);
+    }
+
+    /**
+     * 提交并落盘当前段，关闭通道后重新打开，截掉未用的预分配空间
+     */
+    private void finishSegment() throws IOException {
+        Segment segment = segments.get(segments.size() - 1);
+        segment.bytes = mapped.position() - SEGMENT_HEADER_SIZE;
+        commit();
+        mapped.force();
+        mapped = null;
+        channel.close();
+        channel = null;
+        Path file = indexPath.resolveSibling(segment.name);
+        try (FileChannel reopened = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            reopened.truncate(SEGMENT_HEADER_SIZE + segment.bytes);
+        } catch (IOException e) {
+            // 映射要等缓冲区被回收才真正释放，Windows 在此之前不允许截断；段头长度仍然有效
+            System.err.println("截断录制段失败，保留预分配大小: " + file + ", " + e.getMessage());
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(new String(INDEX_MAGIC, StandardCharsets.US_ASCII)).append(" 1\n");
+        for (Segment segment : segments) {
+            sb.append(segment.name).append(' ').append(segment.bytes).append(' ').append(segment.firstLine).append('\n');
+        }
+        Files.writeString(indexPath, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static int countLines(byte[] data, int offset, int length) {
+        int count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] == '\n') count++;
+        }
+        return count;
+    }
+
+    /**
+     * 文件开头是否为段索引魔数
+     */
+    public static boolean isSegmentIndex(byte[] head) {
+        if (head.length < INDEX_MAGIC.length) return false;
+        for (int i = 0; i < INDEX_MAGIC.length; i++) {
+            if (head[i] != INDEX_MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按索引顺序拼接各段数据，段内容只读映射，直接从页缓存读取
+     * 段长度以段头为准（最后一段在崩溃时索引中的字节数可能过期，未截断的段文件大小也不可靠）
+     */
+    public static InputStream openSegments(Path indexPath) throws IOException {
+        List<InputStream> parts = new ArrayList<>();
+        for (Path file : segmentFiles(indexPath)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long used = committedLength(channel);
+                if (used < 0) break;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, SEGMENT_HEADER_SIZE, used);
+                parts.add(new BufferStream(buffer));
+            }
+        }
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    /**
+     * 段头记录的已提交长度，不超过文件实际大小；文件不足段头大小时返回 -1
+     */
+    private static long committedLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < SEGMENT_HEADER_SIZE) return -1;
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        channel.read(header, 0);
+        return Math.max(0, Math.min(header.getLong(0), size - SEGMENT_HEADER_SIZE));
+    }
+
+    /**
+     * 录制数据的总字节数：段索引返回各段已提交长度之和，其他文件返回文件大小
+     */
+    public static long dataLength(Path path) throws IOException {
+        byte[] head = new byte[INDEX_MAGIC.length];
+        try (InputStream in = Files.newInputStream(path)) {
+            in.readNBytes(head, 0, head.length);
+        }
+        if (!isSegmentIndex(head)) {
+            return Files.size(path);
+        }
+        long total = 0;
+        for (Path file : segmentFiles(path)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long used = committedLength(channel);
+                if (used < 0) break;
+                total += used;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 索引中列出的段文件，遇到缺失的段即停止
+     */
+    private static List<Path> segmentFiles(Path indexPath) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<String> indexLines = Files.readAllLines(indexPath, StandardCharsets.UTF_8);
+        for (int i = 1; i < indexLines.size(); i++) {
+            String line = indexLines.get(i).trim();
+            if (line.isEmpty()) continue;
+            Path file = indexPath.resolveSibling(line.substring(0, line.indexOf(' ')));
+            if (!Files.exists(file)) break;
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * 读取 ByteBuffer 的输入流，不复制底层映射
+     */
+    private static final class BufferStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    @Override
+    public Iterable<String> readLines(String path) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (BufferedReader reader = RecordingParser.openReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<File> listRecordings() {
+        List<File> recordings = new ArrayList<>();
+        File[] files = new File("recordings").listFiles((dir, name) -> name.endsWith(".mrec"));
+        if (files != null) {
+            Collections.addAll(recordings, files);
+        }
+        return recordings;
+    }
+}
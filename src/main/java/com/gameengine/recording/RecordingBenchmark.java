@@ -0,0 +1,307 @@
+package com.gameengine.recording;
+
+import com.gameengine.components.HealthComponent;
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+import com.gameengine.input.InputManager;
+import com.gameengine.math.Vector2;
+import com.gameengine.scene.Scene;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 录制吞吐基准（无窗口运行）
+ * 用合成场景（N 个匀速移动、偶尔变向的敌人 + 1 个玩家 + 周期性按键）驱动 RecordingService，
+ * 对每种存储格式测量主线程单帧开销、关键帧开销、写出吞吐、队列高水位与丢弃行数，
+ * 结果写入 CSV；任一用例 p99 单帧开销超过预算或发生丢弃时以非零状态退出，可作为回归门禁。
+ *
+ * mvn -q exec:java -Dexec.mainClass=com.gameengine.recording.RecordingBenchmark
+ *     -Dexec.args="--enemies 100,1000,10000,50000 --frames 600 --budget-ms 2 --out recording_benchmark.csv"
+ */
+public class RecordingBenchmark {
+    private static final float FRAME_DT = 1.0f / 60.0f;
+    private static final int[] INPUT_KEYS = {87, 65, 83, 68, 32};
+    private static final String[] MODES = {"json", "gzip", "journal", "journal_deflate", "mapped"};
+
+    private int[] enemyCounts = {100, 1000, 10000, 50000};
+    private String[] modes = MODES;
+    private int frames = 600;
+    private double budgetMs = 2.0;
+    private boolean paced = false;
+    private String output = "recording_benchmark.csv";
+
+    /**
+     * 单个用例的测量结果
+     */
+    private static final class Result {
+        String mode;
+        int enemies;
+        int frames;
+        double meanMs, p50Ms, p99Ms, maxMs;
+        double keyframeMs;
+        long bytesWritten;
+        double drainMs;
+        double mbPerSec;
+        int queueHighWater;
+        long dropped;
+        boolean ok;
+    }
+
+    public static void main(String[] args) {
+        RecordingBenchmark benchmark = new RecordingBenchmark();
+        try {
+            benchmark.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("参数错误: " + e.getMessage());
+            System.exit(2);
+        }
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--paced")) {
+                paced = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("缺少参数值: " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--enemies" -> enemyCounts = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                case "--modes" -> modes = value.split(",");
+                case "--frames" -> frames = Integer.parseInt(value);
+                case "--budget-ms" -> budgetMs = Double.parseDouble(value);
+                case "--out" -> output = value;
+                default -> throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+        for (String mode : modes) {
+            if (!Arrays.asList(MODES).contains(mode)) {
+                throw new IllegalArgumentException("未知存储格式: " + mode);
+            }
+        }
+    }
+
+    /**
+     * 运行全部用例，全部达标时返回 true
+     */
+    public boolean run() {
+        List<Result> results = new ArrayList<>();
+        Path dir;
+        try {
+            dir = Files.createTempDirectory("recording-bench");
+        } catch (IOException e) {
+            System.err.println("创建临时目录失败: " + e.getMessage());
+            return false;
+        }
+        // 预热一次，避免首个用例包含 JIT 编译时间
+        try {
+            runCase(modes[0], 1000, dir);
+        } catch (IOException e) {
+            System.err.println("基准预热失败: " + e.getMessage());
+            return false;
+        }
+        for (int enemies : enemyCounts) {
+            for (String mode : modes) {
+                try {
+                    Result result = runCase(mode, enemies, dir);
+                    results.add(result);
+                    System.out.println(String.format(Locale.ROOT,
+                            "%-16s %6d 敌人  单帧 p50 %.3f ms  p99 %.3f ms  max %.3f ms  关键帧 %.3f ms  %.1f MB/s  高水位 %d  丢弃 %d%s",
+                            mode, enemies, result.p50Ms, result.p99Ms, result.maxMs, result.keyframeMs,
+                            result.mbPerSec, result.queueHighWater, result.dropped, result.ok ? "" : "  [超出预算]"));
+                } catch (IOException e) {
+                    System.err.println("基准用例失败: " + mode + "/" + enemies + ", " + e.getMessage());
+                    return false;
+                }
+            }
+        }
+        deleteQuietly(dir.toFile());
+        writeReport(results);
+        return results.stream().allMatch(r -> r.ok);
+    }
+
+    private Result runCase(String mode, int enemies, Path dir) throws IOException {
+        String path = dir.resolve(mode + "_" + enemies + extension(mode)).toString();
+        RecordingConfig config = new RecordingConfig(path);
+        config.compress = mode.equals("gzip") || mode.equals("journal_deflate");
+        config.journal = mode.startsWith("journal");
+        config.mapped = mode.equals("mapped");
+
+        Scene scene = buildScene(enemies);
+        Random random = new Random(enemies);
+        InputManager input = InputManager.getInstance();
+        RecordingService service = new RecordingService(config);
+
+        long[] frameNanos = new long[frames];
+        int highWater = 0;
+        long begin = System.nanoTime();
+        service.start(scene, 800, 600);
+        for (int frame = 0; frame < frames; frame++) {
+            long frameStart = System.nanoTime();
+            simulate(scene, random, input, frame);
+
+            long t0 = System.nanoTime();
+            service.update(FRAME_DT, scene, input);
+            frameNanos[frame] = System.nanoTime() - t0;
+
+            highWater = Math.max(highWater, service.getQueueDepth());
+            input.update();
+            if (paced) {
+                long remain = (long) (FRAME_DT * 1_000_000_000L) - (System.nanoTime() - frameStart);
+                if (remain > 0) {
+                    sleepNanos(remain);
+                }
+            }
+        }
+
+        // 关键帧是最重的一次写出，单独计时
+        int keyframes = 5;
+        long keyframeStart = System.nanoTime();
+        for (int i = 0; i < keyframes; i++) {
+            service.createKeyframe(scene);
+            highWater = Math.max(highWater, service.getQueueDepth());
+        }
+        long keyframeNanos = System.nanoTime() - keyframeStart;
+
+        long drainStart = System.nanoTime();
+        service.stop();
+        long end = System.nanoTime();
+        releaseInput(input);
+        scene.clear();
+
+        Result result = new Result();
+        result.mode = mode;
+        result.enemies = enemies;
+        result.frames = frames;
+        long[] sorted = frameNanos.clone();
+        Arrays.sort(sorted);
+        result.meanMs = Arrays.stream(frameNanos).average().orElse(0) / 1e6;
+        result.p50Ms = percentile(sorted, 0.50) / 1e6;
+        result.p99Ms = percentile(sorted, 0.99) / 1e6;
+        result.maxMs = sorted[sorted.length - 1] / 1e6;
+        result.keyframeMs = keyframeNanos / 1e6 / keyframes;
+        result.bytesWritten = service.getBytesWritten();
+        result.drainMs = (end - drainStart) / 1e6;
+        result.mbPerSec = result.bytesWritten / 1e6 / Math.max(1e-9, (end - begin) / 1e9);
+        result.queueHighWater = highWater;
+        result.dropped = service.getDroppedLines();
+        result.ok = result.p99Ms <= budgetMs && result.dropped == 0;
+        return result;
+    }
+
+    /**
+     * 合成场景：敌人随机分布并匀速移动，另有一个带血量的玩家
+     */
+    private static Scene buildScene(int enemies) {
+        Scene scene = new Scene("RecordingBenchmark");
+        Random random = new Random(42);
+        for (int i = 0; i < enemies; i++) {
+            GameObject enemy = new GameObject("Enemy");
+            enemy.addComponent(new TransformComponent(new Vector2(random.nextFloat() * 800, random.nextFloat() * 600)));
+            PhysicsComponent physics = enemy.addComponent(new PhysicsComponent(1.0f));
+            physics.setVelocity(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100);
+            scene.addGameObject(enemy);
+        }
+        GameObject player = new GameObject("Player");
+        player.addComponent(new TransformComponent(new Vector2(400, 300)));
+        player.addComponent(new HealthComponent(100, true));
+        scene.addGameObject(player);
+        // 把待添加对象并入场景
+        scene.update(0.0f);
+        return scene;
+    }
+
+    /**
+     * 推进一帧：敌人按速度移动，约 2% 的敌人变向（产生增量），每 10 帧切换一次按键
+     */
+    private static void simulate(Scene scene, Random random, InputManager input, int frame) {
+        for (GameObject obj : scene.getGameObjects()) {
+            PhysicsComponent physics = obj.getPhysics();
+            TransformComponent transform = obj.getTransform();
+            if (physics == null || transform == null) continue;
+            if (random.nextInt(50) == 0) {
+                physics.setVelocity(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100);
+            }
+            Vector2 velocity = physics.getVelocity();
+            transform.translate(new Vector2(velocity.x * FRAME_DT, velocity.y * FRAME_DT));
+        }
+        if (frame % 10 == 0) {
+            int key = INPUT_KEYS[(frame / 10) % INPUT_KEYS.length];
+            input.postKeyEvent(key, (frame / 10) % 2 == 0);
+        }
+        input.processEvents();
+    }
+
+    private static void releaseInput(InputManager input) {
+        for (int key : INPUT_KEYS) {
+            input.postKeyEvent(key, false);
+        }
+        input.processEvents();
+        input.update();
+    }
+
+    private static String extension(String mode) {
+        return switch (mode) {
+            case "gzip" -> ".jsonl.gz";
+            case "journal", "journal_deflate" -> ".rec";
+            case "mapped" -> ".mrec";
+            default -> ".jsonl";
+        };
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteQuietly(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * 输出 CSV 报告
+     */
+    private void writeReport(List<Result> results) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(output))) {
+            writer.println("mode,enemies,frames,update_mean_ms,update_p50_ms,update_p99_ms,update_max_ms,"
+                    + "keyframe_ms,bytes_written,mb_per_s,drain_ms,queue_high_water,dropped,budget_ms,ok");
+            for (Result r : results) {
+                writer.println(String.format(Locale.ROOT, "%s,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%d,%.3f,%.3f,%d,%d,%.3f,%b",
+                        r.mode, r.enemies, r.frames, r.meanMs, r.p50Ms, r.p99Ms, r.maxMs, r.keyframeMs,
+                        r.bytesWritten, r.mbPerSec, r.drainMs, r.queueHighWater, r.dropped, budgetMs, r.ok));
+            }
+            System.out.println("录制基准结果已输出到: " + output);
+        } catch (IOException e) {
+            System.err.println("输出录制基准结果失败: " + e.getMessage());
+        }
+    }
+}
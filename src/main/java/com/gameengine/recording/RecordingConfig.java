@@ -3,10 +3,20 @@ package com.gameengine.recording;
 public class RecordingConfig {
     public String outputPath;
     public float keyframeIntervalSec = 0.5f;
+    public float iframeIntervalSec = 2.0f; // 敌人完整帧间隔，其余采样只写增量
     public int sampleFps = 30;
     public float positionThreshold = 0.5f; // pixels
     public int quantizeDecimals = 2;
     public int queueCapacity = 2048;
+    public int stageQueueCapacity = 64;  // 流水线阶段之间的块队列容量
+    public int flushIntervalMs = 100;    // 组提交：最长等待时间
+    public int flushBytes = 64 * 1024;   // 组提交：累计字节数
+    public boolean compress = false;     // gzip 压缩（文件名应以 .gz 结尾）
+    public boolean fsync = false;        // 每次组提交后强制落盘
+    public boolean journal = false;      // 日志格式（长度 + CRC32C 分帧，可从崩溃中恢复）
+    public int checkpointIntervalMs = 1000; // 日志检查点（强制落盘）间隔
+    public boolean mapped = false;       // 内存映射分段写入（优先于日志格式）
+    public int segmentBytes = 16 * 1024 * 1024; // 映射段大小，写满后滚动到新段
 
     public RecordingConfig(String outputPath) {
         this.outputPath = outputPath;
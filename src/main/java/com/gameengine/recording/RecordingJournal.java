@@ -0,0 +1,263 @@
+package com.gameengine.recording;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 录制日志文件格式（只追加）
+ * 文件头：魔数 "GREJ" + 版本 + 标志位 + 最后一个检查点的偏移（版本 2 起）；之后是若干记录：
+ * [int 长度][int CRC32C][byte 类型][负载]，CRC 覆盖类型与负载。
+ * DATA 记录是一次组提交的 JSON 行（可选按记录独立 deflate），
+ * CHECKPOINT 记录在落盘点写入，落盘后再把它的偏移写回文件头。进程崩溃后最多留下一条不完整的尾记录，
+ * 恢复时从文件头指向的检查点（校验通过时）往后逐条校验，截断到最后一条校验通过的记录即可继续读取或追加；
+ * 指针无效或是版本 1 的文件时从头扫描。
+ */
+public final class RecordingJournal {
+    static final byte[] MAGIC = {'G', 'R', 'E', 'J'};
+    static final byte VERSION = 2;
+    static final byte FLAG_DEFLATE = 1;
+    static final int HEADER_SIZE = 14;
+    static final int V1_HEADER_SIZE = 6;
+    static final int CHECKPOINT_POINTER_OFFSET = 6;
+    static final int RECORD_HEADER_SIZE = 9;
+    static final byte TYPE_DATA = 1;
+    static final byte TYPE_CHECKPOINT = 2;
+    // 单条记录上限，超过视为损坏
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private RecordingJournal() {}
+
+    /**
+     * 文件开头是否为日志魔数
+     */
+    public static boolean isJournal(byte[] head) {
+        if (head.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    static ByteBuffer header(boolean deflate) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE);
+        buf.put(MAGIC).put(VERSION).put(deflate ? FLAG_DEFLATE : 0).putLong(0);
+        return buf.flip();
+    }
+
+    static int headerSize(byte version) {
+        return version >= 2 ? HEADER_SIZE : V1_HEADER_SIZE;
+    }
+
+    static int crc(byte type, byte[] data, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 按记录独立压缩，每条记录可单独解压
+     */
+    public static byte[] deflate(Deflater deflater, byte[] data, int offset, int length) {
+        deflater.reset();
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+        byte[] buf = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buf);
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 扫描日志并截断到最后一条有效记录
+     * @return 截断后的文件长度；不是日志文件时返回 -1
+     */
+    public static long recover(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long valid = validLength(channel);
+            if (valid >= 0 && valid < size) {
+                System.out.println("录制日志尾部不完整，截断 " + (size - valid) + " 字节: " + path);
+                channel.truncate(valid);
+                channel.force(true);
+            }
+            return valid;
+        }
+    }
+
+    /**
+     * 只读检查：最后一条有效记录的结束位置，不修改文件
+     * @return 有效长度；不是日志文件时返回 -1
+     */
+    public static long validLength(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return validLength(channel);
+        }
+    }
+
+    private static long validLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+        int read = Math.max(0, channel.read(head, 0));
+        if (read < V1_HEADER_SIZE || !isJournal(head.array())) {
+            return -1;
+        }
+        byte version = head.get(4);
+        long valid = headerSize(version);
+        if (read < valid) {
+            return -1;
+        }
+        if (version >= 2) {
+            // 检查点之前的记录在写检查点时已经落盘，只需校验它本身
+            long checkpointEnd = recordEnd(channel, head.getLong(CHECKPOINT_POINTER_OFFSET), size, TYPE_CHECKPOINT);
+            if (checkpointEnd > 0) {
+                valid = checkpointEnd;
+            }
+        }
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long end;
+        while ((end = recordEnd(channel, valid, size, recordHeader)) > 0) {
+            valid = end;
+        }
+        return valid;
+    }
+
+    /**
+     * 校验 offset 处的记录，类型须为 type
+     * @return 记录结束位置；越界、不完整、校验失败或类型不符时返回 -1
+     */
+    private static long recordEnd(FileChannel channel, long offset, long size, byte type) throws IOException {
+        if (offset < HEADER_SIZE) return -1;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long end = recordEnd(channel, offset, size, recordHeader);
+        return end > 0 && recordHeader.get(RECORD_HEADER_SIZE - 1) == type ? end : -1;
+    }
+
+    private static long recordEnd(FileChannel channel, long offset, long size, ByteBuffer recordHeader) throws IOException {
+        if (offset + RECORD_HEADER_SIZE > size) return -1;
+        recordHeader.clear();
+        channel.read(recordHeader, offset);
+        recordHeader.flip();
+        int length = recordHeader.getInt();
+        int expected = recordHeader.getInt();
+        byte type = recordHeader.get();
+        if (length < 0 || length > MAX_RECORD_SIZE || offset + RECORD_HEADER_SIZE + length > size) {
+            return -1;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        channel.read(payload, offset + RECORD_HEADER_SIZE);
+        if (crc(type, payload.array(), 0, length) != expected) {
+            return -1;
+        }
+        return offset + RECORD_HEADER_SIZE + length;
+    }
+
+    /**
+     * 把日志中的 DATA 记录还原成连续的 JSON 行字节流
+     * 遇到不完整或校验失败的记录时视为结束，不抛异常
+     */
+    public static InputStream openPayloadStream(InputStream raw) throws IOException {
+        return new PayloadStream(new DataInputStream(raw));
+    }
+
+    private static final class PayloadStream extends InputStream {
+        private final DataInputStream in;
+        private final boolean deflate;
+        private final Inflater inflater;
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean ended;
+
+        PayloadStream(DataInputStream in) throws IOException {
+            this.in = in;
+            byte[] head = new byte[V1_HEADER_SIZE];
+            in.readFully(head);
+            if (!isJournal(head)) {
+                throw new IOException("不是录制日志文件");
+            }
+            in.skipNBytes(headerSize(head[4]) - V1_HEADER_SIZE);
+            this.deflate = (head[5] & FLAG_DEFLATE) != 0;
+            this.inflater = deflate ? new Inflater() : null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) return -1;
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (!fill()) return -1;
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            while (position >= current.length) {
+                if (ended || !nextRecord()) {
+                    ended = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean nextRecord() throws IOException {
+            try {
+                int length = in.readInt();
+                int expected = in.readInt();
+                byte type = in.readByte();
+                if (length < 0 || length > MAX_RECORD_SIZE) return false;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (crc(type, payload, 0, length) != expected) return false;
+                position = 0;
+                current = type != TYPE_DATA ? new byte[0] : deflate ? inflate(payload) : payload;
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        private byte[] inflate(byte[] payload) throws IOException {
+            inflater.reset();
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buf = new byte[8192];
+            try {
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(buf);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    out.write(buf, 0, n);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("录制日志记录解压失败", e);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflater != null) inflater.end();
+            in.close();
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.gameengine.recording;
 
+import com.gameengine.input.InputTimeline;
 import com.gameengine.input.ReplayInputManager;
 import com.gameengine.math.Vector2;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.DoubleConsumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * 录制数据解析器，解析JSON格式的录制文件
@@ -14,51 +22,75 @@ import java.util.List;
 public class RecordingParser {
     
     /**
-     * 从文件解析录制数据
+     * 打开录制文件，按文件头自动识别 gzip 压缩、日志格式与分段索引
      */
-    public static List<ReplayInputManager.InputEvent> parseRecordingFile(String filePath) throws IOException {
-        List<ReplayInputManager.InputEvent> events = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                
-                // 解析JSON行 - 支持keydown和keyup两种类型
-                if (line.contains("\"type\":\"keydown\"") || line.contains("\"type\":\"keyup\"")) {
-                    ReplayInputManager.InputEvent event = parseInputEvent(line);
-                    if (event != null) {
-                        events.add(event);
-                    }
-                }
-            }
+    public static BufferedReader openReader(String filePath) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(filePath));
+        byte[] head = peek(in);
+        if (MappedRecordingStorage.isSegmentIndex(head)) {
+            in.close();
+            in = new BufferedInputStream(MappedRecordingStorage.openSegments(Path.of(filePath)));
+            head = peek(in);
         }
-        
-        return events;
+        if (RecordingJournal.isJournal(head)) {
+            in = RecordingJournal.openPayloadStream(in);
+        } else if ((head[0] & 0xff) == 0x1f && (head[1] & 0xff) == 0x8b) {
+            // 崩溃截断的压缩文件保留截断前的完整行
+            in = new CompleteLineInputStream(new GZIPInputStream(in), filePath);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取文件头（不足时补零），不移动流位置
+     */
+    private static byte[] peek(InputStream in) throws IOException {
+        byte[] head = new byte[4];
+        in.mark(head.length);
+        in.readNBytes(head, 0, head.length);
+        in.reset();
+        return head;
     }
     
     /**
-     * 从文件解析快照数据
+     * 一次读取同时解析输入事件与快照
+     * @param progress 进度回调（0~1，按已读字节估算），可为 null
      */
-    public static List<KeyFrame> parseSnapshotFile(String filePath) throws IOException {
+    public static ReplayData parseReplay(String filePath, DoubleConsumer progress) throws IOException {
+        List<ReplayInputManager.InputEvent> events = new ArrayList<>();
         List<KeyFrame> keyframes = new ArrayList<>();
+        long total = Math.max(1, MappedRecordingStorage.dataLength(Path.of(filePath)));
+        long read = 0;
+        long reported = 0;
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+        try (BufferedReader reader = openReader(filePath)) {
             String line;
             while ((line = reader.readLine()) != null) {
+                read += line.length() + 1;
+                if (progress != null && read - reported > total / 100) {
+                    reported = read;
+                    progress.accept(Math.min(1.0, (double) read / total));
+                }
                 if (line.trim().isEmpty()) continue;
                 
-                // 解析JSON行 - 支持snapshot类型
                 if (line.contains("\"type\":\"snapshot\"")) {
                     KeyFrame keyframe = parseKeyFrame(line);
                     if (keyframe != null) {
                         keyframes.add(keyframe);
                     }
+                } else if (line.contains("\"type\":\"keydown\"") || line.contains("\"type\":\"keyup\"")) {
+                    ReplayInputManager.InputEvent event = parseInputEvent(line);
+                    if (event != null) {
+                        events.add(event);
+                    }
                 }
             }
         }
         
-        return keyframes;
+        if (progress != null) {
+            progress.accept(1.0);
+        }
+        return new ReplayData(filePath, InputTimeline.from(events), keyframes, events.size());
     }
     
     /**
@@ -130,7 +162,7 @@ public class RecordingParser {
     /**
      * 解析关键帧数据
      */
-    private static KeyFrame parseKeyFrame(String jsonLine) {
+    static KeyFrame parseKeyFrame(String jsonLine) {
         try {
             // 提取时间
             String timeStr = RecordingJson.field(jsonLine, "t");
@@ -143,6 +175,7 @@ public class RecordingParser {
             
             KeyFrame keyframe = new KeyFrame();
             keyframe.timestamp = timestamp;
+            keyframe.delta = "true".equals(RecordingJson.field(jsonLine, "delta"));
             
             // 提取敌人数组（如果存在）
             int enemiesIndex = jsonLine.indexOf("\"enemies\":");
@@ -151,7 +184,10 @@ public class RecordingParser {
                 int arrayStart = jsonLine.indexOf('[', enemiesIndex);
                 if (arrayStart >= 0) {
                     String enemiesArrayStr = RecordingJson.extractArray(jsonLine, arrayStart);
-                    if (!enemiesArrayStr.isEmpty()) {
+                    if (enemiesArrayStr.isEmpty()) {
+                        // 空数组：完整帧表示场上没有敌人
+                        keyframe.enemyInfos = new ArrayList<>();
+                    } else {
                         String[] enemyStrs = RecordingJson.splitTopLevel(enemiesArrayStr);
                         List<KeyFrame.EnemyInfo> enemyInfos = new ArrayList<>();
                         
@@ -166,6 +202,22 @@ public class RecordingParser {
                 }
             }
             
+            // 提取消失的敌人ID（增量帧）
+            int goneIndex = jsonLine.indexOf("\"gone\":");
+            if (goneIndex >= 0) {
+                int arrayStart = jsonLine.indexOf('[', goneIndex);
+                if (arrayStart >= 0) {
+                    String goneArrayStr = RecordingJson.extractArray(jsonLine, arrayStart);
+                    if (!goneArrayStr.isEmpty()) {
+                        String[] idStrs = RecordingJson.splitTopLevel(goneArrayStr);
+                        keyframe.goneIds = new int[idStrs.length];
+                        for (int i = 0; i < idStrs.length; i++) {
+                            keyframe.goneIds[i] = Integer.parseInt(idStrs[i].trim());
+                        }
+                    }
+                }
+            }
+            
             // 提取玩家数组（如果存在）
             int playersIndex = jsonLine.indexOf("\"players\":");
             if (playersIndex >= 0) {
@@ -0,0 +1,221 @@
+package com.gameengine.recording;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 录制写出流水线：序列化 -> 压缩 -> 写入
+ * 每个阶段运行在一个虚拟线程上，阶段之间用有界队列连接（满时阻塞，形成背压）。
+ * 序列化阶段按时间或字节数做组提交，每次提交作为一个块交给后续阶段；
+ * close 时向第一阶段投递结束标记，逐级排空后依次等待各阶段结束，存储在排空之后才关闭，不会截断数据；
+ * 磁盘再慢也一直等到写完。
+ */
+public class RecordingPipeline {
+    private static final String END_OF_LINES = new String("<end>");
+    private static final byte[] END_OF_CHUNKS = new byte[0];
+
+    private final RecordingConfig config;
+    private final RecordingStorage storage;
+    private final BlockingQueue<String> lines;
+    private final BlockingQueue<byte[]> toCompress;
+    private final BlockingQueue<byte[]> toWrite;
+    private Thread serializer;
+    private Thread compressor;
+    private Thread writer;
+    private volatile boolean open;
+    private volatile long bytesWritten;
+    private volatile IOException failure;
+
+    public RecordingPipeline(RecordingConfig config, RecordingStorage storage) {
+        this.config = config;
+        this.storage = storage;
+        this.lines = new ArrayBlockingQueue<>(config.queueCapacity);
+        this.toCompress = new ArrayBlockingQueue<>(config.stageQueueCapacity);
+        this.toWrite = new ArrayBlockingQueue<>(config.stageQueueCapacity);
+    }
+
+    public void open() throws IOException {
+        storage.openWriter(config.outputPath);
+        open = true;
+        serializer = Thread.ofVirtual().name("record-serialize").start(this::runSerializer);
+        compressor = Thread.ofVirtual().name("record-compress").start(this::runCompressor);
+        writer = Thread.ofVirtual().name("record-write").start(this::runWriter);
+    }
+
+    /**
+     * 提交一行，不阻塞；队列已满时返回 false
+     */
+    public boolean offer(String line) {
+        return open && lines.offer(line);
+    }
+
+    /**
+     * 结束录制：排空全部阶段，写入阶段关闭存储后才返回
+     * 调用线程被中断也继续等待（中断状态在返回前恢复），已入队的数据不会丢
+     */
+    public void close() {
+        if (!open) return;
+        open = false;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                lines.put(END_OF_LINES);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        for (Thread stage : new Thread[] {serializer, compressor, writer}) {
+            while (true) {
+                try {
+                    stage.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            System.err.println("录制写出失败: " + failure.getMessage());
+        }
+    }
+
+    public int getQueueDepth() {
+        return lines.size();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 序列化阶段：行编码为 UTF-8，按 flushIntervalMs / flushBytes 组提交
+     */
+    private void runSerializer() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(Math.max(1024, config.flushBytes));
+        long intervalNanos = Math.max(1, config.flushIntervalMs) * 1_000_000L;
+        long batchStart = System.nanoTime();
+        try {
+            while (true) {
+                long wait = intervalNanos - (System.nanoTime() - batchStart);
+                String line = batch.size() == 0 ? lines.take() : lines.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                if (line == END_OF_LINES) {
+                    break;
+                }
+                if (line != null) {
+                    if (batch.size() == 0) {
+                        batchStart = System.nanoTime();
+                    }
+                    batch.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+                    batch.write('\n');
+                }
+                if (batch.size() >= config.flushBytes || System.nanoTime() - batchStart >= intervalNanos) {
+                    commit(batch);
+                }
+            }
+            commit(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putQuietly(toCompress, END_OF_CHUNKS);
+        }
+    }
+
+    private void commit(ByteArrayOutputStream batch) throws InterruptedException {
+        if (batch.size() == 0) return;
+        toCompress.put(batch.toByteArray());
+        batch.reset();
+    }
+
+    /**
+     * 压缩阶段：gzip 同步刷新，每个块都是可独立落盘的完整压缩数据；
+     * 日志格式下每块独立 deflate，便于按记录恢复；关闭压缩时直接转交
+     */
+    private void runCompressor() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = config.compress && config.journal ? new Deflater() : null;
+        try {
+            GZIPOutputStream gzip = config.compress && !config.journal ? new GZIPOutputStream(out, 8192, true) : null;
+            while (true) {
+                byte[] chunk = toCompress.take();
+                if (chunk == END_OF_CHUNKS) {
+                    break;
+                }
+                if (deflater != null) {
+                    toWrite.put(RecordingJournal.deflate(deflater, chunk, 0, chunk.length));
+                } else if (gzip == null) {
+                    toWrite.put(chunk);
+                } else if (failure == null) {
+                    try {
+                        gzip.write(chunk);
+                        gzip.flush();
+                        toWrite.put(out.toByteArray());
+                        out.reset();
+                    } catch (IOException e) {
+                        failure = e; // 出错后继续排空队列，避免上游阻塞
+                    }
+                }
+            }
+            if (gzip != null && failure == null) {
+                gzip.finish();
+                if (out.size() > 0) {
+                    toWrite.put(out.toByteArray());
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+            putQuietly(toWrite, END_OF_CHUNKS);
+        }
+    }
+
+    /**
+     * 写入阶段：每个块写入后刷新，fsync 开启时强制落盘
+     */
+    private void runWriter() {
+        try {
+            while (true) {
+                byte[] chunk = toWrite.take();
+                if (chunk == END_OF_CHUNKS) {
+                    break;
+                }
+                if (failure != null) {
+                    continue; // 出错后继续排空队列，避免上游阻塞
+                }
+                try {
+                    storage.writeBytes(chunk, 0, chunk.length);
+                    storage.flush(config.fsync);
+                    bytesWritten += chunk.length;
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            storage.closeWriter();
+        }
+    }
+
+    private static void putQuietly(BlockingQueue<byte[]> queue, byte[] item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,51 +6,57 @@ import com.gameengine.components.HealthComponent;
 import com.gameengine.components.ScoreComponent;
 import com.gameengine.core.GameObject;
 import com.gameengine.input.InputManager;
+import com.gameengine.input.KeyState;
+import com.gameengine.jfr.EngineEvents;
+import com.gameengine.jfr.RecordingDropEvent;
 import com.gameengine.scene.Scene;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 
 public class RecordingService {
     private final RecordingConfig config;
-    private final BlockingQueue<String> lineQueue;
     private volatile boolean recording;
-    private Thread writerThread;
+    private RecordingPipeline pipeline;
     private RecordingStorage storage = new FileRecordingStorage();
     private double elapsed;
     private double keyframeElapsed;
     private double sampleAccumulator;
+    private double iframeElapsed;
     private final double warmupSec = 0.1; // 等待一帧让场景对象完成初始化
     private final DecimalFormat qfmt;
     private Scene lastScene;
+    private long droppedLines;
     
-    // 跟踪当前按下的按键状态
-    private Set<Integer> currentPressedKeys;
+    // 上一帧按住的组合键掩码
+    private long keyMask;
     
-    // 跟踪敌人对象到ID的映射，确保标号一致性
-    private java.util.Map<GameObject, Integer> enemyIdMap;
+    // 跟踪敌人对象到ID及上次写出状态的映射，确保标号一致性；消失的敌人随即移除
+    private java.util.Map<GameObject, EnemyTrack> enemyTracks;
+    private int nextEnemyId;
+    private int sampleStamp;
+    private final StringBuilder enemyJson;
+    private final StringBuilder goneJson;
     
     // 跟踪玩家对象到ID的映射，确保标号一致性
     private java.util.Map<GameObject, Integer> playerIdMap;
 
     public RecordingService(RecordingConfig config) {
         this.config = config;
-        this.lineQueue = new ArrayBlockingQueue<>(config.queueCapacity);
         this.recording = false;
         this.elapsed = 0.0;
         this.keyframeElapsed = 0.0;
         this.sampleAccumulator = 0.0;
+        this.iframeElapsed = 0.0;
         this.qfmt = new DecimalFormat();
         this.qfmt.setMaximumFractionDigits(Math.max(0, config.quantizeDecimals));
         this.qfmt.setGroupingUsed(false);
-        this.currentPressedKeys = new HashSet<>();
-        this.enemyIdMap = new java.util.HashMap<>();
+        this.enemyTracks = new java.util.HashMap<>();
+        this.enemyJson = new StringBuilder();
+        this.goneJson = new StringBuilder();
         this.playerIdMap = new java.util.HashMap<>();
     }
 
@@ -58,98 +64,91 @@ public class RecordingService {
         return recording;
     }
 
+    /**
+     * 获取因队列已满而丢弃的行数
+     */
+    public long getDroppedLines() {
+        return droppedLines;
+    }
+
+    /**
+     * 获取写入队列中等待的行数
+     */
+    public int getQueueDepth() {
+        return pipeline != null ? pipeline.getQueueDepth() : 0;
+    }
+
+    /**
+     * 获取已写入文件的字节数（压缩后）
+     */
+    public long getBytesWritten() {
+        return pipeline != null ? pipeline.getBytesWritten() : 0;
+    }
+
     public void start(Scene scene, int width, int height) throws IOException {
         if (recording) return;
-        storage.openWriter(config.outputPath);
-        writerThread = new Thread(() -> {
-            try {
-                while (recording || !lineQueue.isEmpty()) {
-                    String s = lineQueue.poll();
-                    if (s == null) {
-                        try { Thread.sleep(2); } catch (InterruptedException ignored) {}
-                        continue;
-                    }
-                    storage.writeLine(s);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            } finally {
-                try { storage.closeWriter(); } catch (Exception ignored) {}
-            }
-        }, "record-writer");
+        if (config.mapped) {
+            storage = new MappedRecordingStorage(config.segmentBytes);
+        } else if (config.journal) {
+            storage = new JournalRecordingStorage(config.compress, config.checkpointIntervalMs);
+        }
+        pipeline = new RecordingPipeline(config, storage);
+        pipeline.open();
         recording = true;
-        writerThread.start();
 
         // header
         enqueue("{\"type\":\"header\",\"version\":1,\"w\":" + width + ",\"h\":" + height + "}");
         keyframeElapsed = 0.0;
-        currentPressedKeys.clear();
+        sampleAccumulator = 0.0;
+        // 第一次采样写完整帧
+        iframeElapsed = config.iframeIntervalSec;
+        keyMask = 0;
     }
 
     public void stop() {
         if (!recording) return;
         recording = false;
-        try { writerThread.join(500); } catch (InterruptedException ignored) {}
+        // 等待流水线排空，已入队的数据全部写出
+        pipeline.close();
     }
 
     public void update(double deltaTime, Scene scene, InputManager input) {
         if (!recording) return;
         elapsed += deltaTime;
         keyframeElapsed += deltaTime;
+        sampleAccumulator += deltaTime;
+        iframeElapsed += deltaTime;
 
-        // 记录按键按下事件
-        Set<Integer> justPressedKeys = input.getJustPressedKeysSnapshot();
-        if (!justPressedKeys.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("{\"type\":\"keydown\",\"t\":").append(qfmt.format(elapsed)).append(",\"keys\":[");
-            boolean first = true;
-            for (Integer k : justPressedKeys) {
-                if (!first) sb.append(',');
-                sb.append(k);
-                first = false;
-            }
-            sb.append("]}");
-            enqueue(sb.toString());
-            
-            // 更新当前按下的按键状态
-            currentPressedKeys.addAll(justPressedKeys);
+        // 按键状态以组合键掩码比较，本帧内按下又松开的键也会产生一对事件
+        // 时间取本 tick 内第一次事件的时间戳，精确到帧内
+        long pressed = input.getJustPressedMask();
+        long held = keyMask | pressed;
+        long current = input.getKeyMask();
+        long released = held & ~current;
+        double downTime = eventTime(input.getFirstPressNanos(), input, deltaTime);
+        if (pressed != 0) {
+            enqueue(keyLine("keydown", downTime, pressed));
         }
-
-        // 检查按键释放事件
-        Set<Integer> releasedKeys = new HashSet<>();
-        Set<Integer> currentKeys = getCurrentPressedKeys(input);
-        
-        // 找出被释放的按键
-        for (Integer key : currentPressedKeys) {
-            if (!currentKeys.contains(key)) {
-                releasedKeys.add(key);
-            }
+        if (released != 0) {
+            double upTime = eventTime(input.getFirstReleaseNanos(), input, deltaTime);
+            enqueue(keyLine("keyup", pressed != 0 ? Math.max(downTime, upTime) : upTime, released));
         }
+        keyMask = current;
         
-        // 记录按键释放事件
-        if (!releasedKeys.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("{\"type\":\"keyup\",\"t\":").append(qfmt.format(elapsed)).append(",\"keys\":[");
-            boolean first = true;
-            for (Integer k : releasedKeys) {
-                if (!first) sb.append(',');
-                sb.append(k);
-                first = false;
+        // 按 sampleFps 采样敌人，只写出偏离线性外推的敌人，定期写完整帧
+        double sampleInterval = config.sampleFps > 0 ? 1.0 / config.sampleFps : 0.0;
+        if (sampleAccumulator >= sampleInterval) {
+            sampleAccumulator = 0.0;
+            boolean full = iframeElapsed >= config.iframeIntervalSec;
+            recordEnemyInfo(scene, full);
+            if (full) {
+                iframeElapsed = 0.0;
             }
-            sb.append("]}");
-            enqueue(sb.toString());
-            
-            // 更新当前按下的按键状态
-            currentPressedKeys.removeAll(releasedKeys);
         }
         
-        // 更新当前按键状态（用于下一帧比较）
-        currentPressedKeys.retainAll(currentKeys);
-        currentPressedKeys.addAll(currentKeys);
-        
-        // 记录敌人快照
+        // 记录玩家快照
         if (keyframeElapsed >= config.keyframeIntervalSec) {
-            createKeyframe(scene);
+            recordPlayerInfo(scene);
             keyframeElapsed = 0.0;
         }
     }
@@ -158,54 +157,92 @@ public class RecordingService {
      * 创建关键帧
      */
     void createKeyframe(Scene scene) {
-        recordEnemyInfo(scene);
+        recordEnemyInfo(scene, true);
         recordPlayerInfo(scene);
     }
 
     /**
      * 记录敌人信息
+     * 完整帧写出全部敌人；增量帧只写出新出现的敌人和实际位置偏离
+     * 上次写出状态线性外推超过 positionThreshold 的敌人，并列出消失的敌人 ID
      */
-    private void recordEnemyInfo(Scene scene) {
-        List<KeyFrame.EnemyInfo> enemyInfos = new ArrayList<>();
+    private void recordEnemyInfo(Scene scene, boolean full) {
+        sampleStamp++;
+        enemyJson.setLength(0);
+        goneJson.setLength(0);
+        float threshold = config.positionThreshold;
         
-        for (GameObject obj : scene.getGameObjects()) {
+        // 每秒 sampleFps 次：直接遍历场景列表、读取位置与速度分量，未写出的敌人不产生分配
+        List<GameObject> objects = scene.getGameObjectsView();
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject obj = objects.get(i);
             if ("Enemy".equals(obj.getName())) {
-                TransformComponent transform = obj.getComponent(TransformComponent.class);
-                PhysicsComponent physics = obj.getComponent(PhysicsComponent.class);
+                TransformComponent transform = obj.getTransform();
+                PhysicsComponent physics = obj.getPhysics();
                 
                 if (transform != null && physics != null) {
+                    float x = transform.getX();
+                    float y = transform.getY();
+                    
                     // 获取或分配敌人ID
-                    Integer enemyId = enemyIdMap.get(obj);
-                    if (enemyId == null) {
+                    EnemyTrack track = enemyTracks.get(obj);
+                    boolean emit = full;
+                    if (track == null) {
                         // 新敌人，分配新ID
-                        enemyId = enemyIdMap.size() + 1;
-                        enemyIdMap.put(obj, enemyId);
+                        track = new EnemyTrack(++nextEnemyId);
+                        enemyTracks.put(obj, track);
+                        emit = true;
+                    } else if (!emit) {
+                        float dt = (float) (elapsed - track.time);
+                        float dx = x - (track.x + track.vx * dt);
+                        float dy = y - (track.y + track.vy * dt);
+                        emit = dx * dx + dy * dy > threshold * threshold;
                     }
+                    track.seen = sampleStamp;
                     
-                    KeyFrame.EnemyInfo info = new KeyFrame.EnemyInfo();
-                    info.enemyId = enemyId;
-                    info.position = transform.getPosition();
-                    info.velocity = physics.getVelocity();
-                    enemyInfos.add(info);
+                    if (emit) {
+                        track.x = x;
+                        track.y = y;
+                        track.vx = physics.getVelocityX();
+                        track.vy = physics.getVelocityY();
+                        track.time = elapsed;
+                        if (enemyJson.length() > 0) enemyJson.append(',');
+                        enemyJson.append("{\"id\":").append(track.id)
+                            .append(",\"x\":").append(qfmt.format(track.x))
+                            .append(",\"y\":").append(qfmt.format(track.y))
+                            .append(",\"vx\":").append(qfmt.format(track.vx))
+                            .append(",\"vy\":").append(qfmt.format(track.vy))
+                            .append('}');
+                    }
                 }
             }
         }
         
-        if (!enemyInfos.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("{\"type\":\"snapshot\",\"t\":").append(qfmt.format(elapsed)).append(",\"enemies\":[");
-            
-            boolean first = true;
-            for (KeyFrame.EnemyInfo info : enemyInfos) {
-                if (!first) sb.append(',');
-                sb.append(String.format("{\"id\":%d,\"x\":%.2f,\"y\":%.2f,\"vx\":%.2f,\"vy\":%.2f}",
-                        info.enemyId, info.position.x, info.position.y, info.velocity.x, info.velocity.y));
-                first = false;
+        // 本次采样中不存在的敌人视为消失
+        Iterator<EnemyTrack> it = enemyTracks.values().iterator();
+        while (it.hasNext()) {
+            EnemyTrack track = it.next();
+            if (track.seen != sampleStamp) {
+                if (goneJson.length() > 0) goneJson.append(',');
+                goneJson.append(track.id);
+                it.remove();
             }
-            
-            sb.append("]}");
-            enqueue(sb.toString());
         }
+        
+        if (enemyJson.length() == 0 && goneJson.length() == 0) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(enemyJson.length() + goneJson.length() + 64);
+        sb.append("{\"type\":\"snapshot\",\"t\":").append(qfmt.format(elapsed));
+        if (!full) {
+            sb.append(",\"delta\":true");
+        }
+        sb.append(",\"enemies\":[").append(enemyJson).append(']');
+        if (goneJson.length() > 0) {
+            sb.append(",\"gone\":[").append(goneJson).append(']');
+        }
+        sb.append('}');
+        enqueue(sb.toString());
     }
 
     /**
@@ -214,9 +251,9 @@ public class RecordingService {
     private void recordPlayerInfo(Scene scene) {
         // 记录玩家信息
         List<KeyFrame.PlayerInfo> playerInfos = new ArrayList<>();
-        for (GameObject obj : scene.getGameObjects()) {
+        for (GameObject obj : scene.getGameObjectsView()) {
             if ("Player".equals(obj.getName())) {
-                HealthComponent health = obj.getComponent(HealthComponent.class);
+                HealthComponent health = obj.getHealth();
                 ScoreComponent score = obj.getComponent(ScoreComponent.class);
                 
                 // 获取或分配玩家ID
@@ -256,26 +293,59 @@ public class RecordingService {
         }
     }
 
-        /**
-     * 获取当前按下的所有按键
+    /**
+     * 把输入事件的时间戳换算成录制时间，事件不会早于上一 tick
+     */
+    private double eventTime(long timestampNanos, InputManager input, double deltaTime) {
+        if (timestampNanos == 0) return elapsed;
+        double lag = (input.getLastProcessNanos() - timestampNanos) / 1_000_000_000.0;
+        return elapsed - Math.max(0.0, Math.min(deltaTime, lag));
+    }
+
+    /**
+     * 生成按键事件行，按键码按掩码位序输出
      */
-    private Set<Integer> getCurrentPressedKeys(InputManager input) {
-        Set<Integer> currentKeys = new HashSet<>();
-        if (input.isKeyPressed(87)) currentKeys.add(87); // W
-        if (input.isKeyPressed(83)) currentKeys.add(83); // S
-        if (input.isKeyPressed(65)) currentKeys.add(65); // A
-        if (input.isKeyPressed(68)) currentKeys.add(68); // D
-        if (input.isKeyPressed(90)) currentKeys.add(90); // Z (射击)
-        if (input.isKeyPressed(38)) currentKeys.add(38); // 上箭头
-        if (input.isKeyPressed(40)) currentKeys.add(40); // 下箭头
-        if (input.isKeyPressed(37)) currentKeys.add(37); // 左箭头
-        if (input.isKeyPressed(39)) currentKeys.add(39); // 右箭头
-        return currentKeys;
+    private String keyLine(String type, double time, long mask) {
+        StringBuilder sb = new StringBuilder(48);
+        sb.append("{\"type\":\"").append(type).append("\",\"t\":").append(qfmt.format(time)).append(",\"keys\":[");
+        boolean first = true;
+        while (mask != 0) {
+            if (!first) sb.append(',');
+            sb.append(KeyState.chordKey(Long.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+            first = false;
+        }
+        sb.append("]}");
+        return sb.toString();
     }
 
     private void enqueue(String line) {
-        if (!lineQueue.offer(line)) {
+        if (!pipeline.offer(line)) {
             // 简单丢弃策略：队列满时丢弃低优先级数据（此处直接丢弃）
+            droppedLines++;
+            if (EngineEvents.isEnabled()) {
+                RecordingDropEvent event = new RecordingDropEvent();
+                if (event.shouldCommit()) {
+                    event.lineLength = line.length();
+                    event.queueCapacity = config.queueCapacity;
+                    event.totalDropped = droppedLines;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * 敌人的录制 ID 与上次写出的状态
+     */
+    private static final class EnemyTrack {
+        final int id;
+        float x, y, vx, vy;
+        double time;
+        int seen;
+
+        EnemyTrack(int id) {
+            this.id = id;
         }
     }
 }
@@ -7,6 +7,8 @@ import java.util.List;
 public interface RecordingStorage {
     void openWriter(String path) throws IOException;
     void writeLine(String line) throws IOException;
+    void writeBytes(byte[] data, int offset, int length) throws IOException;
+    void flush(boolean sync) throws IOException;
     void closeWriter();
 
     Iterable<String> readLines(String path) throws IOException;
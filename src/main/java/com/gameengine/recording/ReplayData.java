@@ -0,0 +1,39 @@
+package com.gameengine.recording;
+
+import com.gameengine.input.InputTimeline;
+
+import java.util.List;
+
+/**
+ * 一次解析得到的回放数据：输入时间线 + 关键帧
+ * 解析完成后只读，可在加载线程与主线程之间直接传递
+ */
+public final class ReplayData {
+    private final String path;
+    private final InputTimeline inputs;
+    private final List<KeyFrame> keyframes;
+    private final int inputEventCount;
+
+    public ReplayData(String path, InputTimeline inputs, List<KeyFrame> keyframes, int inputEventCount) {
+        this.path = path;
+        this.inputs = inputs;
+        this.keyframes = keyframes;
+        this.inputEventCount = inputEventCount;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public InputTimeline getInputs() {
+        return inputs;
+    }
+
+    public List<KeyFrame> getKeyframes() {
+        return keyframes;
+    }
+
+    public int getInputEventCount() {
+        return inputEventCount;
+    }
+}
@@ -0,0 +1,239 @@
+package com.gameengine.recording;
+
+import com.gameengine.core.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * 回放实体注册表，记录录制 ID 到场景对象的映射
+ * 每个完整关键帧内调用 beginFrame / get / spawn / endFrame，
+ * 本帧没有出现的实体在 endFrame 中失活并立即移出表；增量帧只调用 get / spawn / despawn。
+ * 因此内存与每帧开销只与当前存活实体数量相关。
+ * 只在主线程使用。
+ */
+public class ReplayEntityRegistry {
+    public enum State {
+        SPAWNED,   // 已创建，尚未进入场景
+        ALIVE,     // 已在场景中
+        DESPAWNED  // 已移除（不再保存在表中）
+    }
+
+    private static final int EMPTY = -1;
+
+    // 存活实体的紧凑数组，按下标一一对应
+    private int[] ids;
+    private GameObject[] objects;
+    private State[] states;
+    private int[] lastSeen;
+    private int count;
+
+    // 开放寻址哈希表：ID -> 紧凑数组下标
+    private int[] keys;
+    private int[] indices;
+    private int mask;
+
+    private int frame;
+    private long despawnedTotal;
+
+    public ReplayEntityRegistry() {
+        this(64);
+    }
+
+    public ReplayEntityRegistry(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.ids = new int[capacity];
+        this.objects = new GameObject[capacity];
+        this.states = new State[capacity];
+        this.lastSeen = new int[capacity];
+        allocateTable(tableSizeFor(capacity));
+    }
+
+    /**
+     * 开始处理一个关键帧
+     */
+    public void beginFrame() {
+        frame++;
+    }
+
+    /**
+     * 查找本帧出现的实体并标记为已见
+     * 对象已被场景移除（例如回放中被击毁）时先驱逐，返回 null 由调用方重新生成
+     */
+    public GameObject get(int id) {
+        int index = indexOf(id);
+        if (index == EMPTY) return null;
+        GameObject obj = objects[index];
+        if (!obj.isActive()) {
+            evict(index);
+            return null;
+        }
+        if (states[index] == State.SPAWNED && obj.getHandle() != GameObject.INVALID_HANDLE) {
+            states[index] = State.ALIVE;
+        }
+        lastSeen[index] = frame;
+        return obj;
+    }
+
+    /**
+     * 登记新生成的实体
+     */
+    public void spawn(int id, GameObject obj) {
+        int index = indexOf(id);
+        if (index != EMPTY) {
+            evict(index);
+        }
+        if (count == ids.length) {
+            grow();
+        }
+        index = count++;
+        ids[index] = id;
+        objects[index] = obj;
+        states[index] = State.SPAWNED;
+        lastSeen[index] = frame;
+        insert(id, index);
+    }
+
+    /**
+     * 立即移除实体（增量帧中显式消失的 ID）
+     */
+    public void despawn(int id) {
+        int index = indexOf(id);
+        if (index == EMPTY) return;
+        objects[index].setActive(false);
+        evict(index);
+    }
+
+    /**
+     * 结束关键帧：本帧未出现的实体失活并移出注册表
+     * @return 本帧移除的实体数量
+     */
+    public int endFrame() {
+        int removed = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            if (lastSeen[i] != frame) {
+                objects[i].setActive(false);
+                evict(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public State stateOf(int id) {
+        int index = indexOf(id);
+        return index == EMPTY ? State.DESPAWNED : states[index];
+    }
+
+    public int getLiveCount() {
+        return count;
+    }
+
+    public long getDespawnedTotal() {
+        return despawnedTotal;
+    }
+
+    public void clear() {
+        Arrays.fill(objects, 0, count, null);
+        Arrays.fill(states, 0, count, null);
+        Arrays.fill(keys, EMPTY);
+        count = 0;
+    }
+
+    /**
+     * 从紧凑数组与哈希表中删除，末尾元素填补空位
+     */
+    private void evict(int index) {
+        removeKey(ids[index]);
+        int last = --count;
+        if (index != last) {
+            ids[index] = ids[last];
+            objects[index] = objects[last];
+            states[index] = states[last];
+            lastSeen[index] = lastSeen[last];
+            updateIndex(ids[index], index);
+        }
+        objects[last] = null;
+        states[last] = null;
+        despawnedTotal++;
+    }
+
+    private int indexOf(int id) {
+        int pos = hash(id) & mask;
+        while (keys[pos] != EMPTY) {
+            if (keys[pos] == id) {
+                return indices[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private void insert(int id, int index) {
+        int pos = hash(id) & mask;
+        while (keys[pos] != EMPTY) {
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = id;
+        indices[pos] = index;
+    }
+
+    private void updateIndex(int id, int index) {
+        int pos = hash(id) & mask;
+        while (keys[pos] != id) {
+            pos = (pos + 1) & mask;
+        }
+        indices[pos] = index;
+    }
+
+    /**
+     * 线性探测删除，后续元素回移，不留墓碑
+     */
+    private void removeKey(int id) {
+        int pos = hash(id) & mask;
+        while (keys[pos] != id) {
+            if (keys[pos] == EMPTY) return;
+            pos = (pos + 1) & mask;
+        }
+        int next = (pos + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = hash(keys[next]) & mask;
+            // ideal 不在 (pos, next] 区间内时可以回移到 pos
+            if (((next - ideal) & mask) >= ((next - pos) & mask)) {
+                keys[pos] = keys[next];
+                indices[pos] = indices[next];
+                pos = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[pos] = EMPTY;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+        states = Arrays.copyOf(states, capacity);
+        lastSeen = Arrays.copyOf(lastSeen, capacity);
+        allocateTable(tableSizeFor(capacity));
+        for (int i = 0; i < count; i++) {
+            insert(ids[i], i);
+        }
+    }
+
+    private void allocateTable(int size) {
+        keys = new int[size];
+        indices = new int[size];
+        Arrays.fill(keys, EMPTY);
+        mask = size - 1;
+    }
+
+    // 负载因子不超过 0.5
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
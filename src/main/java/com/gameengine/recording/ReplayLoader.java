@@ -0,0 +1,165 @@
+package com.gameengine.recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 异步回放加载器
+ * 每个文件在虚拟线程上解析一次，结果按最近使用缓存少量条目；
+ * 菜单在光标移动时预取，进入回放时直接取已完成的结果，主线程不做文件 IO。
+ */
+public class ReplayLoader {
+    private static final int CACHE_SIZE = 4;
+    private static ReplayLoader instance;
+
+    private final ExecutorService executor;
+    private final LinkedHashMap<String, Task> tasks;
+
+    /**
+     * 单个文件的加载任务
+     */
+    public static final class Task {
+        private final String path;
+        private final CompletableFuture<ReplayData> future;
+        private volatile float progress;
+
+        private Task(String path) {
+            this.path = path;
+            this.future = new CompletableFuture<>();
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * 加载进度（0~1）
+         */
+        public float getProgress() {
+            return progress;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        public boolean isFailed() {
+            return future.isCompletedExceptionally();
+        }
+
+        /**
+         * 已完成时返回数据，否则返回 null，不阻塞
+         */
+        public ReplayData getNow() {
+            return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        }
+
+        /**
+         * 失败原因，未失败时返回 null
+         */
+        public Throwable getError() {
+            return future.isCompletedExceptionally() ? future.exceptionNow() : null;
+        }
+
+        public CompletableFuture<ReplayData> getFuture() {
+            return future;
+        }
+    }
+
+    private ReplayLoader() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.tasks = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public static synchronized ReplayLoader getInstance() {
+        if (instance == null) {
+            instance = new ReplayLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * 开始加载（已在加载或已缓存时直接返回现有任务）
+     */
+    public synchronized Task load(String path) {
+        Task task = tasks.get(path);
+        if (task != null && !task.isFailed()) {
+            return task;
+        }
+        Task created = new Task(path);
+        tasks.put(path, created);
+        evictOld();
+        executor.submit(() -> {
+            try {
+                checkJournal(path);
+                ReplayData data = RecordingParser.parseReplay(path, p -> created.progress = (float) p);
+                created.progress = 1.0f;
+                created.future.complete(data);
+            } catch (Exception e) {
+                System.err.println("加载回放文件失败: " + path + ", " + e.getMessage());
+                created.future.completeExceptionally(e);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 日志格式的文件只做只读检查，浏览和预取不修改用户文件；
+     * 不完整的尾记录（崩溃遗留）只提示，读取会在最后一条完整记录处停止，截断留给续写时的恢复
+     */
+    private static void checkJournal(String path) {
+        try {
+            Path file = Path.of(path);
+            long valid = RecordingJournal.validLength(file);
+            if (valid >= 0 && valid < Files.size(file)) {
+                System.out.println("录制日志尾部不完整，读到最后一条完整记录为止: " + path);
+            }
+        } catch (IOException e) {
+            System.err.println("检查录制日志失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 预取文件，与 load 相同，只是语义上不等待结果
+     */
+    public void prefetch(String path) {
+        load(path);
+    }
+
+    /**
+     * 查询任务，不触发加载
+     */
+    public synchronized Task peek(String path) {
+        return tasks.get(path);
+    }
+
+    /**
+     * 同步获取数据（已缓存时立即返回），供没有经过菜单预取的调用方使用
+     */
+    public ReplayData loadNow(String path) throws Exception {
+        return load(path).future.get();
+    }
+
+    /**
+     * 淘汰最久未用的已完成任务，正在加载的任务保留
+     */
+    private void evictOld() {
+        Iterator<Map.Entry<String, Task>> it = tasks.entrySet().iterator();
+        while (tasks.size() > CACHE_SIZE && it.hasNext()) {
+            if (it.next().getValue().isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        tasks.clear();
+    }
+}
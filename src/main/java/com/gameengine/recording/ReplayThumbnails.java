@@ -0,0 +1,258 @@
+package com.gameengine.recording;
+
+import com.gameengine.graphics.Bitmap;
+import com.gameengine.graphics.SoftwareRenderer;
+import com.gameengine.math.Vector2;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * 回放缩略图（预览条）
+ * 每个录制文件按时长等分取 FRAMES 个时刻，用关键帧重建敌人位置，由软件光栅化渲染成一张横向预览条，
+ * 以 PNG 缓存在录制目录的 .thumbs 下；缓存比录制文件新时直接读取，只为新文件或改动过的文件生成。
+ * 后台单线程按队列处理：界面请求的文件插到队首，批量扫描的排在队尾。
+ * 内存中的预览条按 LRU 保留，总大小超过 MEMORY_BUDGET 时淘汰最久未用的并释放其纹理。
+ */
+public class ReplayThumbnails {
+    public static final int FRAMES = 4;
+    public static final int FRAME_WIDTH = 128;
+    public static final int FRAME_HEIGHT = 96;
+    public static final int STRIP_WIDTH = FRAMES * FRAME_WIDTH;
+    private static final long MEMORY_BUDGET = 16L * 1024 * 1024;
+    private static final String CACHE_DIR = ".thumbs";
+    // 与 EntityFactory.createEnemy 一致
+    private static final float ENEMY_SIZE = 20.0f;
+
+    private static ReplayThumbnails instance;
+
+    private final LinkedHashMap<String, Bitmap> strips;
+    private final Set<String> queued;
+    private final Set<String> failed;
+    private final LinkedBlockingDeque<Request> queue;
+    private long memoryBytes;
+    private Thread worker;
+    private SoftwareRenderer renderer;
+
+    /**
+     * 队列中的请求：load 为 true 时生成后还要读入内存
+     */
+    private record Request(String path, boolean load) { }
+
+    private ReplayThumbnails() {
+        this.strips = new LinkedHashMap<>(64, 0.75f, true);
+        this.queued = new HashSet<>();
+        this.failed = new HashSet<>();
+        this.queue = new LinkedBlockingDeque<>();
+    }
+
+    public static synchronized ReplayThumbnails getInstance() {
+        if (instance == null) {
+            instance = new ReplayThumbnails();
+        }
+        return instance;
+    }
+
+    /**
+     * 为缓存缺失或过期的文件排队生成预览条（不读入内存），已是最新的文件不做处理
+     */
+    public void scan(List<String> paths) {
+        for (String path : paths) {
+            if (!isFresh(path)) {
+                enqueue(new Request(path, false), false);
+            }
+        }
+    }
+
+    /**
+     * 取预览条；尚未在内存中时排到队首加载，本次返回 null（生成失败过的文件不再重试）
+     */
+    public synchronized Bitmap get(String path) {
+        Bitmap strip = strips.get(path);
+        if (strip == null && !failed.contains(path)) {
+            enqueue(new Request(path, true), true);
+        }
+        return strip;
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued.size();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    private synchronized void enqueue(Request request, boolean urgent) {
+        // 同一文件的加载请求可以升级已排队的生成请求，重复的请求直接忽略
+        String key = request.path + (request.load ? "#load" : "");
+        if (failed.contains(request.path) || !queued.add(key)) return;
+        if (urgent) {
+            queue.addFirst(request);
+        } else {
+            queue.addLast(request);
+        }
+        if (worker == null) {
+            worker = Thread.ofVirtual().name("replay-thumbnails").start(this::work);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Request request;
+            try {
+                request = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                Path thumb = cacheFile(request.path);
+                if (!isFresh(request.path)) {
+                    generate(request.path, thumb);
+                }
+                if (request.load) {
+                    put(request.path, read(thumb));
+                }
+            } catch (Exception e) {
+                System.err.println("生成回放缩略图失败: " + request.path + ", " + e.getMessage());
+                synchronized (this) {
+                    failed.add(request.path);
+                }
+            } finally {
+                synchronized (this) {
+                    queued.remove(request.path + (request.load ? "#load" : ""));
+                }
+            }
+        }
+    }
+
+    private synchronized void put(String path, Bitmap strip) {
+        Bitmap old = strips.put(path, strip);
+        memoryBytes += strip.getByteSize();
+        if (old != null) {
+            memoryBytes -= old.getByteSize();
+            old.release();
+        }
+        Iterator<Map.Entry<String, Bitmap>> it = strips.entrySet().iterator();
+        while (memoryBytes > MEMORY_BUDGET && it.hasNext()) {
+            Bitmap evicted = it.next().getValue();
+            if (evicted == strip) continue;
+            memoryBytes -= evicted.getByteSize();
+            evicted.release();
+            it.remove();
+        }
+    }
+
+    static Path cacheFile(String path) {
+        Path source = Path.of(path).toAbsolutePath();
+        return source.getParent().resolve(CACHE_DIR).resolve(source.getFileName() + ".png");
+    }
+
+    private static boolean isFresh(String path) {
+        File source = new File(path);
+        File thumb = cacheFile(path).toFile();
+        return thumb.isFile() && thumb.lastModified() >= source.lastModified();
+    }
+
+    /**
+     * 读取录制文件的关键帧，按时刻依次重建敌人位置并渲染，写到临时文件后原子替换缓存
+     */
+    private void generate(String path, Path thumb) throws IOException {
+        List<KeyFrame> keyframes = new ArrayList<>();
+        float worldWidth = 1024;
+        float worldHeight = 768;
+        try (BufferedReader reader = RecordingParser.openReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains("\"type\":\"header\"")) {
+                    String w = RecordingJson.field(line, "w");
+                    String h = RecordingJson.field(line, "h");
+                    if (w != null && h != null) {
+                        worldWidth = (float) RecordingJson.parseDouble(w);
+                        worldHeight = (float) RecordingJson.parseDouble(h);
+                    }
+                } else if (line.contains("\"type\":\"snapshot\"")) {
+                    KeyFrame keyframe = RecordingParser.parseKeyFrame(line);
+                    if (keyframe != null && keyframe.enemyInfos != null) {
+                        keyframes.add(keyframe);
+                    }
+                }
+            }
+        }
+
+        if (renderer == null) {
+            renderer = new SoftwareRenderer(STRIP_WIDTH, FRAME_HEIGHT, "ReplayThumbnails", 1);
+        }
+        float sx = FRAME_WIDTH / Math.max(1.0f, worldWidth);
+        float sy = FRAME_HEIGHT / Math.max(1.0f, worldHeight);
+        double duration = keyframes.isEmpty() ? 0 : keyframes.get(keyframes.size() - 1).timestamp;
+        Map<Integer, Vector2> enemies = new HashMap<>();
+        int next = 0;
+
+        renderer.beginFrame();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            double time = duration * (frame + 1) / FRAMES;
+            while (next < keyframes.size() && keyframes.get(next).timestamp <= time) {
+                apply(keyframes.get(next++), enemies);
+            }
+            float ox = frame * FRAME_WIDTH;
+            renderer.drawRect(ox, 0, FRAME_WIDTH, FRAME_HEIGHT, 0.1f, 0.1f, 0.2f, 1.0f);
+            float w = Math.max(1.5f, ENEMY_SIZE * sx);
+            float h = Math.max(1.5f, ENEMY_SIZE * sy);
+            for (Vector2 position : enemies.values()) {
+                renderer.drawRect(ox + position.x * sx, position.y * sy, w, h, 1.0f, 0.5f, 0.0f, 1.0f);
+            }
+            if (frame > 0) {
+                renderer.drawLine(ox, 0, ox, FRAME_HEIGHT, 0.0f, 0.0f, 0.0f, 1.0f);
+            }
+        }
+        renderer.endFrame();
+
+        Path tmp = thumb.resolveSibling(thumb.getFileName() + ".tmp");
+        renderer.writePng(tmp);
+        Files.move(tmp, thumb, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 完整帧替换全部敌人，增量帧只更新列出的敌人并移除消失的
+     */
+    private static void apply(KeyFrame keyframe, Map<Integer, Vector2> enemies) {
+        if (!keyframe.delta) {
+            enemies.clear();
+        }
+        for (KeyFrame.EnemyInfo info : keyframe.enemyInfos) {
+            enemies.put(info.enemyId, info.position);
+        }
+        if (keyframe.delta && keyframe.goneIds != null) {
+            for (int id : keyframe.goneIds) {
+                enemies.remove(id);
+            }
+        }
+    }
+
+    private static Bitmap read(Path thumb) throws IOException {
+        BufferedImage image = ImageIO.read(thumb.toFile());
+        if (image == null) {
+            throw new IOException("无法解码缩略图: " + thumb);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        return new Bitmap(width, height, pixels);
+    }
+}
@@ -1,10 +1,17 @@
 package com.gameengine.scene;
 
+import com.gameengine.components.TransformComponent;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.Component;
+import com.gameengine.ecs.EntityWorld;
+import com.gameengine.ecs.TransformBuffer;
+import com.gameengine.graphics.IRenderer;
+import com.gameengine.jfr.EngineEvents;
+import com.gameengine.jfr.EntityLifecycleEvent;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -18,18 +25,41 @@ import java.util.concurrent.Future;
 public class Scene {
     private String name;
     private List<GameObject> gameObjects;
+    private List<GameObject> gameObjectsView;
     private List<GameObject> objectsToAdd;
     private List<GameObject> objectsToRemove;
     private boolean initialized;
 
+    // 句柄表：槽位 + 代数，对象移除后槽位复用，旧句柄因代数不匹配而失效
+    private GameObject[] handleSlots;
+    private int[] handleGenerations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    // 原型存储，系统按块遍历
+    private EntityWorld world;
+
+    // 场景内实体的上一/当前位置，与句柄共用槽位
+    private TransformBuffer transforms;
+
     private ExecutorService executor;
 
+    // 渲染目标，用于设置绘制层
+    private IRenderer renderTarget;
+
     public Scene(String name) {
         this.name = name;
         this.gameObjects = new ArrayList<>();
+        this.gameObjectsView = Collections.unmodifiableList(gameObjects);
         this.objectsToAdd = new ArrayList<>();
         this.objectsToRemove = new ArrayList<>();
         this.initialized = false;
+        this.handleSlots = new GameObject[64];
+        this.handleGenerations = new int[64];
+        this.freeSlots = new int[64];
+        this.world = new EntityWorld();
+        this.transforms = new TransformBuffer();
 
         int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
         this.executor = Executors.newFixedThreadPool(threadCount);
@@ -47,53 +77,124 @@ public class Scene {
 
     /**
      * 更新场景
+     * 失效对象在同一遍历中压缩移除，整帧只移动一次数组，
+     * 大量子弹同时消失时不再是 O(n²)
      */
     public void update(float deltaTime) {
         for (GameObject obj : objectsToAdd) {
             gameObjects.add(obj);
+            allocateHandle(obj);
             if (initialized) {
                 obj.initialize();
             }
         }
         objectsToAdd.clear();
 
-        // 移除标记的对象
+        // 标记需要移除的对象，在下面的压缩遍历中统一移除
         for (GameObject obj : objectsToRemove) {
-            gameObjects.remove(obj);
+            obj.setActive(false);
         }
         objectsToRemove.clear();
 
-        // 更新所有活跃的游戏对象
-        Iterator<GameObject> iterator = gameObjects.iterator();
-        while (iterator.hasNext()) {
-            GameObject obj = iterator.next();
+        // 更新所有活跃的游戏对象，并把存活对象前移
+        int size = gameObjects.size();
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            GameObject obj = gameObjects.get(read);
             if (obj.isActive()) {
                 obj.update(deltaTime);
+                if (write != read) {
+                    gameObjects.set(write, obj);
+                }
+                write++;
             } else {
-                iterator.remove();
+                releaseHandle(obj);
+                EngineEvents.entity(EntityLifecycleEvent.DESPAWN, obj.getName());
+            }
+        }
+        if (write < size) {
+            // 从尾部截断，只与移除数量相关
+            gameObjects.subList(write, size).clear();
+        }
+    }
+
+    /**
+     * 为新加入的对象分配句柄
+     */
+    private void allocateHandle(GameObject obj) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == handleSlots.length) {
+                int capacity = handleSlots.length * 2;
+                handleSlots = Arrays.copyOf(handleSlots, capacity);
+                handleGenerations = Arrays.copyOf(handleGenerations, capacity);
+                freeSlots = Arrays.copyOf(freeSlots, capacity);
             }
+            slot = slotCount++;
+        }
+        handleSlots[slot] = obj;
+        obj.setHandle(((long) handleGenerations[slot] << 32) | slot);
+        obj.setWorld(world);
+        world.add(obj);
+        TransformComponent transform = obj.getTransform();
+        if (transform != null) {
+            transform.attach(transforms, slot);
         }
     }
 
+    /**
+     * 释放对象句柄，槽位代数加一使旧句柄失效
+     */
+    private void releaseHandle(GameObject obj) {
+        long handle = obj.getHandle();
+        if (handle == GameObject.INVALID_HANDLE) return;
+        TransformComponent transform = obj.getTransform();
+        if (transform != null) {
+            transform.detach();
+        }
+        world.remove(obj);
+        obj.setWorld(null);
+        int slot = (int) handle;
+        if (slot >= 0 && slot < slotCount && handleSlots[slot] == obj) {
+            handleSlots[slot] = null;
+            handleGenerations[slot]++;
+            freeSlots[freeCount++] = slot;
+        }
+        obj.setHandle(GameObject.INVALID_HANDLE);
+    }
+
+    /**
+     * 根据句柄查找对象，对象已被移除时返回 null
+     */
+    public GameObject resolve(long handle) {
+        if (handle == GameObject.INVALID_HANDLE) return null;
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+        if (slot < 0 || slot >= slotCount || handleGenerations[slot] != generation) {
+            return null;
+        }
+        return handleSlots[slot];
+    }
+
     /**
      * 渲染场景
+     * 单次遍历，对象按所在层提交（UI 区域在 UI 层，其余在世界层），以列表序号作为层内顺序号，由渲染队列排序；
+     * 遍历结束后切到覆盖层，子类在 super.render() 之后绘制的内容位于最上层
      */
     public void render() {
-        List<GameObject> aliveObjects = gameObjects.stream()
-            .filter(obj -> obj != null && obj.isActive() && !obj.getName().equals("UIArea"))
-            .collect(Collectors.toList());
-        
-        List<GameObject> UIObjects = gameObjects.stream()
-            .filter(obj -> obj != null && obj.isActive() && obj.getName().equals("UIArea"))
-            .collect(Collectors.toList());
-            
-        for (GameObject obj : UIObjects) {
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject obj = gameObjects.get(i);
+            if (obj == null || !obj.isActive()) continue;
+            if (renderTarget != null) {
+                renderTarget.setLayer("UIArea".equals(obj.getName()) ? IRenderer.LAYER_UI : IRenderer.LAYER_WORLD);
+                renderTarget.setOrder(i);
+            }
             obj.render();
         }
-
-        // Serial
-        for (GameObject obj : aliveObjects) {
-            obj.render();
+        if (renderTarget != null) {
+            renderTarget.setLayer(IRenderer.LAYER_OVERLAY);
         }
 
         // // Parallel
@@ -132,6 +233,13 @@ public class Scene {
 
     }
 
+    /**
+     * 设置渲染目标（由引擎在切换场景时设置）
+     */
+    public void setRenderTarget(IRenderer renderTarget) {
+        this.renderTarget = renderTarget;
+    }
+
     /**
      * 添加游戏对象到场景
      */
@@ -139,6 +247,13 @@ public class Scene {
         objectsToAdd.add(gameObject);
     }
 
+    /**
+     * 从场景中移除游戏对象（下一次 update 时生效）
+     */
+    public void removeGameObject(GameObject gameObject) {
+        objectsToRemove.add(gameObject);
+    }
+
     /**
      * 根据组件类型查找游戏对象
      */
@@ -162,7 +277,23 @@ public class Scene {
      * 清空场景
      */
     public void clear() {
+        for (GameObject obj : gameObjects) {
+            TransformComponent transform = obj.getTransform();
+            if (transform != null) {
+                transform.detach();
+            }
+            obj.setHandle(GameObject.INVALID_HANDLE);
+            obj.setWorld(null);
+        }
         gameObjects.clear();
+        world.clear();
+        transforms.clear();
+        Arrays.fill(handleSlots, 0, slotCount, null);
+        for (int i = 0; i < slotCount; i++) {
+            handleGenerations[i]++;
+            freeSlots[i] = slotCount - 1 - i;
+        }
+        freeCount = slotCount;
         objectsToAdd.clear();
         objectsToRemove.clear();
     }
@@ -174,6 +305,27 @@ public class Scene {
         return name;
     }
 
+    /**
+     * 获取场景的原型存储
+     */
+    public EntityWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * 获取场景内实体的位置缓冲区
+     */
+    public TransformBuffer getTransforms() {
+        return transforms;
+    }
+
+    /**
+     * 获取当前游戏对象数量
+     */
+    public int getObjectCount() {
+        return gameObjects.size();
+    }
+
     /**
      * 获取所有游戏对象
      */
@@ -181,4 +333,11 @@ public class Scene {
         return new ArrayList<>(gameObjects);
     }
 
+    /**
+     * 游戏对象的只读视图，不复制列表；只在主线程、场景更新之外遍历
+     */
+    public List<GameObject> getGameObjectsView() {
+        return gameObjectsView;
+    }
+
 }
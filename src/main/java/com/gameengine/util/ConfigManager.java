@@ -50,6 +50,22 @@ public class ConfigManager {
         properties.setProperty("audio.volume", "0.8");
         properties.setProperty("debug.enabled", "false");
         properties.setProperty("profiling.enabled", "true");
+        properties.setProperty("profiling.jfr.enabled", "false");
+        properties.setProperty("profiling.jfr.output", "gameengine.jfr");
+        properties.setProperty("metrics.enabled", "false");
+        properties.setProperty("metrics.port", "9404");
+        properties.setProperty("render.backend", "gpu");
+        properties.setProperty("render.pacing", "vsync");
+        properties.setProperty("render.pacing_spin_us", "1500");
+        properties.setProperty("sim.tick_rate", "0");
+        properties.setProperty("recording.compress", "false");
+        properties.setProperty("recording.fsync", "false");
+        properties.setProperty("recording.flush_interval_ms", "100");
+        properties.setProperty("recording.flush_bytes", "65536");
+        properties.setProperty("recording.journal", "false");
+        properties.setProperty("recording.checkpoint_interval_ms", "1000");
+        properties.setProperty("recording.mapped", "false");
+        properties.setProperty("recording.segment_mb", "16");
     }
     
     /**
@@ -0,0 +1,90 @@
+package com.gameengine.core;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.ecs.Archetype;
+import com.gameengine.ecs.Chunk;
+import com.gameengine.ecs.ComponentTypes;
+import com.gameengine.math.Vector2;
+import com.gameengine.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 组件子类登记在父类 ID 下：按父类查询的 Chunk 与 getComponent 都能找到子类组件，物理系统照常处理
+ */
+class PhysicsSubclassTest {
+
+    /**
+     * 自定义物理组件，只用来区分类型
+     */
+    static class DriftPhysics extends PhysicsComponent {
+    }
+
+    static class MovingTransform extends TransformComponent {
+        MovingTransform(Vector2 position) {
+            super(position);
+        }
+    }
+
+    @Test
+    void physicsSystemMovesSubclassedComponents() {
+        Scene scene = new Scene("physics");
+        GameObject obj = new GameObject("Drifter");
+        MovingTransform transform = new MovingTransform(new Vector2(100, 100));
+        DriftPhysics physics = new DriftPhysics();
+        obj.addComponent(transform);
+        obj.addComponent(physics);
+        physics.setUseGravity(false);
+        physics.setVelocity(60, 0);
+        scene.addGameObject(obj);
+        scene.update(0);
+
+        assertSame(physics, obj.getComponent(PhysicsComponent.class));
+        assertSame(transform, obj.getTransform());
+
+        List<Chunk> chunks = scene.getWorld().query(PhysicsComponent.class, TransformComponent.class);
+        assertEquals(1, chunks.size());
+        Chunk chunk = chunks.get(0);
+        assertSame(physics, chunk.get(PhysicsComponent.class, 0));
+        assertSame(transform, chunk.get(TransformComponent.class, 0));
+
+        PhysicsSystem system = new PhysicsSystem(scene);
+        try {
+            system.update(0.5f);
+        } finally {
+            system.cleanup();
+        }
+        assertTrue(transform.getX() > 100, "x = " + transform.getX());
+        assertEquals(100, transform.getY(), 1e-4);
+    }
+
+    @Test
+    void typeMaskIncludesComponentSuperclasses() {
+        long mask = ComponentTypes.typeMaskOf(DriftPhysics.class);
+        assertEquals(ComponentTypes.maskOf(DriftPhysics.class, PhysicsComponent.class), mask);
+        assertEquals(ComponentTypes.maskOf(PhysicsComponent.class), ComponentTypes.typeMaskOf(PhysicsComponent.class));
+
+        // 同一实体同时有父类与子类组件时，父类列放先加入的那个
+        Scene scene = new Scene("both");
+        GameObject obj = new GameObject("Both");
+        obj.addComponent(new TransformComponent(new Vector2()));
+        PhysicsComponent plain = obj.addComponent(new PhysicsComponent());
+        DriftPhysics drift = new DriftPhysics();
+        obj.addComponent(drift);
+        scene.addGameObject(obj);
+        scene.update(0);
+
+        Chunk chunk = scene.getWorld().chunkOf(obj);
+        Archetype archetype = chunk.getArchetype();
+        assertSame(plain, chunk.get(PhysicsComponent.class, 0));
+        assertSame(drift, chunk.component(archetype.columnOf(DriftPhysics.class), 0));
+        assertEquals(3, archetype.getColumnCount());
+        assertSame(plain, obj.getComponent(PhysicsComponent.class));
+    }
+}
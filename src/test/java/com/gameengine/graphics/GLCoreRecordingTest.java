@@ -0,0 +1,81 @@
+package com.gameengine.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * GL33_RECORDING 模式下核对每帧发出的 GL 命令：按纹理分段、孤立缓冲、纹理绑定
+ * 纯色纹理在录制模式下编号为 0，字形页从 1 开始，位图从 65536 开始
+ */
+class GLCoreRecordingTest {
+
+    @Test
+    void recordsBatchSplitsOrphaningAndBinds() {
+        GLCoreRenderer renderer = (GLCoreRenderer) RendererFactory.createRenderer(RenderBackend.GL33_RECORDING, 800, 600, "test");
+        Bitmap bitmap = new Bitmap(4, 4);
+
+        // 矩形与圆同为纯色，合成一段；文字、位图各自断开
+        renderer.beginFrame();
+        renderer.drawRect(0, 0, 10, 10, 1, 1, 1, 1);
+        renderer.drawCircle(50, 50, 10, 16, 1, 0, 0, 1);
+        renderer.drawText(100, 100, "AB", 1, 1, 1, 1);
+        renderer.drawRect(0, 0, 10, 10, 1, 1, 1, 1);
+        renderer.drawBitmap(bitmap, 200, 200, 4, 4);
+        renderer.drawLine(0, 0, 100, 100, 1, 1, 1, 1);
+        renderer.endFrame();
+
+        assertEquals(List.of(
+                "clear",
+                "upload texture=65536 4x4",
+                "orphan 2688 bytes",
+                "upload 84 vertices",
+                "bind texture=0",
+                "draw first=0 count=54",
+                "bind texture=1",
+                "draw first=54 count=12",
+                "bind texture=0",
+                "draw first=66 count=6",
+                "bind texture=65536",
+                "draw first=72 count=6",
+                "bind texture=0",
+                "draw first=78 count=6",
+                "swap"), renderer.getLastFrameCommands());
+        assertEquals(5, renderer.getLastFrameDrawCalls());
+
+        // 更小的一帧沿用已分配的大小重新孤立；位图未变不再上传
+        renderer.beginFrame();
+        renderer.drawBitmap(bitmap, 0, 0, 4, 4);
+        renderer.drawBitmap(bitmap, 10, 0, 4, 4);
+        renderer.drawRect(0, 0, 10, 10, 1, 1, 1, 1);
+        renderer.endFrame();
+
+        assertEquals(List.of(
+                "clear",
+                "orphan 2688 bytes",
+                "upload 18 vertices",
+                "bind texture=65536",
+                "draw first=0 count=12",
+                "bind texture=0",
+                "draw first=12 count=6",
+                "swap"), renderer.getLastFrameCommands());
+
+        // 超出容量时按所需大小与两倍容量中较大者重新分配
+        renderer.beginFrame();
+        for (int i = 0; i < 8; i++) {
+            renderer.drawCircle(i * 20, 300, 10, 16, 0, 1, 0, 1);
+        }
+        renderer.endFrame();
+
+        assertEquals(List.of(
+                "clear",
+                "orphan 12288 bytes",
+                "upload 384 vertices",
+                "bind texture=0",
+                "draw first=0 count=384",
+                "swap"), renderer.getLastFrameCommands());
+        renderer.cleanup();
+    }
+}
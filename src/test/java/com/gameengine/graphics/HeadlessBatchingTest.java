@@ -0,0 +1,52 @@
+package com.gameengine.graphics;
+
+import com.gameengine.core.GameEngine;
+import com.gameengine.example.EntityFactory;
+import com.gameengine.example.GameScene;
+import com.gameengine.math.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 无窗口运行游戏场景，检查圆的合批：绘制调用数不随圆的数量增长
+ */
+class HeadlessBatchingTest {
+    private static final int FRAMES = 10;
+    private static final int DRAW_CALL_LIMIT = 32;
+
+    @Test
+    void circleCountDoesNotChangeDrawCalls() {
+        HeadlessRenderer few = run(10);
+        HeadlessRenderer many = run(1000);
+
+        assertEquals(FRAMES, many.getFrameCount());
+        assertTrue(many.getLastFrameCircles() >= 1000, "圆数: " + many.getLastFrameCircles());
+        assertTrue(many.getLastFrameCircles() > few.getLastFrameCircles());
+        assertEquals(few.getLastFrameDrawCalls(), many.getLastFrameDrawCalls());
+    }
+
+    /**
+     * 在游戏场景里额外放置 decorations 个装饰物（每个一个圆），跑 FRAMES 帧；
+     * 任何一帧绘制调用超过上限时 endFrame 抛出异常
+     */
+    private static HeadlessRenderer run(int decorations) {
+        GameEngine engine = new GameEngine(800, 600, "test", RenderBackend.HEADLESS);
+        HeadlessRenderer headless = (HeadlessRenderer) ((RenderQueue) engine.getRenderer()).getBackend();
+        headless.setMaxFrames(FRAMES);
+        headless.setDrawCallLimit(DRAW_CALL_LIMIT);
+        engine.setScene(new GameScene(engine) {
+            @Override
+            public void initialize() {
+                super.initialize();
+                for (int i = 0; i < decorations; i++) {
+                    Vector2 position = new Vector2(i * 37 % 550, i * 53 % 600);
+                    EntityFactory.createDecoration(position, engine.getRenderer(), this);
+                }
+            }
+        });
+        engine.run();
+        return headless;
+    }
+}
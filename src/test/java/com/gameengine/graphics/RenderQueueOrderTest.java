@@ -0,0 +1,53 @@
+package com.gameengine.graphics;
+
+import com.gameengine.example.EntityFactory;
+import com.gameengine.math.Vector2;
+import com.gameengine.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 渲染队列按状态合批时不改变对象之间的前后关系：后加入场景的对象画在上面
+ */
+class RenderQueueOrderTest {
+    private static final int ENEMY_ORANGE = 0xFFFF8000;
+
+    @Test
+    void enemyCreatedLaterDrawsOverDecorationCircle() {
+        SoftwareRenderer software = new SoftwareRenderer(64, 64, "order", 1);
+        RenderQueue queue = new RenderQueue(software);
+        Scene scene = new Scene("order");
+        scene.setRenderTarget(queue);
+        // 装饰物（圆）先创建，敌人（矩形）后创建并盖住它
+        EntityFactory.createDecoration(new Vector2(20, 20), queue, scene);
+        EntityFactory.createEnemy(new Vector2(10, 10), new Vector2(0, 0), queue, scene);
+        scene.update(0);
+
+        queue.beginFrame();
+        scene.render();
+        queue.endFrame();
+
+        assertEquals(ENEMY_ORANGE, software.getPixels()[22 * 64 + 22]);
+        software.cleanup();
+    }
+
+    @Test
+    void decorationCreatedLaterDrawsOverEnemyRect() {
+        SoftwareRenderer software = new SoftwareRenderer(64, 64, "order", 1);
+        RenderQueue queue = new RenderQueue(software);
+        Scene scene = new Scene("order");
+        scene.setRenderTarget(queue);
+        EntityFactory.createEnemy(new Vector2(10, 10), new Vector2(0, 0), queue, scene);
+        EntityFactory.createDecoration(new Vector2(20, 20), queue, scene);
+        scene.update(0);
+
+        queue.beginFrame();
+        scene.render();
+        queue.endFrame();
+
+        // 80% 不透明的浅蓝色圆叠在橙色矩形上
+        assertEquals(0xFF9980CC, software.getPixels()[22 * 64 + 22]);
+        software.cleanup();
+    }
+}
@@ -0,0 +1,115 @@
+package com.gameengine.graphics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 软件光栅化与基准图比对，每个通道允许 TOLERANCE 的误差
+ * 场景跨越多个图块，覆盖矩形、半透明混合、圆、线段与位图缩放；字形依赖系统字体，不参与比对。
+ * 光栅化改动导致的预期变化用 -Dgolden.update=true 重新生成基准图并随改动提交。
+ */
+class SoftwareRendererGoldenTest {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+    private static final int TOLERANCE = 2;
+    private static final String GOLDEN = "golden/software_scene.png";
+
+    @Test
+    void matchesGoldenImage() throws IOException {
+        SoftwareRenderer renderer = render(4);
+        if (Boolean.getBoolean("golden.update")) {
+            renderer.writePng(Path.of("src/test/resources", GOLDEN));
+        }
+        BufferedImage golden;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(GOLDEN)) {
+            assertNotNull(in, "缺少基准图: " + GOLDEN);
+            golden = ImageIO.read(in);
+        }
+        assertEquals(WIDTH, golden.getWidth());
+        assertEquals(HEIGHT, golden.getHeight());
+
+        int[] pixels = renderer.getPixels();
+        int mismatched = 0;
+        int worst = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int diff = maxChannelDiff(pixels[y * WIDTH + x], golden.getRGB(x, y));
+                worst = Math.max(worst, diff);
+                if (diff > TOLERANCE) mismatched++;
+            }
+        }
+        assertEquals(0, mismatched, mismatched + " 个像素超出误差，最大通道差 " + worst);
+        renderer.cleanup();
+    }
+
+    @Test
+    void rasterizesPrimitivesAtExpectedPixels() {
+        SoftwareRenderer renderer = render(4);
+        int[] pixels = renderer.getPixels();
+        // 不透明矩形内部
+        assertEquals(0xFFFF0000, pixel(pixels, 20, 20));
+        // 半透明蓝色叠在红色上
+        assertColor(0xFF800080, pixel(pixels, 55, 55), 1);
+        // 圆心与圆外
+        assertEquals(0xFF00FF00, pixel(pixels, 128, 64));
+        assertTrue(pixel(pixels, 128 + 32, 64 + 32) != 0xFF00FF00);
+        // 位图左上格与右上格
+        assertEquals(0xFFFFFFFF, pixel(pixels, 152, 102));
+        assertEquals(0xFF000000, pixel(pixels, 162, 102));
+        renderer.cleanup();
+    }
+
+    @Test
+    void resultDoesNotDependOnThreadCount() {
+        SoftwareRenderer single = render(1);
+        SoftwareRenderer parallel = render(4);
+        assertArrayEquals(single.getPixels(), parallel.getPixels());
+        single.cleanup();
+        parallel.cleanup();
+    }
+
+    private static SoftwareRenderer render(int threads) {
+        SoftwareRenderer renderer = new SoftwareRenderer(WIDTH, HEIGHT, "golden", threads);
+        int[] checker = new int[16];
+        for (int i = 0; i < checker.length; i++) {
+            checker[i] = ((i % 4) + (i / 4)) % 2 == 0 ? 0xFFFFFFFF : 0xFF000000;
+        }
+        Bitmap bitmap = new Bitmap(4, 4, checker);
+
+        renderer.beginFrame();
+        renderer.drawRect(10, 10, 60, 60, 1, 0, 0, 1);
+        renderer.drawRect(40, 40, 60, 60, 0, 0, 1, 0.5f);
+        renderer.drawCircle(128, 64, 30, 32, 0, 1, 0, 1);
+        renderer.drawLine(5, 140, 195, 90, 1, 1, 0, 1);
+        renderer.drawBitmap(bitmap, 150, 100, 40, 40);
+        renderer.endFrame();
+        return renderer;
+    }
+
+    private static int pixel(int[] pixels, int x, int y) {
+        return pixels[y * WIDTH + x];
+    }
+
+    private static void assertColor(int expected, int actual, int tolerance) {
+        assertTrue(maxChannelDiff(expected, actual) <= tolerance,
+                String.format("期望 %08X，实际 %08X", expected, actual));
+    }
+
+    private static int maxChannelDiff(int a, int b) {
+        int worst = 0;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            worst = Math.max(worst, Math.abs(((a >> shift) & 0xFF) - ((b >> shift) & 0xFF)));
+        }
+        return worst;
+    }
+}
@@ -0,0 +1,76 @@
+package com.gameengine.metrics;
+
+import com.gameengine.core.GameObject;
+import com.gameengine.scene.Scene;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在本机回环地址的临时端口上启动指标服务，核对 Prometheus 输出与 MXBean 属性
+ */
+class MetricsServerTest {
+
+    @Test
+    void servesPrometheusTextAndMXBeanAttributes() throws Exception {
+        EngineMetrics metrics = EngineMetrics.getInstance();
+        for (int i = 0; i < 5; i++) {
+            metrics.recordFrame(16_000_000L, 2_000_000L);
+        }
+        Scene scene = new Scene("metrics-test");
+        scene.addGameObject(new GameObject("Enemy"));
+        scene.addGameObject(new GameObject("Enemy"));
+        scene.addGameObject(new GameObject("Player"));
+        scene.update(0);
+        metrics.sampleEntities(scene);
+        metrics.recordRecording(7, 4096, 3);
+        metrics.recordRender(120, 30);
+
+        MetricsServer server = new MetricsServer(metrics, 0);
+        assertTrue(server.start());
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+            String body = response.body();
+            assertTrue(body.contains("# TYPE gameengine_frame_time_ms histogram"), body);
+            assertTrue(body.contains("gameengine_frame_time_ms_bucket{le=\"16.7\"}"), body);
+            assertTrue(body.contains("gameengine_frame_work_ms 2.000"), body);
+            assertTrue(body.contains("gameengine_entities{tag=\"Enemy\"} 2"), body);
+            assertTrue(body.contains("gameengine_entities{tag=\"Player\"} 1"), body);
+            assertTrue(body.contains("gameengine_entities_total 3.000"), body);
+            assertTrue(body.contains("gameengine_recording_queue_depth 7.000"), body);
+            assertTrue(body.contains("gameengine_recording_bytes_written_total 4096"), body);
+            assertTrue(body.contains("gameengine_recording_dropped_lines_total 3"), body);
+            assertTrue(body.contains("gameengine_render_commands 120.000"), body);
+            assertTrue(body.contains("gameengine_render_culled 30.000"), body);
+        } finally {
+            server.stop();
+        }
+
+        metrics.register();
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EngineMetrics.OBJECT_NAME);
+        assertTrue((Long) mbs.getAttribute(name, "FrameCount") >= 5);
+        assertEquals(3, mbs.getAttribute(name, "TotalEntities"));
+        assertEquals(7, mbs.getAttribute(name, "RecordingQueueDepth"));
+        assertEquals(120, mbs.getAttribute(name, "RenderSubmitted"));
+        assertEquals(2.0, (Double) mbs.getAttribute(name, "LastWorkTimeMs"), 1e-9);
+        // MXBean 把 Map 属性映射为开放类型，通用控制台无需引擎的类即可查看
+        TabularData entities = (TabularData) mbs.getAttribute(name, "EntityCounts");
+        assertEquals(2, entities.get(new Object[] {"Enemy"}).get("value"));
+        assertTrue(mbs.getAttribute(name, "FrameTimeHistogram") instanceof TabularData);
+    }
+}
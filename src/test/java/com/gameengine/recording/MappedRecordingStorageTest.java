@@ -0,0 +1,163 @@
+package com.gameengine.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 最小段大小下跨多段写入，包括超过一段的块；不调用 closeWriter 模拟崩溃，
+ * 读出的内容恰好是已提交（flush 或换段）的行
+ */
+class MappedRecordingStorageTest {
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void crashKeepsCommittedLinesAcrossSegments() throws IOException {
+        Path index = dir.resolve("crash.mrec");
+        MappedRecordingStorage storage = new MappedRecordingStorage(SEGMENT_SIZE);
+        storage.openWriter(index.toString());
+        List<String> committed = new ArrayList<>();
+        // 约 4 段
+        for (int i = 0; i < 4000; i++) {
+            String line = line(i);
+            storage.writeLine(line);
+            committed.add(line);
+            if (i % 50 == 49) {
+                storage.flush(false);
+            }
+        }
+        storage.flush(false);
+        // 最后一组没有提交，进程在这里崩溃
+        for (int i = 0; i < 10; i++) {
+            storage.writeLine("uncommitted-" + i);
+        }
+
+        List<Path> segments = segmentFiles(index);
+        assertTrue(segments.size() >= 3, "segments: " + segments.size());
+        assertEquals(SEGMENT_SIZE, Files.size(segments.get(segments.size() - 1)));
+        assertEquals(committed, readLines(index));
+        assertEquals(bytesOf(committed), MappedRecordingStorage.dataLength(index));
+    }
+
+    @Test
+    void blockLargerThanSegmentIsSplitAndReadBack() throws IOException {
+        Path index = dir.resolve("large.mrec");
+        MappedRecordingStorage storage = new MappedRecordingStorage(SEGMENT_SIZE);
+        storage.openWriter(index.toString());
+        List<String> committed = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            storage.writeLine(line(i));
+            committed.add(line(i));
+        }
+        storage.flush(false);
+
+        // 一行比一整段还长，后面跟若干短行，整体作为一次组提交写入
+        StringBuilder block = new StringBuilder();
+        String longLine = "x".repeat(SEGMENT_SIZE + 5000);
+        block.append(longLine).append('\n');
+        committed.add(longLine);
+        for (int i = 0; i < 2000; i++) {
+            block.append(line(i)).append('\n');
+            committed.add(line(i));
+        }
+        byte[] bytes = block.toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(bytes.length > 2 * SEGMENT_SIZE);
+        storage.writeBytes(bytes, 0, bytes.length);
+        storage.writeLine("tail");
+        committed.add("tail");
+        storage.flush(false);
+        storage.writeLine("uncommitted");
+
+        List<Path> segments = segmentFiles(index);
+        assertTrue(segments.size() >= 3, "segments: " + segments.size());
+        assertEquals(SEGMENT_SIZE, Files.size(segments.get(segments.size() - 1)));
+        assertEquals(committed, readLines(index));
+    }
+
+    @Test
+    void crashBeforeFirstFlushOfNewSegmentReadsPreviousSegments() throws IOException {
+        Path index = dir.resolve("fresh.mrec");
+        MappedRecordingStorage storage = new MappedRecordingStorage(SEGMENT_SIZE);
+        storage.openWriter(index.toString());
+        List<String> committed = new ArrayList<>();
+        int i = 0;
+        // 写到刚好换段为止；换段时上一段整段提交
+        while (segmentFiles(index).size() < 2) {
+            storage.writeLine(line(i));
+            committed.add(line(i));
+            i++;
+        }
+        // 触发换段的那一行在新段里，尚未提交
+        committed.remove(committed.size() - 1);
+
+        assertEquals(committed, readLines(index));
+    }
+
+    @Test
+    void closeWriterCommitsEverythingAndTrimsSegments() throws IOException {
+        Path index = dir.resolve("closed.mrec");
+        MappedRecordingStorage storage = new MappedRecordingStorage(SEGMENT_SIZE);
+        storage.openWriter(index.toString());
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            storage.writeLine(line(i));
+            lines.add(line(i));
+        }
+        storage.closeWriter();
+
+        List<Path> segments = segmentFiles(index);
+        assertTrue(segments.size() >= 2);
+        long total = 0;
+        for (Path segment : segments) {
+            total += Files.size(segment) - 8;
+        }
+        assertEquals(bytesOf(lines), total);
+        assertEquals(lines, readLines(index));
+    }
+
+    private static String line(int i) {
+        return "{\"type\":\"keyframe\",\"t\":" + i + ",\"enemies\":[{\"id\":" + (i % 7) + ",\"x\":" + (i * 3) + "}]}";
+    }
+
+    private static long bytesOf(List<String> lines) {
+        long total = 0;
+        for (String line : lines) {
+            total += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        return total;
+    }
+
+    private static List<String> readLines(Path index) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = RecordingParser.openReader(index.toString())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static List<Path> segmentFiles(Path index) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<String> indexLines = Files.readAllLines(index, StandardCharsets.UTF_8);
+        for (int i = 1; i < indexLines.size(); i++) {
+            String name = indexLines.get(i).split(" ")[0];
+            files.add(index.resolveSibling(name));
+        }
+        return files;
+    }
+}
@@ -0,0 +1,205 @@
+package com.gameengine.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 日志文件被截断、CRC 损坏或检查点指针无效时的恢复：
+ * validLength 只读，recover 截断到最后一条有效记录，负载流在损坏处结束
+ */
+class RecordingJournalTest {
+    private static final int LINES = 12;
+    // 第 CHECKPOINT_AFTER 行之后写一次检查点
+    private static final int CHECKPOINT_AFTER = 5;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * 每行写完后的文件长度；第 i 行记录从 ends[i - 1] 开始
+     */
+    private long[] ends;
+    private long checkpointOffset;
+
+    @Test
+    void tornRecordIsCutOff() throws IOException {
+        Path file = crashedJournal();
+        cut(file, ends[9] + RecordingJournal.RECORD_HEADER_SIZE + 3);
+
+        assertReadOnlyValidLength(file, ends[9]);
+        assertEquals(lines(10), readLines(file));
+
+        assertEquals(ends[9], RecordingJournal.recover(file));
+        assertEquals(ends[9], Files.size(file));
+        assertEquals(lines(10), readLines(file));
+    }
+
+    @Test
+    void cutInsideRecordHeaderIsCutOff() throws IOException {
+        Path file = crashedJournal();
+        cut(file, ends[10] + 4);
+
+        assertReadOnlyValidLength(file, ends[10]);
+        assertEquals(ends[10], RecordingJournal.recover(file));
+        assertEquals(lines(11), readLines(file));
+    }
+
+    @Test
+    void corruptedCrcEndsTheJournal() throws IOException {
+        Path file = crashedJournal();
+        flipByte(file, ends[7] + RecordingJournal.RECORD_HEADER_SIZE + 2);
+
+        assertReadOnlyValidLength(file, ends[7]);
+        assertEquals(lines(8), readLines(file));
+
+        assertEquals(ends[7], RecordingJournal.recover(file));
+        assertEquals(ends[7], Files.size(file));
+        assertEquals(lines(8), readLines(file));
+    }
+
+    @Test
+    void invalidCheckpointPointerFallsBackToFullScan() throws IOException {
+        crashedJournal();
+        // 检查点记录中间、数据记录（类型不符）、越界、文件头、负数
+        long[] badOffsets = {checkpointOffset + 3, ends[2], 1L << 40, 0, -7};
+        for (long bad : badOffsets) {
+            Path file = crashedJournal();
+            setCheckpointPointer(file, bad);
+            cut(file, ends[10] + 6);
+
+            assertReadOnlyValidLength(file, ends[10]);
+            assertEquals(ends[10], RecordingJournal.recover(file), "pointer " + bad);
+            assertEquals(lines(11), readLines(file));
+        }
+    }
+
+    @Test
+    void validCheckpointPointerStillScansRecordsAfterIt() throws IOException {
+        Path file = crashedJournal();
+        assertEquals(checkpointOffset, readCheckpointPointer(file));
+
+        assertReadOnlyValidLength(file, ends[LINES - 1]);
+        cut(file, ends[LINES - 2] + 1);
+        assertEquals(ends[LINES - 2], RecordingJournal.recover(file));
+        assertEquals(lines(LINES - 1), readLines(file));
+    }
+
+    @Test
+    void writerAppendsAfterRecovery() throws IOException {
+        Path file = crashedJournal();
+        cut(file, ends[9] + 5);
+
+        JournalRecordingStorage storage = new JournalRecordingStorage(false, 1000);
+        storage.openWriter(file.toString());
+        storage.writeLine("after");
+        storage.closeWriter();
+
+        List<String> expected = lines(10);
+        expected.add("after");
+        assertEquals(expected, readLines(file));
+    }
+
+    @Test
+    void notAJournal() throws IOException {
+        Path file = dir.resolve("plain.rec");
+        Files.writeString(file, "{\"type\":\"header\"}\n");
+        assertEquals(-1, RecordingJournal.validLength(file));
+        assertEquals(-1, RecordingJournal.recover(file));
+        assertEquals(18, Files.size(file));
+    }
+
+    /**
+     * 写 LINES 行，第 CHECKPOINT_AFTER 行之后落盘一次；关闭后去掉关闭时写的检查点并把指针改回中间的检查点，
+     * 得到与进程在最后一行之后崩溃相同的文件
+     */
+    private Path crashedJournal() throws IOException {
+        Path file = Files.createTempFile(dir, "journal", ".rec");
+        Files.delete(file);
+        ends = new long[LINES];
+        JournalRecordingStorage storage = new JournalRecordingStorage(false, 60_000);
+        storage.openWriter(file.toString());
+        for (int i = 0; i < LINES; i++) {
+            storage.writeLine(line(i));
+            ends[i] = Files.size(file);
+            if (i == CHECKPOINT_AFTER) {
+                storage.flush(true);
+                checkpointOffset = ends[i];
+            }
+        }
+        storage.closeWriter();
+        cut(file, ends[LINES - 1]);
+        setCheckpointPointer(file, checkpointOffset);
+        return file;
+    }
+
+    private static void assertReadOnlyValidLength(Path file, long expected) throws IOException {
+        byte[] before = Files.readAllBytes(file);
+        assertEquals(expected, RecordingJournal.validLength(file));
+        assertArrayEquals(before, Files.readAllBytes(file));
+    }
+
+    private static String line(int i) {
+        return "{\"type\":\"keyframe\",\"t\":" + i + "}";
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(line(i));
+        }
+        return lines;
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = RecordingParser.openReader(file.toString())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static void cut(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 0x20)).rewind();
+            channel.write(b, position);
+        }
+    }
+
+    private static void setCheckpointPointer(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, offset), RecordingJournal.CHECKPOINT_POINTER_OFFSET);
+        }
+    }
+
+    private static long readCheckpointPointer(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(Long.BYTES);
+            channel.read(b, RecordingJournal.CHECKPOINT_POINTER_OFFSET);
+            return b.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.gameengine.recording;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 存储写得很慢时 close 仍等到全部数据写出、存储关闭之后才返回
+ */
+class RecordingPipelineTest {
+
+    @Test
+    void closeDrainsEverythingBeforeReturning() {
+        SlowStorage storage = new SlowStorage();
+        RecordingConfig config = new RecordingConfig("unused");
+        config.flushBytes = 64;
+        RecordingPipeline pipeline = new RecordingPipeline(config, storage);
+        assertDoesNotThrow(pipeline::open);
+        int count = 500;
+        for (int i = 0; i < count; i++) {
+            assertTrue(pipeline.offer("{\"i\":" + i + "}"));
+        }
+
+        pipeline.close();
+
+        assertTrue(storage.closed);
+        String[] lines = storage.data.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(count, lines.length);
+        assertEquals("{\"i\":" + (count - 1) + "}", lines[count - 1]);
+    }
+
+    /**
+     * 每个块写入耗时 10ms，close 时队列里还有大量未写出的块
+     */
+    private static final class SlowStorage implements RecordingStorage {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        volatile boolean closed;
+
+        @Override
+        public void openWriter(String path) {
+        }
+
+        @Override
+        public void writeLine(String line) {
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void writeBytes(byte[] bytes, int offset, int length) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError("写入阶段不应被中断");
+            }
+            synchronized (data) {
+                data.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush(boolean sync) {
+        }
+
+        @Override
+        public void closeWriter() {
+            closed = true;
+        }
+
+        @Override
+        public Iterable<String> readLines(String path) {
+            return List.of();
+        }
+
+        @Override
+        public List<File> listRecordings() {
+            return List.of();
+        }
+    }
+}